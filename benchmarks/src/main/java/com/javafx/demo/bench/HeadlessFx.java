@@ -0,0 +1,62 @@
+package com.javafx.demo.bench;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.javafx.demo.replay.AppUnderTest;
+
+import javafx.application.Platform;
+
+/**
+ * HeadlessFx
+ *
+ * Starts the JavaFX toolkit once per benchmark JVM on the Monocle headless platform with
+ * software rendering, and runs benchmark bodies on the FX thread (scene graph code must run
+ * there once a control creates its skin).
+ */
+final class HeadlessFx {
+
+    private static boolean started;
+
+    private HeadlessFx() {
+    }
+
+    /** Starts the toolkit if this JVM has not done so yet. */
+    static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        AppUnderTest.useHeadlessToolkit();
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        Platform.startup(() -> ready.complete(null));
+        // the benchmark creates no windows; keep the toolkit alive between iterations
+        Platform.setImplicitExit(false);
+        try {
+            ready.get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+        started = true;
+    }
+
+    /** Runs the task on the FX thread and returns its result. */
+    static <T> T call(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
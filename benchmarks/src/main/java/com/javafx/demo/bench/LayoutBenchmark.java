@@ -0,0 +1,191 @@
+package com.javafx.demo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javafx.demo.second.NodesLayOutDemo;
+
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+/**
+ * LayoutBenchmark
+ *
+ * How the seven layouts of {@link NodesLayOutDemo} scale with the number of demo nodes:
+ *
+ *  - constructScene:   build the layout around N fresh demo nodes and create its Scene
+ *  - firstCssAndLayout: the first CSS pass (skins are created here) and layout pass
+ *  - relayoutAfterResize: layout pass after the root was resized (CSS already applied)
+ *
+ * Every invocation gets a new scene (set up outside the measured time), so each is a single
+ * cold pass - hence SingleShotTime. Everything runs on the FX thread of a headless toolkit.
+ *
+ * The demo only puts the first three nodes into its StackPane, and its BorderPane and
+ * AnchorPane have fixed content; here StackPane stacks all N, BorderPane gets them in a VBox
+ * as center and AnchorPane anchors them one below the other under its own content.
+ *
+ * 100k nodes take minutes per layout; narrow the run with e.g.
+ * {@code -p nodeCount=10,1000 -p layout=VBox,GridPane}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class LayoutBenchmark {
+
+    private static final double WIDTH = 900;
+    private static final double HEIGHT = 520;
+
+    @Param({ "HBox", "VBox", "FlowPane", "GridPane", "StackPane", "BorderPane", "AnchorPane" })
+    public String layout;
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int nodeCount;
+
+    @Setup(Level.Trial)
+    public void startToolkit() throws InterruptedException {
+        HeadlessFx.start();
+    }
+
+    // ---------- scene construction ----------
+
+    @State(Scope.Thread)
+    public static class FreshNodes {
+        List<Node> nodes;
+
+        @Setup(Level.Invocation)
+        public void create(LayoutBenchmark params) {
+            nodes = HeadlessFx.call(() -> NodesLayOutDemo.createDemoNodes(params.nodeCount));
+        }
+
+        @TearDown(Level.Invocation)
+        public void release() {
+            nodes = null;
+        }
+    }
+
+    @Benchmark
+    public Scene constructScene(FreshNodes fresh) {
+        return HeadlessFx.call(() -> new Scene(buildLayout(layout, fresh.nodes), WIDTH, HEIGHT));
+    }
+
+    // ---------- first CSS + layout pass ----------
+
+    @State(Scope.Thread)
+    public static class FreshScene {
+        Scene scene;
+
+        @Setup(Level.Invocation)
+        public void build(LayoutBenchmark params) {
+            scene = HeadlessFx.call(() -> new Scene(
+                    buildLayout(params.layout, NodesLayOutDemo.createDemoNodes(params.nodeCount)), WIDTH, HEIGHT));
+        }
+
+        @TearDown(Level.Invocation)
+        public void release() {
+            scene = null;
+        }
+    }
+
+    @Benchmark
+    public Parent firstCssAndLayout(FreshScene fresh) {
+        return HeadlessFx.call(() -> {
+            Parent root = fresh.scene.getRoot();
+            root.applyCss();
+            root.layout();
+            return root;
+        });
+    }
+
+    // ---------- relayout after a resize ----------
+
+    @State(Scope.Thread)
+    public static class LaidOutScene {
+        Scene scene;
+        boolean large;
+
+        @Setup(Level.Iteration)
+        public void build(LayoutBenchmark params) {
+            scene = HeadlessFx.call(() -> {
+                Scene s = new Scene(buildLayout(params.layout, NodesLayOutDemo.createDemoNodes(params.nodeCount)), WIDTH, HEIGHT);
+                s.getRoot().applyCss();
+                s.getRoot().resize(WIDTH, HEIGHT);
+                s.getRoot().layout();
+                return s;
+            });
+        }
+
+        @TearDown(Level.Iteration)
+        public void release() {
+            scene = null;
+        }
+    }
+
+    @Benchmark
+    public Parent relayoutAfterResize(LaidOutScene laidOut) {
+        // alternate between two sizes so every invocation really changes the size
+        laidOut.large = !laidOut.large;
+        double w = laidOut.large ? WIDTH * 1.5 : WIDTH;
+        double h = laidOut.large ? HEIGHT * 1.5 : HEIGHT;
+        return HeadlessFx.call(() -> {
+            Parent root = laidOut.scene.getRoot();
+            root.resize(w, h);
+            root.layout();
+            return root;
+        });
+    }
+
+    // the demo's layout, with all N nodes placed in the layouts that normally take a fixed few
+    static Parent buildLayout(String layout, List<Node> nodes) {
+        switch (layout) {
+            case "StackPane": {
+                StackPane stack = new StackPane();
+                stack.setPadding(new Insets(12));
+                stack.getChildren().addAll(nodes);
+                return stack;
+            }
+            case "BorderPane": {
+                BorderPane border = (BorderPane) NodesLayOutDemo.buildLayout(layout, nodes);
+                VBox center = new VBox(10);
+                center.getChildren().addAll(nodes);
+                border.setCenter(center);
+                return border;
+            }
+            case "AnchorPane": {
+                AnchorPane anchor = (AnchorPane) NodesLayOutDemo.buildLayout(layout, nodes);
+                double top = 80;
+                for (Node n : nodes) {
+                    AnchorPane.setTopAnchor(n, top);
+                    AnchorPane.setLeftAnchor(n, 8.0);
+                    top += 40;
+                }
+                anchor.getChildren().addAll(nodes);
+                return anchor;
+            }
+            default:
+                return NodesLayOutDemo.buildLayout(layout, nodes);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.javafx.demo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javafx.demo.auth.PasswordHasher;
+
+/**
+ * PasswordHashBenchmark
+ *
+ * Password verifications per second for a few PBKDF2 work factors, with all cores busy (the
+ * score is the total of all threads). This is the login capacity of one machine, and one over
+ * the single-thread score is the latency a user waits for a login check.
+ *
+ * Pick the core count with -t, e.g. {@code -t 1} for the latency, {@code -t 4} for four
+ * concurrent logins on four cores; more threads than cores only adds queueing. Other work
+ * factors: {@code -p iterations=200000,400000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    @Param({ "100000", "310000", "600000" })
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String stored;
+    private final char[] password = "correct horse battery staple".toCharArray();
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(iterations);
+        stored = hasher.hash(password);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify(password, stored);
+    }
+}
@@ -3,7 +3,10 @@
  */
 package com.javafx.demo;
 
-import javafx.application.Application;
+import com.javafx.demo.logging.Log;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.layout.StackPane;
@@ -13,13 +16,15 @@ import javafx.stage.Stage;
  * @author Pradeep
  *
  */
-public class HelloJavaFX extends Application {
+public class HelloJavaFX extends InstrumentedApplication {
+
+	private static final Log LOG = Log.get(HelloJavaFX.class);
 
 	@Override
-	public void start(Stage primaryStage) throws Exception {
+	protected void startApp(Stage primaryStage) throws Exception {
 		// Create a button - this is a Node
         Button btn = new Button("नमस्ते JavaFX!");
-        btn.setOnAction(e -> System.out.println("Button clicked!"));
+        btn.setOnAction(e -> LOG.info("Button clicked!"));
         
         // Create a layout - also a Node
         StackPane root = new StackPane();
@@ -39,7 +44,7 @@ public class HelloJavaFX extends Application {
 	}
 	
 	public static void main(String[] args) {
-		launch(args);
+		StartupLauncher.launch(HelloJavaFX.class, args);
 	}
 
 }
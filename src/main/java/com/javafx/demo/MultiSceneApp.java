@@ -3,11 +3,12 @@
  */
 package com.javafx.demo;
 
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.SceneRegistry;
+import com.javafx.demo.util.StartupLauncher;
 
-
-import javafx.application.Application;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
@@ -17,16 +18,27 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-public class MultiSceneApp extends Application {
+public class MultiSceneApp extends InstrumentedApplication {
     
-    private Stage primaryStage;
-    private Scene loginScene, dashboardScene, settingsScene;
+    // Builds each screen the first time it is shown (and the likely next one in the background)
+    private SceneRegistry scenes;
     
     @Override
-    public void start(Stage stage) {
-        this.primaryStage = stage;
+    protected void startApp(Stage primaryStage) {
+        scenes = new SceneRegistry(primaryStage, 600, 400);
+        // name, how to build it, which screens usually come next
+        scenes.register("login", this::createLogin, "dashboard");
+        scenes.register("dashboard", this::createDashboard, "settings");
+        scenes.register("settings", this::createSettings, "dashboard");
         
-        // Create Scene 1: Login
+        // Start with login scene: only this one is built before the window appears
+        primaryStage.setTitle("Multi-Scene Application");
+        scenes.show("login");
+        primaryStage.show();
+    }
+    
+    // Scene 1: Login
+    private Parent createLogin() {
         VBox loginLayout = new VBox(10);
         loginLayout.setAlignment(Pos.CENTER);
         TextField username = new TextField();
@@ -34,40 +46,46 @@ public class MultiSceneApp extends Application {
         Button loginBtn = new Button("Login");
         loginBtn.setOnAction(e -> showDashboard());
         loginLayout.getChildren().addAll(username, password, loginBtn);
-        loginScene = new Scene(loginLayout, 600, 400);
-        
-        // Create Scene 2: Dashboard
+        return loginLayout;
+    }
+    
+    // Scene 2: Dashboard
+    private Parent createDashboard() {
         BorderPane dashLayout = new BorderPane();
         Label welcomeLabel = new Label("Welcome to Dashboard!");
         Button settingsBtn = new Button("Go to Settings");
         settingsBtn.setOnAction(e -> showSettings());
         dashLayout.setCenter(welcomeLabel);
         dashLayout.setBottom(settingsBtn);
-        dashboardScene = new Scene(dashLayout, 600, 400);
-        
-        // Create Scene 3: Settings
+        return dashLayout;
+    }
+    
+    // Scene 3: Settings
+    private Parent createSettings() {
         VBox settingsLayout = new VBox(15);
         CheckBox notifications = new CheckBox("Enable Notifications");
         Button backBtn = new Button("Back to Dashboard");
         backBtn.setOnAction(e -> showDashboard());
         settingsLayout.getChildren().addAll(notifications, backBtn);
-        settingsScene = new Scene(settingsLayout, 600, 400);
-        
-        // Start with login scene
-        primaryStage.setTitle("Multi-Scene Application");
-        primaryStage.setScene(loginScene);
-        primaryStage.show();
+        return settingsLayout;
     }
     
     private void showDashboard() {
-        primaryStage.setScene(dashboardScene);
+        scenes.show("dashboard");
     }
     
     private void showSettings() {
-        primaryStage.setScene(settingsScene);
+        scenes.show("settings");
+    }
+    
+    @Override
+    public void stop() {
+        if (scenes != null) {
+            scenes.dispose();
+        }
     }
     
     public static void main(String[] args) {
-    	launch(args);
+    	StartupLauncher.launch(MultiSceneApp.class, args);
     }
 }
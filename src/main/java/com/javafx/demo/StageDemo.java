@@ -3,7 +3,9 @@
  */
 package com.javafx.demo;
 
-import javafx.application.Application;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
@@ -12,11 +14,11 @@ import javafx.stage.StageStyle;
  * @author Pradeep
  *
  */
-public class StageDemo extends Application {
+public class StageDemo extends InstrumentedApplication {
     
     // Main entry point for JavaFX application
     @Override
-    public void start(Stage primaryStage) {
+    protected void startApp(Stage primaryStage) {
         // Set stage title (appears in window title bar)
         primaryStage.setTitle("Railway Reservation System");
         
@@ -36,6 +38,6 @@ public class StageDemo extends Application {
     }
     
     public static void main(String[] args) {
-        launch(args);
+        StartupLauncher.launch(StageDemo.class, args);
     }
 }
@@ -0,0 +1,144 @@
+package com.javafx.demo.auth;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.javafx.demo.logging.Log;
+
+/**
+ * Authenticator
+ *
+ * Checks user names and passwords against salted hashes ({@link PasswordHasher}), on its own
+ * threads: a check costs as much CPU as the work factor says, which would freeze the window if
+ * it ran on the FX thread.
+ * <pre>
+ *   authenticator.authenticate(user, password.getText().toCharArray())
+ *           .thenAccept(ok -&gt; Platform.runLater(() -&gt; showResult(ok)));
+ * </pre>
+ *
+ *  - Only hashes are kept. {@link #addUser(String, char[])} hashes in the background too, and
+ *    wipes the password array when done, successful or not; so does
+ *    {@link #authenticate(String, char[])}.
+ *  - Unknown users are checked against a dummy hash, so the answer takes as long as for a
+ *    known user with a wrong password (the timing does not reveal which user names exist).
+ *  - The threads (one per core by default) are daemons; many logins at once queue up rather
+ *    than oversubscribing the CPU.
+ *  - Users not added here are looked up in the {@link UserStore}, if one is given: a
+ *    directory of millions of users costs no heap and no load time.
+ */
+public class Authenticator {
+
+    private static final Log LOG = Log.get(Authenticator.class);
+
+    private final PasswordHasher hasher;
+    private final ExecutorService pool;
+    private final Map<String, CompletableFuture<String>> hashes = new ConcurrentHashMap<>();
+    private final CompletableFuture<String> dummyHash;
+    private final UserStore store;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+
+    public Authenticator(PasswordHasher hasher, int threads) {
+        this(hasher, threads, null);
+    }
+
+    /**
+     * @param store users that were not added with addUser / addHashedUser; may be null
+     */
+    public Authenticator(PasswordHasher hasher, int threads, UserStore store) {
+        this.hasher = hasher;
+        this.store = store;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "auth-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.dummyHash = CompletableFuture.supplyAsync(() -> hasher.hash("not a password".toCharArray()), pool);
+    }
+
+    /** Default hasher (see {@link PasswordHasher#fromSystemProperties()}), one thread per core. */
+    public Authenticator() {
+        this(PasswordHasher.fromSystemProperties(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Adds a user with a stored hash (from {@link PasswordHasher#hash(char[])}). */
+    public void addHashedUser(String user, String encodedHash) {
+        hashes.put(user, CompletableFuture.completedFuture(encodedHash));
+    }
+
+    /** Adds a user; the password is hashed in the background and the array wiped afterwards. */
+    public void addUser(String user, char[] password) {
+        CompletableFuture<String> hash;
+        try {
+            hash = CompletableFuture.supplyAsync(() -> hasher.hash(password), pool);
+        } catch (RuntimeException ex) {
+            // e.g. rejected after shutdown()
+            Arrays.fill(password, '\0');
+            throw ex;
+        }
+        hashes.put(user, wipeWhenDone(hash, password));
+    }
+
+    public int getUserCount() {
+        return hashes.size() + (store == null ? 0 : store.size());
+    }
+
+    /**
+     * Checks the password in the background. The future completes on an authenticator thread
+     * (use Platform.runLater to touch the UI). The password array is wiped afterwards.
+     */
+    public CompletableFuture<Boolean> authenticate(String user, char[] password) {
+        CompletableFuture<Boolean> result;
+        try {
+            CompletableFuture<String> stored = user == null ? null : hashes.get(user);
+            if (stored == null && user != null && store != null) {
+                // on an authenticator thread: reading the mapped file may wait for the disk
+                stored = CompletableFuture.supplyAsync(() -> store.getPasswordHash(user), pool);
+            }
+            if (stored == null) {
+                stored = CompletableFuture.completedFuture(null);
+            }
+            result = stored.thenCombineAsync(dummyHash, (encoded, dummy) -> {
+                long start = System.nanoTime();
+                try {
+                    // verify even for unknown users: same work, same time
+                    boolean known = encoded != null;
+                    return hasher.verify(password, known ? encoded : dummy) && known;
+                } finally {
+                    verifications.increment();
+                    verifyNanos.add(System.nanoTime() - start);
+                }
+            }, pool);
+        } catch (RuntimeException ex) {
+            Arrays.fill(password, '\0');
+            throw ex;
+        }
+        return wipeWhenDone(result, password);
+    }
+
+    // also when the work never ran: a failed store lookup or dummy hash, a rejected task
+    private static <T> CompletableFuture<T> wipeWhenDone(CompletableFuture<T> future, char[] password) {
+        return future.whenComplete((value, error) -> Arrays.fill(password, '\0'));
+    }
+
+    /** e.g. "users 3, verifications 12, avg 182.4 ms, iterations 310000". */
+    public String stats() {
+        long n = verifications.sum();
+        return String.format("users %d, verifications %d, avg %.1f ms, iterations %d",
+                getUserCount(), n, n == 0 ? 0 : verifyNanos.sum() / 1_000_000.0 / n, hasher.getIterations());
+    }
+
+    /** Stops the threads; pending checks are dropped. */
+    public void shutdown() {
+        pool.shutdownNow();
+        LOG.debug("Authenticator stopped", "stats", stats());
+    }
+}
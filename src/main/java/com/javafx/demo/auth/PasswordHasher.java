@@ -0,0 +1,102 @@
+package com.javafx.demo.auth;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PasswordHasher
+ *
+ * Salted PBKDF2 (HMAC-SHA256) password hashes, stored as one string:
+ * <pre>
+ *   pbkdf2-sha256$310000$&lt;salt, base64&gt;$&lt;hash, base64&gt;
+ * </pre>
+ * The iteration count is the work factor: every verification costs that many HMACs, so a
+ * stolen hash is as slow to brute-force as a login is to check. Each hash keeps its own count,
+ * so raising it later does not break stored hashes ({@link #needsRehash(String)} tells which
+ * ones to re-hash at the next successful login).
+ *
+ * Hashing takes tens to hundreds of milliseconds by design - never call it on the FX thread
+ * ({@link Authenticator} runs it on its own threads). Comparing the hashes is constant-time.
+ */
+public final class PasswordHasher {
+
+    /** System property for the work factor of new hashes. */
+    public static final String ITERATIONS_PROPERTY = "auth.pbkdf2.iterations";
+
+    /** OWASP's 2021 recommendation for PBKDF2-HMAC-SHA256. */
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /** Hasher with the work factor from {@value #ITERATIONS_PROPERTY} (default {@value #DEFAULT_ITERATIONS}). */
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** Hashes the password with a new random salt. The array is not modified. */
+    public String hash(char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations, HASH_BITS);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    /** Whether the password matches the stored hash. Malformed hashes never match. */
+    public boolean verify(char[] password, String encoded) {
+        String[] parts = encoded == null ? new String[0] : encoded.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = pbkdf2(password, salt, storedIterations, expected.length * 8);
+            // constant-time: the time taken does not tell how many leading bytes matched
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException malformed) {
+            return false;
+        }
+    }
+
+    /** Whether the hash was made with another work factor than this hasher's. */
+    public boolean needsRehash(String encoded) {
+        String[] parts = encoded.split("\\$");
+        return parts.length != 4 || !PREFIX.equals(parts[0]) || !parts[1].equals(Integer.toString(iterations));
+    }
+
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            // PBKDF2WithHmacSHA256 is required of every Java platform since 8
+            throw new IllegalStateException(ALGORITHM + " not available", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
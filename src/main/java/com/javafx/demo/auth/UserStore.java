@@ -0,0 +1,333 @@
+package com.javafx.demo.auth;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+
+/**
+ * UserStore
+ *
+ * Persistent user directory in one memory-mapped file: an open-addressing hash index over
+ * fixed-size records. Opening maps the file and reads its header - there is no load phase,
+ * whatever the number of users - and the data lives in the OS page cache, not on the heap.
+ * {@link #find(CharSequence)} does not allocate: it hashes the name's chars, probes the index
+ * and compares the chars in place.
+ *
+ * Layout (little endian):
+ * <pre>
+ *   header (64 bytes): magic, version, slotCount, capacity, userCount, recordCount, reserved
+ *   index (slotCount longs): 0 = empty, else (name hash | 1 &lt;&lt; 31) &lt;&lt; 32 | (record + 1)
+ *   records (128 bytes each):
+ *     0  int     nameLength   (chars, at most {@value #MAX_NAME_LENGTH})
+ *     4  int     iterations   (PBKDF2 work factor)
+ *     8  byte[]  salt         (16 bytes)
+ *    24  byte[]  hash         (32 bytes)
+ *    56  char[]  name         (32 chars)
+ *   120  long    reserved
+ * </pre>
+ * The index has at least two slots per user (linear probing stays short). Users are never
+ * removed; changing a password writes a new record and points the slot at it.
+ *
+ * One writer at a time ({@link #put} is synchronized), any number of readers on any thread:
+ * a record is written completely before its index slot is published with a release write, and
+ * readers read slots with acquire reads, so a reader that finds a user sees the whole record.
+ */
+public final class UserStore implements AutoCloseable {
+
+    /** System property naming the store file MyPortal checks logins against. */
+    public static final String FILE_PROPERTY = "auth.users.file";
+
+    static final int MAGIC = 0x55535231; // "USR1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 128;
+    public static final int MAX_NAME_LENGTH = 32;
+
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int USERS_OFFSET = 16;
+    private static final int RECORDS_OFFSET = 20;
+
+    private static final int ITERATIONS = 4;
+    private static final int SALT = 8;
+    private static final int HASH = 24;
+    private static final int NAME = 56;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int capacity;
+    private final int recordsOffset;
+
+    private UserStore(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.recordsOffset = HEADER_SIZE + slotCount * 8;
+    }
+
+    /**
+     * Opens an existing store. Never creates one: a missing or empty file is an error, so a
+     * mistyped path is noticed instead of silently starting with no users.
+     *
+     * @throws NoSuchFileException if the file does not exist or is empty
+     */
+    public static UserStore openExisting(Path path) throws IOException {
+        return open(path, 0, false);
+    }
+
+    /**
+     * Opens the store, creating it for up to {@code capacity} users if the file does not exist
+     * (an existing file keeps its own capacity). The file is sparse: unused records take no disk.
+     * For tools that fill a store, like {@link #main}; applications use {@link #openExisting}.
+     */
+    public static UserStore openOrCreate(Path path, int capacity) throws IOException {
+        return open(path, capacity, true);
+    }
+
+    private static UserStore open(Path path, int capacity, boolean mayCreate) throws IOException {
+        boolean create = !Files.exists(path) || Files.size(path) == 0;
+        if (create && !mayCreate) {
+            throw new NoSuchFileException(path.toString(), null, "no user store (create one with UserStore's main)");
+        }
+        int slots = 0;
+        long size;
+        if (create) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            slots = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            size = HEADER_SIZE + (long) slots * 8 + (long) capacity * RECORD_SIZE;
+            if (slots <= 0 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("capacity too large for one mapped file: " + capacity);
+            }
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+        } else {
+            size = Files.size(path);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+                FileChannel channel = file.getChannel()) {
+            if (create) {
+                file.setLength(size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (create) {
+                buffer.putInt(4, VERSION);
+                buffer.putInt(SLOT_COUNT_OFFSET, slots);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                // magic last: a file without it was not completely created
+                buffer.putInt(0, MAGIC);
+                buffer.force();
+            } else if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a user store (or another version): " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            return new UserStore(path, buffer);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Number of users. */
+    public int size() {
+        return (int) INTS.getAcquire(buffer, USERS_OFFSET);
+    }
+
+    /** Maximum number of records: users plus password changes. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Record index of the user, or -1. Does not allocate; safe on any thread. The first lookups
+     * after opening may wait for the disk while the OS pages the file in.
+     */
+    public int find(CharSequence user) {
+        int length = user.length();
+        if (length == 0 || length > MAX_NAME_LENGTH) {
+            return -1;
+        }
+        int hash = hash(user);
+        int tag = hash | 0x80000000;
+        int mask = slotCount - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            long entry = (long) LONGS.getAcquire(buffer, HEADER_SIZE + slot * 8);
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == tag) {
+                int record = (int) entry - 1;
+                if (nameEquals(record, user)) {
+                    return record;
+                }
+            }
+        }
+    }
+
+    /** Whether the user exists. */
+    public boolean contains(CharSequence user) {
+        return find(user) >= 0;
+    }
+
+    /** The user's password hash in {@link PasswordHasher}'s format, or null for unknown users. */
+    public String getPasswordHash(CharSequence user) {
+        int record = find(user);
+        if (record < 0) {
+            return null;
+        }
+        int offset = recordOffset(record);
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] hash = new byte[HASH_BYTES];
+        buffer.get(offset + SALT, salt);
+        buffer.get(offset + HASH, hash);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PasswordHasher.PREFIX + "$" + buffer.getInt(offset + ITERATIONS) + "$"
+                + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * Adds the user, or changes the password hash of an existing one.
+     *
+     * @param encodedHash from {@link PasswordHasher#hash(char[])}
+     * @throws IllegalStateException when the store is full
+     */
+    public synchronized void put(String user, String encodedHash) {
+        if (user.isEmpty() || user.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("user name must have 1 to " + MAX_NAME_LENGTH + " chars: " + user);
+        }
+        String[] parts = encodedHash.split("\\$");
+        if (parts.length != 4 || !PasswordHasher.PREFIX.equals(parts[0])) {
+            throw new IllegalArgumentException("not a " + PasswordHasher.PREFIX + " hash");
+        }
+        int iterations = Integer.parseInt(parts[1]);
+        byte[] salt = Base64.getDecoder().decode(parts[2]);
+        byte[] hash = Base64.getDecoder().decode(parts[3]);
+        if (salt.length != SALT_BYTES || hash.length != HASH_BYTES) {
+            throw new IllegalArgumentException("only hashes with a 16 byte salt and a 32 byte hash fit a record");
+        }
+        int record = (int) INTS.getAcquire(buffer, RECORDS_OFFSET);
+        if (record == capacity) {
+            throw new IllegalStateException("user store is full (" + capacity + " records): " + path);
+        }
+
+        // write the record first...
+        int offset = recordOffset(record);
+        buffer.putInt(offset, user.length());
+        buffer.putInt(offset + ITERATIONS, iterations);
+        buffer.put(offset + SALT, salt);
+        buffer.put(offset + HASH, hash);
+        for (int i = 0; i < user.length(); i++) {
+            buffer.putChar(offset + NAME + i * 2, user.charAt(i));
+        }
+        INTS.setRelease(buffer, RECORDS_OFFSET, record + 1);
+
+        // ...then publish it: readers that see the slot see the record
+        int hashCode = hash(user);
+        long entry = ((long) (hashCode | 0x80000000) << 32) | (record + 1L);
+        int mask = slotCount - 1;
+        for (int slot = hashCode & mask;; slot = (slot + 1) & mask) {
+            int slotOffset = HEADER_SIZE + slot * 8;
+            long current = (long) LONGS.getAcquire(buffer, slotOffset);
+            if (current == 0 || (((int) (current >>> 32)) == (hashCode | 0x80000000) && nameEquals((int) current - 1, user))) {
+                // a changed password takes a new record; the old one is left unused
+                LONGS.setRelease(buffer, slotOffset, entry);
+                if (current == 0) {
+                    INTS.setRelease(buffer, USERS_OFFSET, size() + 1);
+                }
+                return;
+            }
+        }
+    }
+
+    /** Number of records used (users plus password changes). */
+    public int records() {
+        return (int) INTS.getAcquire(buffer, RECORDS_OFFSET);
+    }
+
+    /** Writes changes to disk now (the OS does it eventually anyway). */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private int recordOffset(int record) {
+        return recordsOffset + record * RECORD_SIZE;
+    }
+
+    private boolean nameEquals(int record, CharSequence user) {
+        int offset = recordOffset(record);
+        int length = buffer.getInt(offset);
+        if (length != user.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar(offset + NAME + i * 2) != user.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the chars plus a final mix, so similar names spread over the index
+    private static int hash(CharSequence s) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * Creates a store of test users "user1" .. "userN", all with the password "demo123" (hashed
+     * once and shared, so millions of users are written in seconds). Existing users are kept.
+     * <pre>
+     *   java com.javafx.demo.auth.UserStore users.db 2000000 [iterations]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: UserStore <file> <userCount> [iterations]");
+            System.exit(2);
+        }
+        int count = Integer.parseInt(args[1]);
+        PasswordHasher hasher = args.length > 2 ? new PasswordHasher(Integer.parseInt(args[2]))
+                : PasswordHasher.fromSystemProperties();
+        String hash = hasher.hash("demo123".toCharArray());
+        long start = System.nanoTime();
+        // room for a quarter more users and password changes
+        try (UserStore store = openOrCreate(Paths.get(args[0]), count + count / 4)) {
+            for (int i = 1; i <= count && store.records() < store.capacity(); i++) {
+                store.put("user" + i, hash);
+            }
+            System.out.printf("%s: %d users, capacity %d, written in %d ms%n", args[0], store.size(), store.capacity(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -3,7 +3,9 @@
  */
 package com.javafx.demo.first;
 
-import javafx.application.Application;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
@@ -16,10 +18,10 @@ import javafx.stage.Stage;
  * @author Pradeep
  *
  */
-public class HelloJavaFX extends Application {
+public class HelloJavaFX extends InstrumentedApplication {
 
 	@Override
-	public void start(Stage primaryStage) throws Exception {
+	protected void startApp(Stage primaryStage) throws Exception {
 		//Initializing Node/UI Element/Control Element
 		Label lbl = new Label("Hello World");
 		Label lbl1 = new Label("Hello World");
@@ -71,7 +73,7 @@ public class HelloJavaFX extends Application {
 	}
 	
 	public static void main(String[] args) {
-		launch();
+		StartupLauncher.launch(HelloJavaFX.class, args);
 	}
 
 }
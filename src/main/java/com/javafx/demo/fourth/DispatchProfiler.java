@@ -0,0 +1,122 @@
+package com.javafx.demo.fourth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+
+/**
+ * DispatchProfiler
+ *
+ * Measures how long event filters and handlers take, split by dispatch phase and event type.
+ * Instead of registering a handler directly, wrap it:
+ * <pre>
+ *   scene.addEventFilter(MouseEvent.MOUSE_CLICKED,
+ *           profiler.wrap(Phase.SCENE_FILTER, MouseEvent.MOUSE_CLICKED, ev -> { ... }));
+ * </pre>
+ * The wrapper times the call with System.nanoTime() and records it into a
+ * {@link LatencyHistogram}. Histograms are created up front for the tracked event types
+ * and looked up when wrapping, so the per-event cost is two nanoTime calls and a few
+ * atomic increments.
+ */
+public class DispatchProfiler {
+
+    /**
+     * Where in the dispatch chain a filter or handler runs.
+     * Capture phase goes scene filters, then node filters; bubbling goes node handlers, then scene handlers.
+     */
+    public enum Phase {
+        SCENE_FILTER("Scene filter"),
+        NODE_FILTER("Node filter"),
+        NODE_HANDLER("Node handler"),
+        SCENE_HANDLER("Scene handler");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final List<EventType<?>> eventTypes;
+    private final LatencyHistogram[][] histograms;
+
+    /**
+     * Tracks the given event types; handlers for any other type are recorded under "other".
+     */
+    public DispatchProfiler(EventType<?>... eventTypes) {
+        List<EventType<?>> types = new ArrayList<>();
+        Collections.addAll(types, eventTypes);
+        this.eventTypes = Collections.unmodifiableList(types);
+        // one extra column per phase for event types we were not asked to track
+        this.histograms = new LatencyHistogram[Phase.values().length][types.size() + 1];
+        for (LatencyHistogram[] row : histograms) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * Returns a handler that runs the given one and records how long it took.
+     */
+    public <T extends Event> EventHandler<T> wrap(Phase phase, EventType<? extends T> type, EventHandler<T> handler) {
+        LatencyHistogram histogram = histogram(phase, type);
+        return event -> {
+            long start = System.nanoTime();
+            try {
+                handler.handle(event);
+            } finally {
+                histogram.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    public List<EventType<?>> getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Histogram for a phase and event type (the "other" histogram for untracked types).
+     */
+    public LatencyHistogram histogram(Phase phase, EventType<?> type) {
+        int index = eventTypes.indexOf(type);
+        return histograms[phase.ordinal()][index < 0 ? eventTypes.size() : index];
+    }
+
+    public void reset() {
+        for (LatencyHistogram[] row : histograms) {
+            for (LatencyHistogram h : row) {
+                h.reset();
+            }
+        }
+    }
+
+    /**
+     * Plain text table of count / p50 / p99 / max (microseconds) per phase and event type.
+     * Rows without samples are left out.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-14s %-14s %7s %8s %8s %8s%n", "phase", "event", "count", "p50 us", "p99 us", "max us"));
+        for (Phase phase : Phase.values()) {
+            for (int i = 0; i <= eventTypes.size(); i++) {
+                LatencyHistogram h = histograms[phase.ordinal()][i];
+                if (h.getCount() == 0) {
+                    continue;
+                }
+                String type = i < eventTypes.size() ? eventTypes.get(i).getName() : "other";
+                sb.append(String.format("%-14s %-14s %7d %8.1f %8.1f %8.1f%n", phase.getLabel(), type, h.getCount(),
+                        h.getPercentileNanos(50) / 1e3, h.getPercentileNanos(99) / 1e3, h.getMaxNanos() / 1e3));
+            }
+        }
+        return sb.toString();
+    }
+}
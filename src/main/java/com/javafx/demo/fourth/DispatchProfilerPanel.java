@@ -0,0 +1,58 @@
+package com.javafx.demo.fourth;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.util.Duration;
+
+/**
+ * DispatchProfilerPanel
+ *
+ * Small live view of a {@link DispatchProfiler}: a monospaced table of handler timings per
+ * dispatch phase and event type, refreshed twice a second, plus a reset button.
+ */
+public class DispatchProfilerPanel extends VBox {
+
+    private final DispatchProfiler profiler;
+    private final Label table = new Label();
+    private final Timeline refresher;
+
+    public DispatchProfilerPanel(DispatchProfiler profiler) {
+        super(6);
+        this.profiler = profiler;
+        setPadding(new Insets(6));
+
+        Label title = new Label("Handler timings (capture -> bubble)");
+        title.setStyle("-fx-font-weight:bold;");
+
+        table.setFont(Font.font("Monospaced", 11));
+        table.setMinWidth(420);
+
+        Button reset = new Button("Reset timings");
+        reset.setOnAction(e -> {
+            profiler.reset();
+            refresh();
+        });
+
+        getChildren().addAll(title, table, reset);
+
+        // polling keeps the panel's own cost independent of the event rate
+        refresher = new Timeline(new KeyFrame(Duration.millis(500), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+        refresh();
+    }
+
+    public void refresh() {
+        table.setText(profiler.summary());
+    }
+
+    /** Stops the refresh timer, e.g. when the window closes. */
+    public void stop() {
+        refresher.stop();
+    }
+}
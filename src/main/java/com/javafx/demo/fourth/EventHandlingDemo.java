@@ -1,23 +1,34 @@
 package com.javafx.demo.fourth;
 
-import javafx.application.Application;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import com.javafx.demo.image.ImageService;
+import com.javafx.demo.logging.Log;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+import com.javafx.demo.util.ThrottledValue;
+
+import javafx.beans.binding.Bindings;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 /**
@@ -35,14 +46,27 @@ import javafx.stage.Stage;
  *  - Drag-and-drop
  *  - Context menus and right-click handling
  *
+ * Start with -Devents.journal.dir=<dir> to record every input event into an EventJournal.
+ *
  * Run with Java 8 (JavaFX bundled):
  *   javac EventHandlingDemo.java
  *   java EventHandlingDemo
  */
-public class EventHandlingDemo extends Application {
+public class EventHandlingDemo extends InstrumentedApplication {
+
+    // Console output goes through the async logger: printing from a handler would make the
+    // FX thread wait for stdout. High-rate events (key typed, slider, scroll) log at DEBUG,
+    // run with -Dlog.level=DEBUG to see them.
+    private static final Log LOG = Log.get(EventHandlingDemo.class);
+
+    // Optional binary journal of every input event (enabled with -Devents.journal.dir=...)
+    private EventJournal journal;
+
+    // Draws the freehand strokes on the canvas, a frame at a time
+    private StrokeRenderer strokes;
 
     @Override
-    public void start(Stage primaryStage) {
+    protected void startApp(Stage primaryStage) {
         primaryStage.setTitle("JavaFX Event Handling Demo (Java 8)");
 
         // Top-level layout
@@ -59,12 +83,12 @@ public class EventHandlingDemo extends Application {
         btn.setOnAction(new EventHandler<ActionEvent>() {
             @Override
             public void handle(ActionEvent event) {
-                System.out.println("Button Action: You clicked the button!");
+                LOG.info("Button Action: You clicked the button!");
                 showTemporaryAlert("Button clicked", "You pressed the main button.");
             }
         });
         // Also demonstrate mouse click on same button (lower-level mouse event)
-        btn.setOnMouseClicked(e -> System.out.println("Button MouseClicked: button at " + e.getScreenX() + "," + e.getScreenY()));
+        btn.setOnMouseClicked(e -> LOG.info("Button MouseClicked", "screenX", e.getScreenX(), "screenY", e.getScreenY()));
 
         // 2) Label that listens for mouse enter/exit
         Label lblHover = new Label("Hover over me (Mouse Enter/Exit)");
@@ -75,15 +99,15 @@ public class EventHandlingDemo extends Application {
         // 3) TextField with key events and focus
         TextField tf = new TextField();
         tf.setPromptText("Type here (Key events & focus)");
-        tf.setOnKeyTyped(e -> System.out.println("KeyTyped in TextField: '" + e.getCharacter() + "'"));
+        tf.setOnKeyTyped(e -> LOG.debug("KeyTyped in TextField", "character", e.getCharacter()));
         tf.setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.ENTER) {
-                System.out.println("Enter pressed: text = " + tf.getText());
+                LOG.info("Enter pressed", "text", tf.getText());
             }
         });
         // Focus listener using focusedProperty() change listener
         tf.focusedProperty().addListener((obs, wasFocused, isNowFocused) -> {
-            System.out.println("TextField focus changed: nowFocused=" + isNowFocused);
+            LOG.debug("TextField focus changed", "nowFocused", isNowFocused);
         });
 
         // 4) TextArea with context menu (right click)
@@ -102,7 +126,7 @@ public class EventHandlingDemo extends Application {
 
         // 5) CheckBox and RadioButtons with change listeners
         CheckBox cb = new CheckBox("I agree (ChangeListener)");
-        cb.selectedProperty().addListener((obs, oldV, newV) -> System.out.println("CheckBox selected=" + newV));
+        cb.selectedProperty().addListener((obs, oldV, newV) -> LOG.info("CheckBox changed", "selected", newV));
 
         RadioButton r1 = new RadioButton("Option A");
         RadioButton r2 = new RadioButton("Option B");
@@ -112,10 +136,10 @@ public class EventHandlingDemo extends Application {
         // listen for selected toggle changes
         tg.selectedToggleProperty().addListener((obs, oldToggle, newToggle) -> {
             if (newToggle == null) {
-                System.out.println("Radio selection cleared");
+                LOG.info("Radio selection cleared");
             } else {
                 RadioButton selected = (RadioButton) newToggle;
-                System.out.println("Radio selected: " + selected.getText());
+                LOG.info("Radio selected", "option", selected.getText());
             }
         });
 
@@ -123,34 +147,39 @@ public class EventHandlingDemo extends Application {
         Slider slider = new Slider(0, 100, 30);
         slider.setShowTickLabels(true);
         slider.setShowTickMarks(true);
-        // Add a listener to the valueProperty to react whenever the slider moves
-        slider.valueProperty().addListener((obs, oldVal, newVal) -> System.out.println("Slider value=" + newVal.intValue()));
+        // A fast drag changes valueProperty() many times per frame. The listeners below listen to a
+        // throttled view of it instead: they run at most once per pulse, with the latest value.
+        ThrottledValue<Number> sliderValue = ThrottledValue.perPulse(slider.valueProperty());
+        // apply the final value immediately when the drag ends
+        slider.valueChangingProperty().addListener((obs, wasChanging, isChanging) -> {
+            if (!isChanging) {
+                sliderValue.flush();
+            }
+        });
+        // Add a listener to the (throttled) value to react whenever the slider moves
+        sliderValue.addListener((obs, oldVal, newVal) -> LOG.debug("Slider moved", "value", newVal.intValue()));
 
         // 7) ListView and ComboBox selection events
         ListView<String> listView = new ListView<>(FXCollections.observableArrayList("Apple", "Banana", "Cherry"));
         listView.setPrefHeight(80);
-        listView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> System.out.println("ListView selected: " + newVal));
+        listView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> LOG.info("ListView selected", "item", newVal));
 
         ComboBox<String> combo = new ComboBox<>(FXCollections.observableArrayList("Red", "Green", "Blue"));
-        combo.setOnAction(e -> System.out.println("Combo action: " + combo.getSelectionModel().getSelectedItem()));
+        combo.setOnAction(e -> LOG.info("Combo action", "item", combo.getSelectionModel().getSelectedItem()));
 
         // 8) Hyperlink (action event)
         Hyperlink link = new Hyperlink("A sample hyperlink (Action)");
-        link.setOnAction(e -> System.out.println("Hyperlink clicked: pretend to open browser"));
+        link.setOnAction(e -> LOG.info("Hyperlink clicked: pretend to open browser"));
 
         // 9) ImageView with mouse events (click & drag)
-        ImageView imgView;
-        try {
-            // Use a simple colored rectangle image via data URL would be complex; we'll use JavaFX shapes instead.
-            imgView = new ImageView(new Image("https://via.placeholder.com/100x60.png?text=IMG"));
-            imgView.setPreserveRatio(true);
-            imgView.setFitWidth(100);
-            imgView.setOnMouseClicked(e -> System.out.println("Image clicked at " + e.getX() + "," + e.getY()));
-        } catch (Exception ex) {
-            // If image fails to load (no internet), create a placeholder shape instead
-            imgView = new ImageView();
-            System.out.println("Could not load remote image; using blank ImageView fallback.");
-        }
+        // new Image("https://...") here would download on the FX thread before the window shows.
+        // The ImageService shows a placeholder now and swaps in the image when it has arrived
+        // (memory / disk cached for the next run; without internet the placeholder stays).
+        ImageView imgView = new ImageView();
+        imgView.setPreserveRatio(true);
+        imgView.setFitWidth(100);
+        imgView.setOnMouseClicked(e -> LOG.info("Image clicked", "x", e.getX(), "y", e.getY()));
+        ImageService.getDefault().loadInto(imgView, "https://via.placeholder.com/100x60.png?text=IMG");
 
         // 10) Shapes: Rectangle with mouse press, drag and release handling
         Rectangle rect = new Rectangle(120, 60, Color.LIGHTBLUE);
@@ -159,25 +188,104 @@ public class EventHandlingDemo extends Application {
         rect.setStroke(Color.DARKBLUE);
         // track dragging for the rectangle
         rect.setOnMousePressed(e -> {
-            System.out.println("Rectangle pressed at: " + e.getX() + "," + e.getY());
+            LOG.info("Rectangle pressed", "x", e.getX(), "y", e.getY());
         });
         rect.setOnMouseDragged(e -> rect.setTranslateX(rect.getTranslateX() + e.getX() - rect.getWidth()/2));
-        rect.setOnMouseReleased(e -> System.out.println("Rectangle released."));
+        rect.setOnMouseReleased(e -> LOG.info("Rectangle released."));
 
         // 11) Canvas with drawing using mouse drag
         Canvas canvas = new Canvas(250, 120);
         GraphicsContext gc = canvas.getGraphicsContext2D();
         gc.setLineWidth(2);
+        // Calling gc.lineTo + gc.stroke() on every drag re-strokes the whole growing path, so
+        // long strokes get laggy. The StrokeRenderer only collects the points here and strokes
+        // just the new segments once per frame.
+        strokes = new StrokeRenderer(canvas);
+        // The pixels alone cannot be saved or zoomed, so every stroke is also kept as vectors
+        // in a StrokeModel (in unzoomed coordinates, simplified to within half a pixel).
+        StrokeModel drawing = new StrokeModel(0.5);
+        Slider zoom = new Slider(0.25, 4, 1);
         canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
-            gc.beginPath();
-            gc.moveTo(e.getX(), e.getY());
-            gc.stroke();
+            strokes.beginStroke(e.getX(), e.getY());
+            double z = zoom.getValue();
+            drawing.beginStroke(e.getX() / z, e.getY() / z, (Color) gc.getStroke(), gc.getLineWidth() / z);
         });
         canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
-            gc.lineTo(e.getX(), e.getY());
-            gc.stroke();
+            strokes.addPoint(e.getX(), e.getY());
+            drawing.addPoint(e.getX() / zoom.getValue(), e.getY() / zoom.getValue());
+        });
+        canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> {
+            strokes.endStroke();
+            drawing.endStroke();
+        });
+        // double-click clears the drawing
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getClickCount() == 2) {
+                strokes.clear();
+                drawing.clear();
+            }
+        });
+
+        // Redraw from the model: used after zooming and loading a file
+        Label drawingInfo = new Label();
+        Runnable redraw = () -> {
+            strokes.clear();
+            long t0 = System.nanoTime();
+            drawing.render(gc, zoom.getValue(), 0, 0, canvas.getWidth(), canvas.getHeight());
+            long micros = (System.nanoTime() - t0) / 1000;
+            drawingInfo.setText(String.format("%,d strokes, %,d points, drawn in %,d us",
+                    drawing.getStrokeCount(), drawing.getPointCount(), micros));
+        };
+        zoom.valueProperty().addListener((obs, oldV, newV) -> redraw.run());
+
+        // Save / open the drawing in the compact binary stroke format
+        Button saveDrawing = new Button("Save drawing...");
+        saveDrawing.setOnAction(e -> {
+            FileChooser chooser = strokeFileChooser();
+            File f = chooser.showSaveDialog(primaryStage);
+            if (f != null) {
+                try {
+                    drawing.save(f.toPath());
+                    drawingInfo.setText("Saved " + f.getName() + " (" + f.length() + " bytes)");
+                } catch (IOException ex) {
+                    drawingInfo.setText("Save failed: " + ex.getMessage());
+                }
+            }
+        });
+        Button openDrawing = new Button("Open drawing...");
+        openDrawing.setOnAction(e -> {
+            FileChooser chooser = strokeFileChooser();
+            File f = chooser.showOpenDialog(primaryStage);
+            if (f != null) {
+                try {
+                    drawing.load(f.toPath());
+                    redraw.run();
+                } catch (IOException ex) {
+                    drawingInfo.setText("Open failed: " + ex.getMessage());
+                }
+            }
+        });
+        // Stress test: a million random-walk points, redrawn from the model
+        Button stressDrawing = new Button("Stress: 1,000,000 points");
+        stressDrawing.setOnAction(e -> {
+            Random random = new Random();
+            for (int s = 0; s < 1000; s++) {
+                double x = random.nextDouble() * canvas.getWidth();
+                double y = random.nextDouble() * canvas.getHeight();
+                drawing.beginStroke(x, y, Color.gray(random.nextDouble() * 0.6), 0.5);
+                for (int i = 1; i < 1000; i++) {
+                    x += random.nextGaussian();
+                    y += random.nextGaussian();
+                    drawing.addPoint(x, y);
+                }
+                // keep every point, this is about redraw speed
+                double tolerance = drawing.getTolerance();
+                drawing.setTolerance(0);
+                drawing.endStroke();
+                drawing.setTolerance(tolerance);
+            }
+            redraw.run();
         });
-        canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, e -> gc.closePath());
 
         // 12) Drag-and-drop demo: drag from a Label and drop onto a target
         Label dragSource = new Label("Drag me ->");
@@ -215,14 +323,14 @@ public class EventHandlingDemo extends Application {
 
         // 13) Scroll event on a pane
         Label scrollLabel = new Label("Scroll your mouse wheel here");
-        scrollLabel.setOnScroll(e -> System.out.println("Scroll deltaY=" + e.getDeltaY()));
+        scrollLabel.setOnScroll(e -> LOG.debug("Scroll", "deltaY", e.getDeltaY()));
 
         // 14) MenuBar with MenuItem action events
         MenuBar menuBar = new MenuBar();
         Menu file = new Menu("File");
         MenuItem miNew = new MenuItem("New");
         MenuItem miExit = new MenuItem("Exit");
-        miNew.setOnAction(e -> System.out.println("New menu clicked"));
+        miNew.setOnAction(e -> LOG.info("New menu clicked"));
         miExit.setOnAction(e -> primaryStage.close());
         file.getItems().addAll(miNew, new SeparatorMenuItem(), miExit);
         menuBar.getMenus().add(file);
@@ -230,8 +338,8 @@ public class EventHandlingDemo extends Application {
         // 15) ProgressBar bound to slider (showing property binding + change)
         ProgressBar pb = new ProgressBar();
         pb.setPrefWidth(180);
-        // bind progress to slider value (normalized)
-        pb.progressProperty().bind(slider.valueProperty().divide(100));
+        // bind progress to the throttled slider value (normalized)
+        pb.progressProperty().bind(Bindings.createDoubleBinding(() -> sliderValue.get().doubleValue() / 100, sliderValue));
 
         // Layout composition: group related nodes so students can see structure
         controlsBox.getChildren().addAll(menuBar, btn, lblHover, tf, ta, cb, r1, r2, slider, pb, listView, combo, link, imgView, dragSource, dropTarget, scrollLabel);
@@ -248,8 +356,12 @@ public class EventHandlingDemo extends Application {
         HBox shapesRow = new HBox(10);
         shapesRow.getChildren().addAll(rect, canvas, new Separator());
 
+        // Drawing tools for the canvas
+        HBox drawingRow = new HBox(8, new Label("Zoom"), zoom, saveDrawing, openDrawing, stressDrawing);
+        drawingRow.setAlignment(Pos.CENTER_LEFT);
+
         // Add ImageView fallback + controls
-        centerBox.getChildren().addAll(centerTitle, shapesRow, tf, ta);
+        centerBox.getChildren().addAll(centerTitle, shapesRow, drawingRow, drawingInfo, tf, ta);
 
         // --- Bottom: status bar shows event details dynamically ---
         Label status = new Label("Status: Ready");
@@ -259,7 +371,8 @@ public class EventHandlingDemo extends Application {
         // Connect some controls to status for real-time feedback
         btn.setOnAction(e -> status.setText("Status: Button clicked at " + System.currentTimeMillis()));
         listView.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> status.setText("Status: Selected " + newV));
-        slider.valueProperty().addListener((obs, oldV, newV) -> status.setText("Status: Slider " + newValToPercent(newV.doubleValue())));
+        sliderValue.addListener((obs, oldV, newV) -> status.setText("Status: Slider " + newValToPercent(newV.doubleValue())
+                + " (" + sliderValue.getSkippedCount() + " intermediate values skipped)"));
 
         // Demonstrate keyboard event at scene-level (captures keys regardless of node focus)
         Scene scene = new Scene(root, 980, 560);
@@ -278,7 +391,7 @@ public class EventHandlingDemo extends Application {
             if (e.getTarget() instanceof javafx.scene.layout.Region || e.getTarget() instanceof Canvas) {
                 // don't override component-specific handlers
             } else {
-                System.out.println("Scene clicked at " + e.getSceneX() + "," + e.getSceneY());
+                LOG.info("Scene clicked", "sceneX", e.getSceneX(), "sceneY", e.getSceneY());
             }
         });
 
@@ -292,16 +405,46 @@ public class EventHandlingDemo extends Application {
         instr.setPadding(new Insets(6));
         root.setTop(instr);
 
+        // Optional: persist every input event into the binary journal
+        journal = EventJournal.openIfConfigured();
+        if (journal != null) {
+            journal.registerTarget(btn, "EventHandlingDemo.button");
+            journal.registerTarget(tf, "EventHandlingDemo.textField");
+            journal.registerTarget(slider, "EventHandlingDemo.slider");
+            journal.registerTarget(rect, "EventHandlingDemo.rectangle");
+            journal.registerTarget(canvas, "EventHandlingDemo.canvas");
+            journal.registerTarget(scrollLabel, "EventHandlingDemo.scrollLabel");
+            scene.addEventFilter(InputEvent.ANY, journal::append);
+        }
+
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
+    @Override
+    public void stop() throws Exception {
+        if (strokes != null) {
+            strokes.stop();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
     // small helper to format slider value into percent string for status
     private String newValToPercent(double val) {
         int p = (int) Math.round(val);
         return p + "%";
     }
 
+    // file chooser for the drawing's binary stroke files
+    private FileChooser strokeFileChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Drawing");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Stroke files", "*.strokes"));
+        return chooser;
+    }
+
     // show a small alert using the JavaFX thread (useful demo for Action events)
     private void showTemporaryAlert(String title, String content) {
         // Use a non-blocking Alert to avoid freezing the UI — practice for students
@@ -313,6 +456,6 @@ public class EventHandlingDemo extends Application {
     }
 
     public static void main(String[] args) {
-        launch(args);
+        StartupLauncher.launch(EventHandlingDemo.class, args);
     }
 }
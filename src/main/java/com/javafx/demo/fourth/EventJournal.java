@@ -0,0 +1,305 @@
+package com.javafx.demo.fourth;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.event.ActionEvent;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * EventJournal
+ *
+ * Persistent, append-only journal of UI events written as fixed-size binary records
+ * into memory-mapped segment files. Appending a record is a handful of puts into a
+ * MappedByteBuffer: no allocation, no system call, so it is safe to call from the FX thread
+ * for every input event. The OS writes the pages back to disk on its own.
+ *
+ * Layout of a segment file (little endian):
+ * <pre>
+ *   header (32 bytes): magic, version, recordSize, recordCount, baseEpochMillis, reserved
+ *   records (32 bytes each):
+ *     0  long  timestampMicros  (microseconds since the epoch)
+ *     8  int   eventTypeId      (see {@link #typeId(EventType)})
+ *    12  int   targetId         (see {@link #registerTarget(Object, String)}, 0 = unknown)
+ *    16  float x                (scene coordinates, NaN when not a mouse/scroll event)
+ *    20  float y
+ *    24  short button           (MouseButton ordinal, 0 = none)
+ *    26  short keyCode          (KeyCode.getCode(), 0 = none)
+ *    28  int   reserved
+ * </pre>
+ * When a segment is full the journal rolls over to the next one, which is already
+ * created and mapped on a background thread. Target names go to a small text file
+ * ("targets.txt") next to the segments. Use {@link EventJournalReader} to read it back.
+ *
+ * The journal has a single writer: call append from one thread (the FX thread).
+ */
+public class EventJournal implements AutoCloseable {
+
+    private static final Log LOG = Log.get(EventJournal.class);
+
+    /** System property naming the directory to journal into; journaling is off when not set. */
+    public static final String DIR_PROPERTY = "events.journal.dir";
+
+    static final int MAGIC = 0x45564a31; // "EVJ1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+    static final int COUNT_OFFSET = 12;
+    static final int BASE_MILLIS_OFFSET = 16;
+    static final String TARGETS_FILE = "targets.txt";
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    // Stable ids for the event types we journal; the index in this array is the id (0 = other)
+    static final EventType<?>[] EVENT_TYPES = {
+        null,
+        MouseEvent.MOUSE_PRESSED, MouseEvent.MOUSE_RELEASED, MouseEvent.MOUSE_CLICKED,
+        MouseEvent.MOUSE_MOVED, MouseEvent.MOUSE_DRAGGED, MouseEvent.MOUSE_ENTERED,
+        MouseEvent.MOUSE_EXITED, MouseEvent.DRAG_DETECTED, ScrollEvent.SCROLL,
+        KeyEvent.KEY_PRESSED, KeyEvent.KEY_RELEASED, KeyEvent.KEY_TYPED, ActionEvent.ACTION
+    };
+    private static final Map<EventType<?>, Integer> TYPE_IDS = new IdentityHashMap<>();
+    static {
+        for (int i = 1; i < EVENT_TYPES.length; i++) {
+            TYPE_IDS.put(EVENT_TYPES[i], i);
+        }
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final Map<Object, Integer> targetIds = new IdentityHashMap<>();
+    // name -> id, shared by every run that journals into this directory
+    private final Map<String, Integer> targetIdsByName;
+    private final BufferedWriter targetsWriter;
+
+    // maps the next segment and forces full ones without holding up the writer
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "event-journal");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // wall clock at open plus a monotonic offset, so taking a timestamp does not allocate
+    private final long baseEpochMicros;
+    private final long baseNanos;
+
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+    private int recordCount;
+    private CompletableFuture<MappedByteBuffer> nextSegment;
+    private long totalRecords;
+    private boolean closed;
+
+    public EventJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public EventJournal(Path directory, long segmentSize) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segment size out of range: " + segmentSize);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = (int) ((segmentSize - HEADER_SIZE) / RECORD_SIZE);
+        Files.createDirectories(directory);
+
+        this.baseEpochMicros = System.currentTimeMillis() * 1000L;
+        this.baseNanos = System.nanoTime();
+
+        // continue after the segments of an earlier run instead of overwriting them
+        this.segmentIndex = EventJournalReader.lastSegmentIndex(directory) + 1;
+        this.segment = mapSegment(segmentIndex);
+        this.nextSegment = prepareSegment(segmentIndex + 1);
+
+        this.targetIdsByName = EventJournalReader.readTargetIds(directory);
+        this.targetsWriter = Files.newBufferedWriter(directory.resolve(TARGETS_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Opens a journal in the directory given by the {@value #DIR_PROPERTY} system property,
+     * or returns null when the property is not set or the journal cannot be opened.
+     */
+    public static EventJournal openIfConfigured() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new EventJournal(Paths.get(dir.trim()));
+        } catch (IOException ex) {
+            LOG.warn("Could not open event journal", "dir", dir, ex);
+            return null;
+        }
+    }
+
+    /** Id used in the journal for the given event type, 0 for types we do not track. */
+    public static int typeId(EventType<?> type) {
+        Integer id = TYPE_IDS.get(type);
+        return id == null ? 0 : id;
+    }
+
+    /** Name of a journal event type id, as written by {@link #typeId(EventType)}. */
+    public static String typeName(int typeId) {
+        return typeId > 0 && typeId < EVENT_TYPES.length ? EVENT_TYPES[typeId].getName() : "OTHER";
+    }
+
+    /**
+     * Gives a node (or any event target) an id in the journal. Ids are stable per name
+     * across runs; new names are written to the targets file so readers can show them.
+     * Call this while building the UI.
+     */
+    public int registerTarget(Object target, String name) {
+        Integer id = targetIdsByName.get(name);
+        if (id == null) {
+            id = targetIdsByName.size() + 1;
+            targetIdsByName.put(name, id);
+            try {
+                targetsWriter.write(id + "\t" + name);
+                targetsWriter.newLine();
+                targetsWriter.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        targetIds.put(target, id);
+        return id;
+    }
+
+    /**
+     * Journals an event. Mouse and scroll events contribute scene coordinates and the
+     * mouse button, key events the key code. Can be used directly as an event filter:
+     * {@code scene.addEventFilter(InputEvent.ANY, journal::append)}.
+     */
+    public void append(Event event) {
+        float x = Float.NaN;
+        float y = Float.NaN;
+        int button = 0;
+        int keyCode = 0;
+        if (event instanceof MouseEvent) {
+            MouseEvent me = (MouseEvent) event;
+            x = (float) me.getSceneX();
+            y = (float) me.getSceneY();
+            button = me.getButton().ordinal();
+        } else if (event instanceof ScrollEvent) {
+            ScrollEvent se = (ScrollEvent) event;
+            x = (float) se.getSceneX();
+            y = (float) se.getSceneY();
+        } else if (event instanceof KeyEvent) {
+            keyCode = ((KeyEvent) event).getCode().getCode();
+        }
+        Integer targetId = targetIds.get(event.getTarget());
+        append(typeId(event.getEventType()), targetId == null ? 0 : targetId, x, y, button, keyCode);
+    }
+
+    /**
+     * Writes one record with the current time.
+     */
+    public void append(int eventTypeId, int targetId, float x, float y, int button, int keyCode) {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        if (recordCount == recordsPerSegment) {
+            rollover();
+        }
+        long timestampMicros = baseEpochMicros + (System.nanoTime() - baseNanos) / 1000L;
+        int pos = HEADER_SIZE + recordCount * RECORD_SIZE;
+        segment.putLong(pos, timestampMicros);
+        segment.putInt(pos + 8, eventTypeId);
+        segment.putInt(pos + 12, targetId);
+        segment.putFloat(pos + 16, x);
+        segment.putFloat(pos + 20, y);
+        segment.putShort(pos + 24, (short) button);
+        segment.putShort(pos + 26, (short) keyCode);
+        segment.putInt(pos + 28, 0);
+        // publish the record only after its fields are written
+        recordCount++;
+        segment.putInt(COUNT_OFFSET, recordCount);
+        totalRecords++;
+    }
+
+    /** Number of records appended since this journal was opened. */
+    public long getTotalRecords() {
+        return totalRecords;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void rollover() {
+        MappedByteBuffer full = segment;
+        background.execute(full::force);
+
+        // normally already mapped by the background thread; only waits if we outran it
+        segment = nextSegment.join();
+        segmentIndex++;
+        recordCount = 0;
+        nextSegment = prepareSegment(segmentIndex + 1);
+    }
+
+    private CompletableFuture<MappedByteBuffer> prepareSegment(int index) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return mapSegment(index);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, background);
+    }
+
+    private MappedByteBuffer mapSegment(int index) throws IOException {
+        long size = HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE;
+        try (RandomAccessFile file = new RandomAccessFile(EventJournalReader.segmentPath(directory, index).toFile(), "rw");
+             FileChannel channel = file.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(COUNT_OFFSET, 0);
+            buffer.putLong(BASE_MILLIS_OFFSET, System.currentTimeMillis());
+            return buffer;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segment.force();
+        background.shutdown();
+        targetsWriter.close();
+        // the pre-mapped next segment was never used; drop its empty file
+        MappedByteBuffer unused = nextSegment.exceptionally(ex -> null).join();
+        if (unused != null) {
+            try {
+                Files.deleteIfExists(EventJournalReader.segmentPath(directory, segmentIndex + 1));
+            } catch (IOException ex) {
+                // still mapped on some platforms (Windows); readers skip empty segments anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.javafx.demo.fourth;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventJournalReader
+ *
+ * Reads the segments written by {@link EventJournal}. Records are exposed through a
+ * {@link Cursor}: a single reusable object whose getters read straight from the mapped
+ * segment, so scanning millions of records does not allocate per record.
+ *
+ * <pre>
+ *   try (EventJournalReader reader = new EventJournalReader(dir)) {
+ *       EventJournalReader.Cursor c = reader.cursor();
+ *       while (c.next()) {
+ *           if (c.eventTypeId() == dragged) count++;
+ *       }
+ *   }
+ * </pre>
+ *
+ * Run main with a journal directory to print a per-type summary.
+ */
+public class EventJournalReader implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".evj";
+
+    private final List<Path> segments;
+    private final Map<Integer, String> targetNames = new HashMap<>();
+
+    public EventJournalReader(Path directory) throws IOException {
+        this.segments = listSegments(directory);
+        for (Map.Entry<String, Integer> e : readTargetIds(directory).entrySet()) {
+            targetNames.put(e.getValue(), e.getKey());
+        }
+    }
+
+    /** Segment files in write order. */
+    public List<Path> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    /** Name registered for a target id, or "unknown". */
+    public String targetName(int targetId) {
+        String name = targetNames.get(targetId);
+        return name == null ? "unknown" : name;
+    }
+
+    /** A new cursor positioned before the first record of the first segment. */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public void close() {
+        // segments are mapped read-only one at a time by the cursors; nothing to release eagerly
+    }
+
+    /**
+     * Flyweight view of the current record. Call {@link #next()} before reading fields.
+     */
+    public final class Cursor {
+        private int segmentIndex = -1;
+        private MappedByteBuffer buffer;
+        private int count;
+        private int record = -1;
+        private int pos;
+
+        /**
+         * Moves to the next record, opening the next segment when the current one is done.
+         * Returns false when all records have been read.
+         */
+        public boolean next() {
+            while (buffer == null || record + 1 >= count) {
+                if (!openSegment(segmentIndex + 1)) {
+                    return false;
+                }
+            }
+            record++;
+            pos = EventJournal.HEADER_SIZE + record * EventJournal.RECORD_SIZE;
+            return true;
+        }
+
+        private boolean openSegment(int index) {
+            if (index >= segments.size()) {
+                return false;
+            }
+            segmentIndex = index;
+            record = -1;
+            try (FileChannel channel = FileChannel.open(segments.get(index), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < EventJournal.HEADER_SIZE
+                    || buffer.getInt(0) != EventJournal.MAGIC
+                    || buffer.getInt(8) != EventJournal.RECORD_SIZE) {
+                throw new IllegalStateException("not an event journal segment: " + segments.get(index));
+            }
+            // only records the writer has published (it may still be appending to the last segment)
+            count = buffer.getInt(EventJournal.COUNT_OFFSET);
+            return true;
+        }
+
+        public long timestampMicros() {
+            return buffer.getLong(pos);
+        }
+
+        public int eventTypeId() {
+            return buffer.getInt(pos + 8);
+        }
+
+        public int targetId() {
+            return buffer.getInt(pos + 12);
+        }
+
+        public float x() {
+            return buffer.getFloat(pos + 16);
+        }
+
+        public float y() {
+            return buffer.getFloat(pos + 20);
+        }
+
+        public int button() {
+            return buffer.getShort(pos + 24);
+        }
+
+        public int keyCode() {
+            return buffer.getShort(pos + 26);
+        }
+    }
+
+    static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    static int lastSegmentIndex(Path directory) throws IOException {
+        int last = 0;
+        for (Path p : listSegments(directory)) {
+            last = Math.max(last, segmentIndex(p));
+        }
+        return last;
+    }
+
+    static Map<String, Integer> readTargetIds(Path directory) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        Path file = directory.resolve(EventJournal.TARGETS_FILE);
+        if (!Files.exists(file)) {
+            return ids;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    ids.put(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : stream) {
+                result.add(p);
+            }
+        }
+        result.sort((a, b) -> Integer.compare(segmentIndex(a), segmentIndex(b)));
+        return result;
+    }
+
+    private static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Prints how many records of each event type are in a journal directory.
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : System.getProperty(EventJournal.DIR_PROPERTY, "."));
+        long[] perType = new long[EventJournal.EVENT_TYPES.length];
+        long total = 0;
+        long first = 0;
+        long last = 0;
+        long start = System.nanoTime();
+        try (EventJournalReader reader = new EventJournalReader(dir)) {
+            Cursor c = reader.cursor();
+            while (c.next()) {
+                int type = c.eventTypeId();
+                perType[type >= 0 && type < perType.length ? type : 0]++;
+                if (total == 0) {
+                    first = c.timestampMicros();
+                }
+                last = c.timestampMicros();
+                total++;
+            }
+            System.out.println("Segments: " + reader.getSegments().size() + ", records: " + total
+                    + ", scanned in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        if (total > 0) {
+            System.out.println("Time span: " + (last - first) / 1000 + " ms");
+        }
+        for (int i = 0; i < perType.length; i++) {
+            if (perType[i] > 0) {
+                System.out.println("  " + EventJournal.typeName(i) + ": " + perType[i]);
+            }
+        }
+    }
+}
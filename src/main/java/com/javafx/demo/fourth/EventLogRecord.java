@@ -0,0 +1,252 @@
+package com.javafx.demo.fourth;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+/**
+ * EventLogRecord
+ *
+ * One entry of the EventsDemoApp event log, kept as primitive fields and references to
+ * constants (enum values, string literals, the target's Class) instead of a formatted String.
+ * The text is only built by {@link #appendTo(StringBuilder)} / {@link #toString()}, when a
+ * row is actually on screen or being filtered.
+ *
+ * Records come from a {@link Pool} and are filled with the fluent setters:
+ * <pre>
+ *   log(pool.obtain(Kind.MOUSE_CLICKED, "[Scene FILTER]").at(ev.getSceneX(), ev.getSceneY()).target(ev.getTarget()));
+ * </pre>
+ */
+public final class EventLogRecord {
+
+    /** What happened; the label is printed after the source. */
+    public enum Kind {
+        MESSAGE(null),
+        ACTION("ACTION"),
+        MOUSE_PRESSED("MOUSE_PRESSED"),
+        MOUSE_RELEASED("MOUSE_RELEASED"),
+        MOUSE_CLICKED("MOUSE_CLICKED"),
+        MOUSE_MOVED("MOUSE_MOVED"),
+        MOUSE_DRAGGED("MOUSE_DRAGGED"),
+        MOUSE_ENTERED("MOUSE_ENTERED"),
+        MOUSE_EXITED("MOUSE_EXITED"),
+        DRAG_DETECTED("DRAG_DETECTED"),
+        MOUSE_DRAG_ENTERED("MOUSE_DRAG_ENTERED"),
+        MOUSE_DRAG_RELEASED("MOUSE_DRAG_RELEASED"),
+        SCROLL("SCROLL"),
+        KEY_PRESSED("KEY_PRESSED");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    private Kind kind;
+    private String source;
+    private boolean hasPosition;
+    private double x;
+    private double y;
+    private boolean hasDeltaY;
+    private double deltaY;
+    private int clickCount;
+    private MouseButton button;
+    private KeyCode keyCode;
+    private Class<?> targetClass;
+    private String note;
+    private int mergedCount;
+
+    EventLogRecord() {
+    }
+
+    private EventLogRecord reset(Kind kind, String source) {
+        this.kind = kind;
+        this.source = source;
+        this.hasPosition = false;
+        this.hasDeltaY = false;
+        this.clickCount = 0;
+        this.button = null;
+        this.keyCode = null;
+        this.targetClass = null;
+        this.note = null;
+        this.mergedCount = 1;
+        return this;
+    }
+
+    public EventLogRecord at(double x, double y) {
+        this.hasPosition = true;
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public EventLogRecord deltaY(double deltaY) {
+        this.hasDeltaY = true;
+        this.deltaY = deltaY;
+        return this;
+    }
+
+    public EventLogRecord clickCount(int clickCount) {
+        this.clickCount = clickCount;
+        return this;
+    }
+
+    public EventLogRecord button(MouseButton button) {
+        this.button = button;
+        return this;
+    }
+
+    public EventLogRecord key(KeyCode keyCode) {
+        this.keyCode = keyCode;
+        return this;
+    }
+
+    /** Remembers only the target's class; its simple name is looked up when formatting. */
+    public EventLogRecord target(Object target) {
+        this.targetClass = target == null ? null : target.getClass();
+        return this;
+    }
+
+    /** Extra text; pass a constant so nothing is built on the hot path. */
+    public EventLogRecord note(String note) {
+        this.note = note;
+        return this;
+    }
+
+    /** Number of raw events this entry stands for (see PulseCoalescer). */
+    public EventLogRecord merged(int mergedCount) {
+        this.mergedCount = mergedCount;
+        return this;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    boolean hasPosition() {
+        return hasPosition;
+    }
+
+    double getX() {
+        return x;
+    }
+
+    double getY() {
+        return y;
+    }
+
+    boolean hasDeltaY() {
+        return hasDeltaY;
+    }
+
+    double getDeltaY() {
+        return deltaY;
+    }
+
+    int getClickCount() {
+        return clickCount;
+    }
+
+    MouseButton getButton() {
+        return button;
+    }
+
+    KeyCode getKeyCode() {
+        return keyCode;
+    }
+
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    String getNote() {
+        return note;
+    }
+
+    /**
+     * Refills this record from stored column values (used by EventLogStore to format rows).
+     */
+    EventLogRecord load(Kind kind, String source, Class<?> targetClass, String note) {
+        reset(kind, source);
+        this.targetClass = targetClass;
+        this.note = note;
+        return this;
+    }
+
+    /**
+     * Formats the entry. Only called for visible rows.
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Formats the entry into the given builder (lets filters match without creating Strings).
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append(source);
+        if (kind.label != null) {
+            sb.append(' ').append(kind.label);
+        }
+        if (hasPosition) {
+            sb.append(" at (").append((int) x).append(',').append((int) y).append(')');
+        }
+        if (hasDeltaY) {
+            sb.append(" deltaY=").append(deltaY);
+        }
+        if (keyCode != null) {
+            sb.append(" key=").append(keyCode);
+        }
+        if (clickCount > 0) {
+            sb.append(" clickCount=").append(clickCount);
+        }
+        if (button != null) {
+            sb.append(" button=").append(button);
+        }
+        if (targetClass != null) {
+            sb.append(" target=").append(targetClass.getSimpleName());
+        }
+        if (note != null) {
+            sb.append(' ').append(note);
+        }
+        if (mergedCount > 1) {
+            sb.append(" [").append(mergedCount).append(" events merged]");
+        }
+        return sb;
+    }
+
+    /**
+     * Preallocated records handed out round-robin.
+     *
+     * Sized one larger than the number of records the consumer keeps referencing: a log that
+     * holds at most 'retained' records has always evicted the record handed out again. This
+     * only holds if every obtained record is logged. A consumer that copies the fields right
+     * away (EventLogStore) keeps none, so a pool of one record is enough.
+     */
+    public static final class Pool {
+        private final EventLogRecord[] records;
+        private int next;
+
+        public Pool(int retained) {
+            records = new EventLogRecord[retained + 1];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = new EventLogRecord();
+            }
+        }
+
+        public EventLogRecord obtain(Kind kind, String source) {
+            EventLogRecord record = records[next];
+            next = next + 1 == records.length ? 0 : next + 1;
+            return record.reset(kind, source);
+        }
+    }
+}
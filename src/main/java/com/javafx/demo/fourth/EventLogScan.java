@@ -0,0 +1,109 @@
+package com.javafx.demo.fourth;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EventLogScan
+ *
+ * Runs a filter over the rows an {@link EventLogStore} had when the scan started. The rows
+ * are split into store chunks and every chunk is matched as its own task on the given pool
+ * (a ForkJoinPool), newest chunk first. {@link #chunkResult(int)} hands the matching row
+ * indexes back in that order as soon as each chunk is done, so the caller can show partial
+ * results while later chunks are still being scanned.
+ *
+ * Each worker thread formats rows into its own reusable StringBuilder and Matcher, so the
+ * scan does not create a String per row.
+ */
+final class EventLogScan {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final EventLogStore store;
+    private final int endRow;
+    private final List<CompletableFuture<int[]>> chunks = new ArrayList<>();
+    private final ThreadLocal<Scratch> scratch;
+    private volatile boolean cancelled;
+
+    /** Per-thread reusable objects for formatting and matching rows. */
+    private static final class Scratch {
+        final EventLogRecord record = new EventLogRecord();
+        final StringBuilder text = new StringBuilder(128);
+        final Matcher matcher;
+
+        Scratch(Pattern pattern) {
+            matcher = pattern.matcher("");
+        }
+    }
+
+    EventLogScan(EventLogStore store, Pattern pattern, Executor pool) {
+        this.store = store;
+        this.endRow = store.size();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(pattern));
+
+        int firstChunk = store.firstRow() / EventLogStore.CHUNK_SIZE;
+        int chunkCount = (endRow + EventLogStore.CHUNK_SIZE - 1) / EventLogStore.CHUNK_SIZE;
+        for (int k = chunkCount - 1; k >= firstChunk; k--) {
+            int from = k * EventLogStore.CHUNK_SIZE;
+            int to = Math.min(endRow, from + EventLogStore.CHUNK_SIZE);
+            chunks.add(CompletableFuture.supplyAsync(() -> scanRange(from, to), pool));
+        }
+    }
+
+    /** Rows at or after this index were not part of the scan; the caller tests them itself. */
+    int getEndRow() {
+        return endRow;
+    }
+
+    int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Matches of the i-th chunk (0 = newest), newest row first, or null if it is still running.
+     */
+    int[] chunkResult(int i) {
+        CompletableFuture<int[]> f = chunks.get(i);
+        return f.isDone() ? f.getNow(NO_ROWS) : null;
+    }
+
+    void cancel() {
+        cancelled = true;
+        for (CompletableFuture<int[]> f : chunks) {
+            f.cancel(false);
+        }
+    }
+
+    /**
+     * Tests a single row with the calling thread's scratch objects. A row the store has
+     * dropped (meanwhile) does not match.
+     */
+    boolean matches(int row) {
+        Scratch s = scratch.get();
+        s.text.setLength(0);
+        return store.format(row, s.record, s.text) && s.matcher.reset(s.text).find();
+    }
+
+    private int[] scanRange(int from, int to) {
+        int[] found = new int[64];
+        int count = 0;
+        for (int row = to - 1; row >= from; row--) {
+            // check now and then so a superseded scan stops quickly
+            if ((row & 1023) == 0 && cancelled) {
+                return NO_ROWS;
+            }
+            if (matches(row)) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = row;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
@@ -0,0 +1,257 @@
+package com.javafx.demo.fourth;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+import com.javafx.demo.fourth.EventLogRecord.Kind;
+
+/**
+ * EventLogStore
+ *
+ * Compact, append-only store for millions of event log entries. Every field of an
+ * {@link EventLogRecord} goes into its own primitive array (a column); strings and classes
+ * are stored once in small lookup tables and referenced by index. Columns are allocated in
+ * fixed-size chunks so growing never copies existing rows.
+ *
+ * The store keeps about maxRows rows (rounded up to whole chunks): when a new chunk is needed
+ * and the store is full, the oldest chunk is dropped. Row indexes are not shifted by that -
+ * row n stays row n - so the retained rows are {@link #firstRow()} to {@link #size()}.
+ *
+ * One writer (the FX thread) appends; any number of threads may read rows below
+ * {@link #size()} at the same time (the parallel filter does). The volatile size is written
+ * after the row, so a reader that sees the new size also sees the row's values.
+ */
+public class EventLogStore {
+
+    static final int CHUNK_BITS = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS; // 16384 rows per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final byte HAS_POSITION = 1;
+    private static final byte HAS_DELTA_Y = 2;
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final MouseButton[] BUTTONS = MouseButton.values();
+    private static final KeyCode[] KEY_CODES = KeyCode.values();
+
+    /** One chunk of every column. */
+    private static final class Chunk {
+        final byte[] kind = new byte[CHUNK_SIZE];
+        final byte[] flags = new byte[CHUNK_SIZE];
+        final short[] source = new short[CHUNK_SIZE];
+        final short[] targetClass = new short[CHUNK_SIZE];
+        final short[] note = new short[CHUNK_SIZE];
+        final float[] x = new float[CHUNK_SIZE];
+        final float[] y = new float[CHUNK_SIZE];
+        final float[] deltaY = new float[CHUNK_SIZE];
+        final byte[] clickCount = new byte[CHUNK_SIZE];
+        final byte[] button = new byte[CHUNK_SIZE];    // ordinal + 1, 0 = none
+        final short[] keyCode = new short[CHUNK_SIZE]; // ordinal + 1, 0 = none
+        final int[] merged = new int[CHUNK_SIZE];
+    }
+
+    /** The retained chunks; replaced as a whole, so readers see a matching first index and array. */
+    private static final class Chunks {
+        static final Chunks EMPTY = new Chunks(0, new Chunk[0]);
+
+        final int first; // chunk index (row >>> CHUNK_BITS) of chunks[0]
+        final Chunk[] chunks;
+
+        Chunks(int first, Chunk[] chunks) {
+            this.first = first;
+            this.chunks = chunks;
+        }
+    }
+
+    private final int maxChunks;
+    private volatile Chunks chunks = Chunks.EMPTY;
+    private volatile int size;
+
+    // lookup tables; index 0 is null. Replaced (copy on write) when a new value shows up,
+    // so readers on other threads always see a complete table.
+    private volatile String[] strings = { null };
+    private volatile Class<?>[] classes = { null };
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final Map<Class<?>, Integer> classIds = new IdentityHashMap<>();
+
+    private Runnable appendListener;
+
+    /**
+     * @param maxRows rows to keep (at least two chunks are kept); older rows are dropped
+     */
+    public EventLogStore(int maxRows) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows " + maxRows);
+        }
+        this.maxChunks = Math.max(2, (int) (((long) maxRows + CHUNK_SIZE - 1) >>> CHUNK_BITS));
+    }
+
+    /** Index after the last row. Rows below this are complete and safe to read from any thread. */
+    public int size() {
+        return size;
+    }
+
+    /** Index of the oldest row still kept; the rows before it were dropped. */
+    public int firstRow() {
+        return chunks.first << CHUNK_BITS;
+    }
+
+    /** Number of rows kept. */
+    public int retainedRows() {
+        return size - firstRow();
+    }
+
+    /**
+     * Copies the record into the next row. Call from one thread only.
+     */
+    public void append(EventLogRecord record) {
+        int row = size;
+        if (row == Integer.MAX_VALUE) {
+            throw new IllegalStateException("row indexes used up; clear() the store");
+        }
+        Chunks current = chunks;
+        int chunkIndex = (row >>> CHUNK_BITS) - current.first;
+        if (chunkIndex == current.chunks.length) {
+            current = addChunk(current);
+            chunks = current;
+            chunkIndex = current.chunks.length - 1;
+        }
+        Chunk c = current.chunks[chunkIndex];
+        int i = row & CHUNK_MASK;
+
+        c.kind[i] = (byte) record.getKind().ordinal();
+        c.flags[i] = (byte) ((record.hasPosition() ? HAS_POSITION : 0) | (record.hasDeltaY() ? HAS_DELTA_Y : 0));
+        c.source[i] = (short) stringId(record.getSource());
+        c.targetClass[i] = (short) classId(record.getTargetClass());
+        c.note[i] = (short) stringId(record.getNote());
+        c.x[i] = (float) record.getX();
+        c.y[i] = (float) record.getY();
+        c.deltaY[i] = (float) record.getDeltaY();
+        c.clickCount[i] = (byte) Math.min(record.getClickCount(), Byte.MAX_VALUE);
+        c.button[i] = (byte) (record.getButton() == null ? 0 : record.getButton().ordinal() + 1);
+        c.keyCode[i] = (short) (record.getKeyCode() == null ? 0 : record.getKeyCode().ordinal() + 1);
+        c.merged[i] = record.getMergedCount();
+
+        // publish the row
+        size = row + 1;
+
+        if (appendListener != null) {
+            appendListener.run();
+        }
+    }
+
+    // a new array, so readers holding the old one can still read the dropped chunk
+    private Chunks addChunk(Chunks current) {
+        int drop = current.chunks.length + 1 > maxChunks ? 1 : 0;
+        Chunk[] next = new Chunk[current.chunks.length + 1 - drop];
+        System.arraycopy(current.chunks, drop, next, 0, current.chunks.length - drop);
+        next[next.length - 1] = new Chunk();
+        return new Chunks(current.first + drop, next);
+    }
+
+    /**
+     * Called on the writer thread after every append (e.g. to wake up a viewer). Keep it cheap.
+     */
+    public void setAppendListener(Runnable appendListener) {
+        this.appendListener = appendListener;
+    }
+
+    /**
+     * Drops all rows (the lookup tables are kept). Call from the writer thread.
+     */
+    public void clear() {
+        chunks = Chunks.EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Loads a row into the given (caller-owned, reusable) record. Returns null if the row was
+     * dropped, which a reader on another thread can run into at any time.
+     */
+    public EventLogRecord read(int row, EventLogRecord into) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+        Chunks current = chunks;
+        int chunkIndex = (row >>> CHUNK_BITS) - current.first;
+        if (chunkIndex < 0) {
+            return null;
+        }
+        Chunk c = current.chunks[chunkIndex];
+        int i = row & CHUNK_MASK;
+        String[] s = strings;
+        into.load(KINDS[c.kind[i]], s[c.source[i]], classes[c.targetClass[i]], s[c.note[i]]);
+        if ((c.flags[i] & HAS_POSITION) != 0) {
+            into.at(c.x[i], c.y[i]);
+        }
+        if ((c.flags[i] & HAS_DELTA_Y) != 0) {
+            into.deltaY(c.deltaY[i]);
+        }
+        into.clickCount(c.clickCount[i]);
+        if (c.button[i] != 0) {
+            into.button(BUTTONS[c.button[i] - 1]);
+        }
+        if (c.keyCode[i] != 0) {
+            into.key(KEY_CODES[c.keyCode[i] - 1]);
+        }
+        into.merged(c.merged[i]);
+        return into;
+    }
+
+    /**
+     * Appends the text of a row to the builder, using the caller's scratch record. Appends
+     * nothing and returns false if the row was dropped.
+     */
+    public boolean format(int row, EventLogRecord scratch, StringBuilder into) {
+        EventLogRecord record = read(row, scratch);
+        if (record == null) {
+            return false;
+        }
+        record.appendTo(into);
+        return true;
+    }
+
+    private int stringId(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            String[] table = Arrays.copyOf(strings, strings.length + 1);
+            id = table.length - 1;
+            checkTableSize(id);
+            table[id] = value;
+            strings = table;
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private int classId(Class<?> value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = classIds.get(value);
+        if (id == null) {
+            Class<?>[] table = Arrays.copyOf(classes, classes.length + 1);
+            id = table.length - 1;
+            checkTableSize(id);
+            table[id] = value;
+            classes = table;
+            classIds.put(value, id);
+        }
+        return id;
+    }
+
+    // sources and notes are meant to be constants; many distinct values means a caller builds them per event
+    private static void checkTableSize(int id) {
+        if (id > Short.MAX_VALUE) {
+            throw new IllegalStateException("too many distinct log strings; pass constants as source/note");
+        }
+    }
+}
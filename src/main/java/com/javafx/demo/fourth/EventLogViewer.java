@@ -0,0 +1,351 @@
+package com.javafx.demo.fourth;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * EventLogViewer
+ *
+ * Event log view over an {@link EventLogStore} that can hold millions of entries.
+ *
+ *  - The ListView's items are a virtual list: it has the size of the store (or of the
+ *    filter result) but only formats a row to text when the ListView asks for it, i.e.
+ *    for the rows on screen.
+ *  - The filter box (substring, or regex when ticked) starts an {@link EventLogScan} on the
+ *    common ForkJoinPool. Matching row indexes are added chunk by chunk as the workers finish,
+ *    so results show up while the scan is still running.
+ *  - New rows are picked up once per pulse with a single change for all of them, together
+ *    with the removal of rows the store has dropped to stay within its size.
+ *
+ * Newest entries are at the top. All methods must be called on the FX thread.
+ */
+public class EventLogViewer extends VBox {
+
+    // above this many new rows in one pulse we rescan in the background instead of matching inline
+    static final int INLINE_MATCH_LIMIT = 5_000;
+
+    private final EventLogStore store;
+    private final ListView<String> listView = new ListView<>();
+    private final TextField filterField = new TextField();
+    private final CheckBox regexBox = new CheckBox("Regex");
+    private final Label status = new Label();
+
+    // scratch objects for formatting visible rows on the FX thread
+    private final EventLogRecord scratch = new EventLogRecord();
+    private final StringBuilder text = new StringBuilder(128);
+
+    private RowsView view;
+    private EventLogScan scan;
+    private String filterError;
+
+    // runs while rows are coming in or a scan is in progress, then stops until the next append
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            boolean busy = view.refresh();
+            updateStatus();
+            if (!busy) {
+                stop();
+            }
+        }
+    };
+
+    public EventLogViewer(EventLogStore store) {
+        super(6);
+        this.store = store;
+
+        filterField.setPromptText("Filter log (substring)");
+        HBox.setHgrow(filterField, Priority.ALWAYS);
+        filterField.textProperty().addListener((obs, oldV, newV) -> applyFilter());
+        regexBox.selectedProperty().addListener((obs, oldV, newV) -> {
+            filterField.setPromptText(newV ? "Filter log (regular expression)" : "Filter log (substring)");
+            applyFilter();
+        });
+        HBox filterRow = new HBox(8, filterField, regexBox, status);
+        filterRow.setAlignment(Pos.CENTER_LEFT);
+
+        // fixed cell size lets the ListView compute the scroll range without measuring rows
+        listView.setFixedCellSize(24);
+        VBox.setVgrow(listView, Priority.ALWAYS);
+        getChildren().addAll(filterRow, listView);
+        setPadding(new Insets(0));
+
+        setView(new AllRowsView());
+        // AnimationTimer.start() is a no-op while running, so this is cheap per append
+        store.setAppendListener(pulse::start);
+    }
+
+    public ListView<String> getListView() {
+        return listView;
+    }
+
+    /** Removes all entries and cancels a running filter scan. */
+    public void clear() {
+        cancelScan();
+        store.clear();
+        applyFilter();
+    }
+
+    /** Stops the per-pulse refresh and any running scan. */
+    public void stop() {
+        store.setAppendListener(null);
+        pulse.stop();
+        cancelScan();
+    }
+
+    private void applyFilter() {
+        cancelScan();
+        filterError = null;
+        String filter = filterField.getText();
+        if (filter == null || filter.isEmpty()) {
+            setView(new AllRowsView());
+            return;
+        }
+        Pattern pattern;
+        try {
+            pattern = regexBox.isSelected()
+                    ? Pattern.compile(filter)
+                    : Pattern.compile(filter, Pattern.LITERAL | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (PatternSyntaxException ex) {
+            filterError = "Invalid regex";
+            setView(new AllRowsView());
+            return;
+        }
+        scan = new EventLogScan(store, pattern, ForkJoinPool.commonPool());
+        setView(new FilteredView(scan));
+    }
+
+    private void cancelScan() {
+        if (scan != null) {
+            scan.cancel();
+            scan = null;
+        }
+    }
+
+    private void setView(RowsView newView) {
+        view = newView;
+        listView.setItems(newView);
+        updateStatus();
+        pulse.start();
+    }
+
+    private void updateStatus() {
+        status.setText(filterError != null ? filterError : view.describe());
+    }
+
+    // empty for a row the store dropped since the last refresh (it is removed on the next one)
+    private String format(int row) {
+        text.setLength(0);
+        store.format(row, scratch, text);
+        return text.toString();
+    }
+
+    /** Virtual list of store rows; subclasses decide which rows and in what order. */
+    private abstract class RowsView extends ObservableListBase<String> {
+
+        /** Index of the store row shown at the given list position. */
+        abstract int rowAt(int index);
+
+        /**
+         * Picks up rows appended since the last call and fires one change for them.
+         * Returns false when there was nothing to do (so the timer can stop).
+         */
+        abstract boolean refresh();
+
+        abstract String describe();
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return format(rowAt(index));
+        }
+
+        void fireAdded(int from, int to) {
+            if (from < to) {
+                beginChange();
+                nextAdd(from, to);
+                endChange();
+            }
+        }
+
+        // the removed rows are gone from the store, so the change carries placeholders for them
+        void fireRemovedAndAdded(int removeFrom, int removed, int added) {
+            if (removed > 0 || added > 0) {
+                beginChange();
+                if (removed > 0) {
+                    nextRemove(removeFrom, Collections.nCopies(removed, null));
+                }
+                if (added > 0) {
+                    nextAdd(0, added);
+                }
+                endChange();
+            }
+        }
+    }
+
+    /** Every row in the store, newest first. */
+    private final class AllRowsView extends RowsView {
+        private int first = store.firstRow();
+        private int end = store.size();
+
+        @Override
+        int rowAt(int index) {
+            return end - 1 - index;
+        }
+
+        @Override
+        public int size() {
+            return end - first;
+        }
+
+        @Override
+        boolean refresh() {
+            int newFirst = store.firstRow();
+            int newEnd = store.size();
+            if (newEnd <= end) {
+                return false;
+            }
+            // dropped rows were the oldest, at the bottom; new rows go on top
+            int removed = Math.max(0, Math.min(newFirst, end) - first);
+            int added = newEnd - Math.max(end, newFirst);
+            int removeFrom = size() - removed;
+            first = newFirst;
+            end = newEnd;
+            fireRemovedAndAdded(removeFrom, removed, added);
+            return true;
+        }
+
+        @Override
+        String describe() {
+            return String.format("%,d entries", size());
+        }
+    }
+
+    /**
+     * Rows matching the scan, newest first: matches among rows appended after the scan
+     * started (tested inline) on top, then the scan's results in chunk order.
+     */
+    private final class FilteredView extends RowsView {
+        private final EventLogScan scan;
+        private int[] liveRows = new int[16]; // ascending; shown in reverse at the top
+        private int liveCount;
+        private int[] scannedRows = new int[1024]; // descending, in the order chunks complete
+        private int scannedCount;
+        private int chunksDone;
+        private int nextLiveRow;
+
+        FilteredView(EventLogScan scan) {
+            this.scan = scan;
+            this.nextLiveRow = scan.getEndRow();
+        }
+
+        @Override
+        int rowAt(int index) {
+            return index < liveCount ? liveRows[liveCount - 1 - index] : scannedRows[index - liveCount];
+        }
+
+        @Override
+        public int size() {
+            return liveCount + scannedCount;
+        }
+
+        @Override
+        boolean refresh() {
+            dropRemovedRows();
+
+            // collect finished chunks in order (newest first) so the list only grows at the end
+            int before = size();
+            int first = store.firstRow();
+            while (chunksDone < scan.getChunkCount()) {
+                int[] found = scan.chunkResult(chunksDone);
+                if (found == null) {
+                    break;
+                }
+                // newest first: leave out the tail the store has dropped since the chunk was scanned
+                int kept = found.length;
+                while (kept > 0 && found[kept - 1] < first) {
+                    kept--;
+                }
+                if (scannedCount + kept > scannedRows.length) {
+                    scannedRows = Arrays.copyOf(scannedRows, Math.max(scannedRows.length * 2, scannedCount + kept));
+                }
+                System.arraycopy(found, 0, scannedRows, scannedCount, kept);
+                scannedCount += kept;
+                chunksDone++;
+            }
+            fireAdded(before, size());
+
+            int end = store.size();
+            if (end - nextLiveRow > INLINE_MATCH_LIMIT) {
+                // a burst of rows (e.g. a stress test) - let the pool scan them instead
+                applyFilter();
+                return true;
+            }
+            boolean appended = end > nextLiveRow;
+            int liveBefore = liveCount;
+            for (int row = nextLiveRow; row < end; row++) {
+                if (scan.matches(row)) {
+                    if (liveCount == liveRows.length) {
+                        liveRows = Arrays.copyOf(liveRows, liveCount * 2);
+                    }
+                    liveRows[liveCount++] = row;
+                }
+            }
+            nextLiveRow = end;
+            fireAdded(0, liveCount - liveBefore);
+            return appended || chunksDone < scan.getChunkCount();
+        }
+
+        // the store drops its oldest rows, which are at the bottom of the list: the tail of the
+        // scanned rows, and once those are all gone the oldest live rows
+        private void dropRemovedRows() {
+            int first = store.firstRow();
+            int scannedKept = scannedCount;
+            while (scannedKept > 0 && scannedRows[scannedKept - 1] < first) {
+                scannedKept--;
+            }
+            int liveDropped = 0;
+            if (scannedKept == 0) {
+                while (liveDropped < liveCount && liveRows[liveDropped] < first) {
+                    liveDropped++;
+                }
+            }
+            int removed = scannedCount - scannedKept + liveDropped;
+            if (removed == 0) {
+                return;
+            }
+            int removeFrom = size() - removed;
+            scannedCount = scannedKept;
+            System.arraycopy(liveRows, liveDropped, liveRows, 0, liveCount - liveDropped);
+            liveCount -= liveDropped;
+            beginChange();
+            nextRemove(removeFrom, Collections.nCopies(removed, null));
+            endChange();
+        }
+
+        @Override
+        String describe() {
+            if (chunksDone < scan.getChunkCount()) {
+                return String.format("Scanning %d%% - %,d matches", chunksDone * 100 / scan.getChunkCount(), size());
+            }
+            return String.format("%,d of %,d entries match", size(), store.retainedRows());
+        }
+    }
+}
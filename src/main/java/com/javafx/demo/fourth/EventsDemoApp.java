@@ -1,6 +1,6 @@
 package com.javafx.demo.fourth;
 
-import javafx.application.Application;
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
@@ -13,6 +13,11 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 
+import com.javafx.demo.fourth.DispatchProfiler.Phase;
+import com.javafx.demo.fourth.EventLogRecord.Kind;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
 /**
  * EventsDemoApp
  *
@@ -23,25 +28,82 @@ import javafx.stage.Stage;
  *  - Mouse actions: clicked, pressed, released, entered, exited, moved, dragged, scroll
  *  - Consuming an event to stop further propagation
  *
+ * High-frequency events (mouse moved, dragged, scroll) are coalesced with a
+ * PulseCoalescer so the label/log are updated at most once per frame.
+ *
+ * Log entries are EventLogRecords with primitive fields, copied into a columnar
+ * EventLogStore. The EventLogViewer only formats the rows that are on screen and
+ * can filter millions of entries in parallel. The store keeps the newest 2,000,000
+ * entries (-Devents.log.maxRows=<n> to change) and drops older ones.
+ *
+ * Start with -Devents.journal.dir=<dir> to also record every input event into a
+ * memory-mapped EventJournal (read it back with EventJournalReader).
+ *
+ * The filters/handlers are wrapped with a DispatchProfiler, and a panel next to
+ * the log shows how long each dispatch phase takes per event type.
+ *
+ * "Many shapes mode" replaces the interactive area with a ShapeField: tens of
+ * thousands of draggable rectangles on one canvas, picked through a SpatialGrid.
+ *
  * Meant for freshers: lots of inline comments and a live event log.
  */
-public class EventsDemoApp extends Application {
+public class EventsDemoApp extends InstrumentedApplication {
+
+    // Entries the log keeps; the oldest are dropped beyond that (about 28 bytes per entry)
+    private static final int LOG_MAX_ROWS = Integer.getInteger("events.log.maxRows", 2_000_000);
+
+    // The stress button adds its entries in batches, one per frame; a batch is small enough for
+    // the viewer's filter to match it inline
+    private static final int STRESS_ROWS = 1_000_000;
+    private static final int STRESS_ROWS_PER_PULSE = EventLogViewer.INLINE_MATCH_LIMIT;
+
+    // Columnar store for the event log: primitive arrays, so it can keep millions of entries
+    private final EventLogStore eventLogStore = new EventLogStore(LOG_MAX_ROWS);
+
+    // Still pooled: the store copies each entry's fields right away and keeps no reference, so
+    // a pool of one record (retained = 0), handed out again for every entry, is enough
+    private final EventLogRecord.Pool logRecords = new EventLogRecord.Pool(0);
+
+    // Adds the stress entries a batch per frame, so the UI keeps responding meanwhile
+    private AnimationTimer stressFill;
+
+    // UI component to display event history for students to inspect (virtual list + filter box)
+    private EventLogViewer eventLog;
+
+    // Collapses high-frequency mouse events (moved/dragged/scroll) into one UI update per frame
+    private final PulseCoalescer coalescer = new PulseCoalescer();
 
-    // UI component to display event history for students to inspect
-    private final ListView<String> eventLog = new ListView<>();
+    // Scroll amount of the scroll events merged since the last log entry
+    private double pendingScrollDeltaY;
 
-    // Helper to append message to event log (keeps newest at top)
+    // Times every filter/handler below per dispatch phase and event type (shown next to the log)
+    private final DispatchProfiler profiler = new DispatchProfiler(MouseEvent.MOUSE_CLICKED, MouseEvent.MOUSE_PRESSED, KeyEvent.KEY_PRESSED);
+    private DispatchProfilerPanel profilerPanel;
+
+    // Optional binary journal of every input event (enabled with -Devents.journal.dir=...)
+    private EventJournal journal;
+
+    // Scalable interactive area: thousands of draggable shapes on one canvas (created on first use)
+    private ShapeField shapeField;
+
+    // Helper to append an entry to event log (keeps newest at top)
+    private void log(EventLogRecord record) {
+        // the viewer shows the most recent at top and picks new entries up once per frame
+        eventLogStore.append(record);
+    }
+
+    // Plain text entry; pass a constant so no String is built per event
     private void log(String message) {
-        // show most recent at top
-        eventLog.getItems().add(0, message);
-        // limit log size so it doesn't grow forever
-        if (eventLog.getItems().size() > 200) {
-            eventLog.getItems().remove(200, eventLog.getItems().size());
-        }
+        log(logRecords.obtain(Kind.MESSAGE, message));
+    }
+
+    // Takes a pooled entry to fill in; the text is only formatted when the row becomes visible
+    private EventLogRecord entry(Kind kind, String source) {
+        return logRecords.obtain(kind, source);
     }
 
     @Override
-    public void start(Stage primaryStage) {
+    protected void startApp(Stage primaryStage) {
         primaryStage.setTitle("JavaFX Event Handling — Demo for Freshers");
 
         // ---------- Top: quick instructions ----------
@@ -85,13 +147,13 @@ public class EventsDemoApp extends Application {
         btnAction.setMaxWidth(Double.MAX_VALUE);
         btnAction.setOnAction(evt -> {
             // ActionEvent is typical for Buttons and MenuItems
-            log("Button.setOnAction fired: ActionEvent (source=" + evt.getSource().getClass().getSimpleName() + ")");
+            log(entry(Kind.ACTION, "Button.setOnAction fired:").target(evt.getSource()));
         });
 
         // Same button also has mouse clicked handler to show difference between ActionEvent and MouseEvent
-        btnAction.setOnMouseClicked(me -> {
-            log("Button.setOnMouseClicked fired: MouseEvent (clickCount=" + me.getClickCount() + ", button=" + me.getButton() + ")");
-        });
+        btnAction.setOnMouseClicked(profiler.wrap(Phase.NODE_HANDLER, MouseEvent.MOUSE_CLICKED, me -> {
+            log(entry(Kind.MOUSE_CLICKED, "Button.setOnMouseClicked fired:").clickCount(me.getClickCount()).button(me.getButton()));
+        }));
 
         // Checkbox demonstrating toggle events and using addEventHandler
         CheckBox cbConsumeClick = new CheckBox("Consume mouse clicks on rectangle");
@@ -106,15 +168,15 @@ public class EventsDemoApp extends Application {
         Label keyLabel = new Label("Last key: -");
 
         // Add key pressed handler on text field using setOnKeyPressed
-        txtInput.setOnKeyPressed(keyEvent -> {
+        txtInput.setOnKeyPressed(profiler.wrap(Phase.NODE_HANDLER, KeyEvent.KEY_PRESSED, keyEvent -> {
             keyLabel.setText("Last key: " + keyEvent.getCode());
-            log("TextField.setOnKeyPressed: " + keyEvent.getCode());
+            log(entry(Kind.KEY_PRESSED, "TextField.setOnKeyPressed:").key(keyEvent.getCode()));
             // example: consume the ENTER key so parent handlers don't see it
             if (keyEvent.getCode() == KeyCode.ENTER) {
                 log("  -> ENTER consumed by TextField");
                 keyEvent.consume();
             }
-        });
+        }));
 
         // RadioButtons to show use of addEventFilter (filters run during capture phase)
         ToggleGroup tg = new ToggleGroup();
@@ -124,17 +186,61 @@ public class EventsDemoApp extends Application {
         // Button to clear the log
         Button btnClear = new Button("Clear Event Log");
         btnClear.setMaxWidth(Double.MAX_VALUE);
-        btnClear.setOnAction(e -> eventLog.getItems().clear());
+        btnClear.setOnAction(e -> eventLog.clear());
+
+        // Button to fill the log with a million entries, to try the filter box at scale
+        Button btnStress = new Button("Stress: add 1,000,000 log entries");
+        btnStress.setMaxWidth(Double.MAX_VALUE);
+        btnStress.setOnAction(e -> {
+            btnStress.setDisable(true);
+            stressFill = new AnimationTimer() {
+                private int added;
+
+                @Override
+                public void handle(long now) {
+                    int end = Math.min(STRESS_ROWS, added + STRESS_ROWS_PER_PULSE);
+                    for (int i = added; i < end; i++) {
+                        log(entry(Kind.MOUSE_DRAGGED, "Stress:").at(i % 700, i % 360).button(MouseButton.PRIMARY).note("(generated)"));
+                    }
+                    added = end;
+                    btnStress.setText(String.format("Stress: adding... %d%%", added * 100L / STRESS_ROWS));
+                    if (added == STRESS_ROWS) {
+                        stop();
+                        btnStress.setText("Stress: add 1,000,000 log entries");
+                        btnStress.setDisable(false);
+                    }
+                }
+            };
+            stressFill.start();
+        });
+
+        // Toggle between the single rectangle above and an area with 10,000 - 100,000 draggable shapes
+        ChoiceBox<Integer> shapeCount = new ChoiceBox<>();
+        shapeCount.getItems().addAll(10_000, 50_000, 100_000);
+        shapeCount.setValue(50_000);
+        ToggleButton btnManyShapes = new ToggleButton("Many shapes mode");
+        btnManyShapes.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(btnManyShapes, Priority.ALWAYS);
+        HBox manyShapesBox = new HBox(6, btnManyShapes, shapeCount);
+        Label shapeStatus = new Label();
+        shapeStatus.setWrapText(true);
 
-        controlsBox.getChildren().addAll(controlsTitle, btnAction, cbConsumeClick, new Label("Key events demo:"), txtInput, keyLabel, rbFilter, btnClear);
+        controlsBox.getChildren().addAll(controlsTitle, btnAction, cbConsumeClick, new Label("Key events demo:"), txtInput, keyLabel, rbFilter, btnClear, btnStress, manyShapesBox, shapeStatus);
 
         // ---------- Bottom: live event log ----------
         VBox logBox = new VBox(6);
         logBox.setPadding(new Insets(6));
         Label logLabel = new Label("Event Log (most recent at top)");
         logLabel.setStyle("-fx-font-weight:bold;");
-        eventLog.setPrefHeight(220);
+        // rows are only formatted to text when they scroll into view
+        eventLog = new EventLogViewer(eventLogStore);
+        eventLog.setPrefHeight(250);
         logBox.getChildren().addAll(logLabel, eventLog);
+        HBox.setHgrow(logBox, Priority.ALWAYS);
+
+        // live handler timings next to the log
+        profilerPanel = new DispatchProfilerPanel(profiler);
+        HBox bottomBox = new HBox(logBox, profilerPanel);
 
         // ---------- Assemble main layout ----------
         BorderPane root = new BorderPane();
@@ -143,56 +249,94 @@ public class EventsDemoApp extends Application {
         BorderPane.setMargin(header, new Insets(10));
         root.setCenter(interactiveArea);
         root.setRight(controlsBox);
-        root.setBottom(logBox);
+        root.setBottom(bottomBox);
+
+        // Many shapes mode swaps the center; the ShapeField has one set of handlers for all its shapes
+        Runnable showShapes = () -> {
+            if (shapeField == null) {
+                shapeField = new ShapeField();
+                shapeField.setMinSize(700, 360);
+                shapeStatus.textProperty().bind(shapeField.statusProperty());
+            }
+            root.setCenter(shapeField);
+            // lay it out first so the shapes are spread over its real size
+            root.applyCss();
+            root.layout();
+            shapeField.populate(shapeCount.getValue());
+            log("Many shapes mode: drag any of the shapes, picking goes through a spatial grid");
+        };
+        btnManyShapes.setOnAction(e -> {
+            if (btnManyShapes.isSelected()) {
+                showShapes.run();
+            } else {
+                shapeField.stop();
+                root.setCenter(interactiveArea);
+            }
+        });
+        shapeCount.setOnAction(e -> {
+            if (btnManyShapes.isSelected()) {
+                showShapes.run();
+            }
+        });
 
         Scene scene = new Scene(root, 1100, 720);
 
         // -------------------- Scene-level filters/handlers --------------------
         // Example: addEventFilter on the scene for MOUSE_CLICKED (capture phase)
         // This runs before nodes' own handlers (capture phase). Good to show order of events.
-        scene.addEventFilter(MouseEvent.MOUSE_CLICKED, ev -> {
+        scene.addEventFilter(MouseEvent.MOUSE_CLICKED, profiler.wrap(Phase.SCENE_FILTER, MouseEvent.MOUSE_CLICKED, ev -> {
             // Only log when the radio button is selected (so students can toggle)
             if (rbFilter.isSelected()) {
-                log("[Scene FILTER] MOUSE_CLICKED at (" + (int) ev.getSceneX() + "," + (int) ev.getSceneY() + ") target=" + ev.getTarget().getClass().getSimpleName());
+                log(entry(Kind.MOUSE_CLICKED, "[Scene FILTER]").at(ev.getSceneX(), ev.getSceneY()).target(ev.getTarget()));
             }
             // Note: we intentionally don't consume here so event continues
-        });
+        }));
 
         // Example: addEventHandler on scene for MOUSE_CLICKED (bubbling phase)
         // This demonstrates that handlers added with addEventHandler run during bubbling.
-        scene.addEventHandler(MouseEvent.MOUSE_CLICKED, ev -> {
+        scene.addEventHandler(MouseEvent.MOUSE_CLICKED, profiler.wrap(Phase.SCENE_HANDLER, MouseEvent.MOUSE_CLICKED, ev -> {
             // This runs after filters and after node handlers (unless consumed)
-            log("[Scene HANDLER] MOUSE_CLICKED at (" + (int) ev.getSceneX() + "," + (int) ev.getSceneY() + ") target=" + ev.getTarget().getClass().getSimpleName());
-        });
+            log(entry(Kind.MOUSE_CLICKED, "[Scene HANDLER]").at(ev.getSceneX(), ev.getSceneY()).target(ev.getTarget()));
+        }));
 
         // Example: addEventFilter for KEY_PRESSED to show key events anywhere on scene (if not consumed)
-        scene.addEventFilter(KeyEvent.KEY_PRESSED, ke -> {
-            log("[Scene FILTER] KEY_PRESSED: " + ke.getCode());
-        });
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, profiler.wrap(Phase.SCENE_FILTER, KeyEvent.KEY_PRESSED, ke -> {
+            log(entry(Kind.KEY_PRESSED, "[Scene FILTER]").key(ke.getCode()));
+        }));
 
         // -------------------- Interactive area event handlers --------------------
 
         // Top-level handlers for the interactive area (StackPane)
-        interactiveArea.setOnMouseMoved(me -> {
+        // The mouse can report moves far more often than the screen refreshes, so the handler only
+        // records the event and the label is updated once per pulse with the latest position.
+        PulseCoalescer.Channel<MouseEvent> mouseMoved = coalescer.register(MouseEvent.MOUSE_MOVED, interactiveArea, (me, count) -> {
             coordsLabel.setText(String.format("Mouse coords: %.0f , %.0f", me.getX(), me.getY()));
             // tiny log to show move events (commented out to avoid spam; students can uncomment)
-            // log("InteractiveArea: MOUSE_MOVED at " + me.getX() + "," + me.getY());
+            // log(entry(Kind.MOUSE_MOVED, "InteractiveArea:").at(me.getX(), me.getY()).merged(count));
         });
+        interactiveArea.setOnMouseMoved(mouseMoved::submit);
 
+        // Only the latest scroll event is kept, so the scroll amounts are added up as they come in:
+        // the entry shows the total of all merged events, not just the last one's deltaY
+        PulseCoalescer.Channel<ScrollEvent> scrolled = coalescer.register(ScrollEvent.SCROLL, interactiveArea, (scrollEvent, count) -> {
+            log(entry(Kind.SCROLL, "InteractiveArea:").deltaY(pendingScrollDeltaY).at(scrollEvent.getX(), scrollEvent.getY()).merged(count));
+            pendingScrollDeltaY = 0;
+        });
         interactiveArea.setOnScroll(scrollEvent -> {
-            log("InteractiveArea: SCROLL deltaY=" + scrollEvent.getDeltaY() + " at " + (int) scrollEvent.getX() + "," + (int) scrollEvent.getY());
+            pendingScrollDeltaY += scrollEvent.getDeltaY();
+            scrolled.submit(scrollEvent);
         });
 
         // Add an event filter on the interactive area for mouse pressed to demonstrate capture vs bubbling
-        interactiveArea.addEventFilter(MouseEvent.MOUSE_PRESSED, ev -> {
-            log("[InteractiveArea FILTER] MOUSE_PRESSED target=" + ev.getTarget().getClass().getSimpleName());
+        interactiveArea.addEventFilter(MouseEvent.MOUSE_PRESSED, profiler.wrap(Phase.NODE_FILTER, MouseEvent.MOUSE_PRESSED, ev -> {
+            log(entry(Kind.MOUSE_PRESSED, "[InteractiveArea FILTER]").target(ev.getTarget()));
             // don't consume — we want children handlers too
-        });
+        }));
 
         // Add an event handler on the area to catch clicks that bubble up from children
-        interactiveArea.addEventHandler(MouseEvent.MOUSE_CLICKED, ev -> {
-            log("[InteractiveArea HANDLER] MOUSE_CLICKED target=" + ev.getTarget().getClass().getSimpleName() + " (button=" + ev.getButton() + ")");
-        });
+        interactiveArea.addEventHandler(MouseEvent.MOUSE_CLICKED, profiler.wrap(Phase.NODE_HANDLER, MouseEvent.MOUSE_CLICKED, ev -> {
+            log(entry(Kind.MOUSE_CLICKED, "[InteractiveArea HANDLER]").target(ev.getTarget()).button(ev.getButton()));
+        }));
 
         // ---------- Draggable rectangle: show mouse pressed, drag detection, mouse dragged, released ----------
         // We'll implement two ways to drag:
@@ -202,35 +346,42 @@ public class EventsDemoApp extends Application {
         final Delta dragDelta = new Delta();
 
         // Mouse pressed on rectangle
-        draggable.setOnMousePressed(me -> {
+        draggable.setOnMousePressed(profiler.wrap(Phase.NODE_HANDLER, MouseEvent.MOUSE_PRESSED, me -> {
             // record distance between mouse and rectangle origin to allow smooth dragging
             dragDelta.x = me.getX();
             dragDelta.y = me.getY();
             // change cursor and visual feedback
             draggable.setCursor(Cursor.MOVE);
             draggable.setFill(Color.DODGERBLUE);
-            log("Rectangle: MOUSE_PRESSED (localX=" + (int) me.getX() + ", localY=" + (int) me.getY() + ")");
+            log(entry(Kind.MOUSE_PRESSED, "Rectangle:").at(me.getX(), me.getY()).note("(local coords)"));
             // If checkbox checked, demonstrate consuming the event so parent handlers won't see it
             if (cbConsumeClick.isSelected()) {
                 log("Rectangle: consuming this MouseEvent -> parent handlers won't see this click");
                 me.consume();
             }
-        });
+        }));
 
         // Mouse released on rectangle
         draggable.setOnMouseReleased(me -> {
+            // write out any drag entry still waiting for the next pulse so the log stays in order
+            coalescer.flushPending();
             draggable.setCursor(Cursor.HAND);
             draggable.setFill(Color.CORNFLOWERBLUE);
-            log("Rectangle: MOUSE_RELEASED (button=" + me.getButton() + ")");
+            log(entry(Kind.MOUSE_RELEASED, "Rectangle:").button(me.getButton()));
         });
 
         // setOnMouseClicked: demonstrates clicked events and click count
-        draggable.setOnMouseClicked(me -> {
-            log("Rectangle: MOUSE_CLICKED (clickCount=" + me.getClickCount() + ")");
+        draggable.setOnMouseClicked(profiler.wrap(Phase.NODE_HANDLER, MouseEvent.MOUSE_CLICKED, me -> {
+            log(entry(Kind.MOUSE_CLICKED, "Rectangle:").clickCount(me.getClickCount()));
             // double click example
             if (me.getClickCount() == 2) {
                 log("  -> Double click detected on rectangle");
             }
+        }));
+
+        // Dragged events are logged once per pulse (with the number of merged events)
+        PulseCoalescer.Channel<MouseEvent> dragged = coalescer.register(MouseEvent.MOUSE_DRAGGED, draggable, (me, count) -> {
+            log(entry(Kind.MOUSE_DRAGGED, "Rectangle:").at(me.getSceneX(), me.getSceneY()).merged(count));
         });
 
         // setOnMouseDragged: run when mouse moves while a button is pressed (after press)
@@ -245,12 +396,12 @@ public class EventsDemoApp extends Application {
             draggable.setTranslateX(newX - (interactiveArea.getWidth() - draggable.getWidth())/2);
             draggable.setTranslateY(newY - (interactiveArea.getHeight() - draggable.getHeight())/2);
 
-            log(String.format("Rectangle: MOUSE_DRAGGED to scene(%.0f,%.0f)", me.getSceneX(), me.getSceneY()));
+            dragged.submit(me);
         });
 
         // setOnDragDetected: demonstrates starting a drag gesture (often used for drag-and-drop)
         draggable.setOnDragDetected(me -> {
-            log("Rectangle: DRAG_DETECTED -> startFullDrag() (example)");
+            log(entry(Kind.DRAG_DETECTED, "Rectangle:").note("-> startFullDrag() (example)"));
             // start full-drag mode (enables setOnMouseDragEntered/Exited on other nodes)
             draggable.startFullDrag();
             me.consume(); // consume to mark we've started drag gesture
@@ -259,43 +410,54 @@ public class EventsDemoApp extends Application {
         // Example of nodes reacting to full drag events (mouse drag entered/exited)
         interactiveArea.setOnMouseDragEntered(me -> {
             // This fires when another node had startFullDrag and the mouse enters this node
-            log("[InteractiveArea] MOUSE_DRAG_ENTERED (full drag)");
+            log(entry(Kind.MOUSE_DRAG_ENTERED, "[InteractiveArea]").note("(full drag)"));
         });
         interactiveArea.setOnMouseDragReleased(me -> {
-            log("[InteractiveArea] MOUSE_DRAG_RELEASED (full drag)");
+            log(entry(Kind.MOUSE_DRAG_RELEASED, "[InteractiveArea]").note("(full drag)"));
         });
 
         // change cursor when hovering over rectangle
         draggable.setOnMouseEntered(me -> {
             draggable.setCursor(Cursor.HAND);
-            log("Rectangle: MOUSE_ENTERED");
+            log(entry(Kind.MOUSE_ENTERED, "Rectangle:"));
         });
 
         draggable.setOnMouseExited(me -> {
             draggable.setCursor(Cursor.DEFAULT);
-            log("Rectangle: MOUSE_EXITED");
+            log(entry(Kind.MOUSE_EXITED, "Rectangle:"));
         });
 
         // ---------- Example of addEventHandler with specific event type (MouseEvent.MOUSE_CLICKED) ----------
         // This shows another way besides setOnMouseClicked
-        draggable.addEventHandler(MouseEvent.MOUSE_CLICKED, me -> {
-            log("[draggable.addEventHandler] MOUSE_CLICKED (button=" + me.getButton() + ")");
-        });
+        draggable.addEventHandler(MouseEvent.MOUSE_CLICKED, profiler.wrap(Phase.NODE_HANDLER, MouseEvent.MOUSE_CLICKED, me -> {
+            log(entry(Kind.MOUSE_CLICKED, "[draggable.addEventHandler]").button(me.getButton()));
+        }));
 
         // ---------- Example of consuming an event at a filter level ----------
         // We'll add a temporary filter on right-click to consume it so other handlers don't see it.
-        interactiveArea.addEventFilter(MouseEvent.MOUSE_PRESSED, ev -> {
+        interactiveArea.addEventFilter(MouseEvent.MOUSE_PRESSED, profiler.wrap(Phase.NODE_FILTER, MouseEvent.MOUSE_PRESSED, ev -> {
             if (ev.getButton() == MouseButton.SECONDARY) { // right-click
                 log("InteractiveArea FILTER: Right-click detected and consumed");
                 ev.consume(); // prevents further handlers from running on this event
             }
-        });
+        }));
 
         // ---------- Keyboard demo: pressing keys at scene level vs text field ----------
         // Scene key pressed example using addEventHandler (runs in bubbling phase)
-        scene.addEventHandler(KeyEvent.KEY_PRESSED, ke -> {
-            log("[Scene HANDLER] KEY_PRESSED: " + ke.getCode());
-        });
+        scene.addEventHandler(KeyEvent.KEY_PRESSED, profiler.wrap(Phase.SCENE_HANDLER, KeyEvent.KEY_PRESSED, ke -> {
+            log(entry(Kind.KEY_PRESSED, "[Scene HANDLER]").key(ke.getCode()));
+        }));
+
+        // ---------- Optional: persist every input event into the binary journal ----------
+        journal = EventJournal.openIfConfigured();
+        if (journal != null) {
+            journal.registerTarget(draggable, "EventsDemoApp.rectangle");
+            journal.registerTarget(interactiveArea, "EventsDemoApp.interactiveArea");
+            journal.registerTarget(btnAction, "EventsDemoApp.actionButton");
+            journal.registerTarget(txtInput, "EventsDemoApp.textField");
+            // capture phase on the scene sees every input event before any node can consume it
+            scene.addEventFilter(InputEvent.ANY, journal::append);
+        }
 
         // ---------- Finalize and show ----------
         primaryStage.setScene(scene);
@@ -306,13 +468,32 @@ public class EventsDemoApp extends Application {
         log("Try: left click, double click, drag, right-click (will be consumed by filter), scroll, type in the TextField.");
     }
 
+    @Override
+    public void stop() throws Exception {
+        if (profilerPanel != null) {
+            profilerPanel.stop();
+        }
+        if (stressFill != null) {
+            stressFill.stop();
+        }
+        if (eventLog != null) {
+            eventLog.stop();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (shapeField != null) {
+            shapeField.stop();
+        }
+    }
+
     // small helper class to store drag offsets
     private static class Delta {
         double x, y;
     }
 
     public static void main(String[] args) {
-        launch(args);
+        StartupLauncher.launch(EventsDemoApp.class, args);
     }
 }
 
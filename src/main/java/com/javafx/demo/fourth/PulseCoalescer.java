@@ -0,0 +1,129 @@
+package com.javafx.demo.fourth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.AnimationTimer;
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * PulseCoalescer
+ *
+ * Collapses high-frequency input events (mouse moved/dragged, scroll, ...) so that
+ * the expensive UI work for them runs at most once per JavaFX pulse (frame).
+ *
+ * Usage:
+ *  - register a {@link Channel} per event type and target once, while building the UI
+ *  - call {@link Channel#submit(Event)} from the event handler; this only records the
+ *    latest event and bumps a counter
+ *  - on the next pulse an AnimationTimer calls the channel's {@link Flusher} once with
+ *    the latest event and how many raw events were merged into it
+ *
+ * The timer only runs while there is something pending, so an idle window does not
+ * keep requesting pulses. Everything here runs on the FX thread.
+ */
+public class PulseCoalescer {
+
+    /**
+     * Called once per pulse for a channel that received events since the last pulse.
+     */
+    @FunctionalInterface
+    public interface Flusher<T extends Event> {
+        void flush(T latest, int mergedCount);
+    }
+
+    private final List<Channel<?>> channels = new ArrayList<>();
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flushPending();
+        }
+    };
+
+    /**
+     * Creates a channel that coalesces events of the given type delivered to the given target.
+     */
+    public <T extends Event> Channel<T> register(EventType<T> type, Object target, Flusher<T> flusher) {
+        Channel<T> channel = new Channel<>(type, target, flusher);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Runs all pending flushers right away instead of waiting for the next pulse.
+     */
+    public void flushPending() {
+        boolean anyPending = false;
+        for (int i = 0; i < channels.size(); i++) {
+            anyPending |= channels.get(i).flush();
+        }
+        // nothing happened during this pulse, stop asking for frames until the next submit
+        if (!anyPending) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * One coalescing slot (event type + target). Keeps the latest event, the number of
+     * raw events since the last flush, and running totals so the log stays truthful.
+     */
+    public final class Channel<T extends Event> {
+        private final EventType<T> type;
+        private final Object target;
+        private final Flusher<T> flusher;
+
+        private T latest;
+        private int pendingCount;
+        private long totalRaw;
+        private long totalFlushed;
+
+        private Channel(EventType<T> type, Object target, Flusher<T> flusher) {
+            this.type = type;
+            this.target = target;
+            this.flusher = flusher;
+        }
+
+        /**
+         * Records an event; the flusher runs on the next pulse with the latest one.
+         */
+        public void submit(T event) {
+            latest = event;
+            pendingCount++;
+            totalRaw++;
+            timer.start();
+        }
+
+        private boolean flush() {
+            if (pendingCount == 0) {
+                return false;
+            }
+            T event = latest;
+            int merged = pendingCount;
+            latest = null;
+            pendingCount = 0;
+            totalFlushed++;
+            flusher.flush(event, merged);
+            return true;
+        }
+
+        public EventType<T> getType() {
+            return type;
+        }
+
+        public Object getTarget() {
+            return target;
+        }
+
+        /** Number of raw events submitted to this channel. */
+        public long getTotalRaw() {
+            return totalRaw;
+        }
+
+        /** Number of times the flusher ran, i.e. the number of UI updates actually done. */
+        public long getTotalFlushed() {
+            return totalFlushed;
+        }
+    }
+}
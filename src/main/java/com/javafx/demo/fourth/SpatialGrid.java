@@ -0,0 +1,123 @@
+package com.javafx.demo.fourth;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * SpatialGrid
+ *
+ * Uniform grid index over shapes identified by int ids (0 .. capacity-1), used to find the
+ * shapes under the mouse, or inside a dirty rectangle, without looking at all of them.
+ *
+ * Every shape is filed under the cell that contains its top-left corner. Shapes may be at most
+ * {@code maxExtent} wide/high, so a query only has to look at the cells up to maxExtent to the
+ * left and above the query area. Each cell is a doubly linked list threaded through int arrays
+ * (no objects per shape), so moving a shape to another cell is O(1) - the index is updated on
+ * every drag step instead of being rebuilt.
+ *
+ * Coordinates outside the grid are clamped into the border cells, so shapes dragged off the
+ * area are still found.
+ */
+final class SpatialGrid {
+
+    private static final int NONE = -1;
+
+    private final double cellSize;
+    private final double maxExtent;
+    private final int columns;
+    private final int rows;
+
+    private final int[] head;   // per cell: first shape id, or NONE
+    private final int[] next;   // per shape: next shape in the same cell
+    private final int[] prev;   // per shape: previous shape in the same cell
+    private final int[] cellOf; // per shape: its cell, or NONE when not inserted
+
+    SpatialGrid(double width, double height, double cellSize, double maxExtent, int capacity) {
+        this.cellSize = cellSize;
+        this.maxExtent = maxExtent;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.head = new int[columns * rows];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.cellOf = new int[capacity];
+        Arrays.fill(head, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /** Files the shape under the cell of its top-left corner (x, y). */
+    void insert(int id, double x, double y) {
+        link(id, cell(column(x), row(y)));
+    }
+
+    /** Updates the shape's cell after it moved; a no-op while it stays in the same cell. */
+    void move(int id, double x, double y) {
+        int cell = cell(column(x), row(y));
+        if (cell != cellOf[id]) {
+            unlink(id);
+            link(id, cell);
+        }
+    }
+
+    void remove(int id) {
+        unlink(id);
+    }
+
+    /**
+     * Calls the consumer with every shape whose top-left corner lies in a cell that a shape
+     * intersecting [minX, maxX] x [minY, maxY] could be filed under. Callers test the exact
+     * bounds themselves.
+     */
+    void query(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        int c0 = column(minX - maxExtent);
+        int c1 = column(maxX);
+        int r0 = row(minY - maxExtent);
+        int r1 = row(maxY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int id = head[cell(c, r)]; id != NONE; id = next[id]) {
+                    consumer.accept(id);
+                }
+            }
+        }
+    }
+
+    private void link(int id, int cell) {
+        int first = head[cell];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) {
+            prev[first] = id;
+        }
+        head[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (cell == NONE) {
+            return;
+        }
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            head[cell] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        cellOf[id] = NONE;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+}
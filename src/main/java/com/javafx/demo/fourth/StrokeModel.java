@@ -0,0 +1,459 @@
+package com.javafx.demo.fourth;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * StrokeModel
+ *
+ * Vector version of a freehand drawing, so it can be saved, loaded and redrawn at any scale.
+ *
+ * Storage: all points of all strokes live in two float arrays (x and y); a stroke is a range
+ * in them, described by its start offset, color, width and bounding box. No object per point,
+ * so a million points take about 8 MB.
+ *
+ * Capture: beginStroke / addPoint / endStroke. With a tolerance > 0, endStroke runs
+ * Ramer-Douglas-Peucker on the stroke and keeps only the points needed to stay within
+ * 'tolerance' pixels of the original line (mouse input usually shrinks by 70-90%).
+ *
+ * File format (plain DataOutputStream, no compression library needed):
+ * <pre>
+ *   "STRK" version(1 byte) quantization(1 byte: fraction bits)
+ *   per stroke: pointCount(varint) color(int) width(float)
+ *               x0, y0 (zig-zag varints, fixed point), then dx, dy to the previous point
+ *   end:        pointCount 0
+ * </pre>
+ * Neighbouring points are a few pixels apart, so most deltas fit in one byte each.
+ * Reading and writing stream stroke by stroke.
+ *
+ * Redraw: {@link #render} skips strokes outside the visible area and, per stroke, points that
+ * are less than half a pixel away from the previous drawn point at the current scale. Zoomed
+ * out, a drawing with millions of points therefore costs about as much as the pixels it covers.
+ */
+public class StrokeModel {
+
+    private static final int MAGIC = 0x5354524b; // "STRK"
+    private static final int VERSION = 1;
+    // points are stored as 1/8 pixel fixed point in the file
+    private static final int FRACTION_BITS = 3;
+
+    // points of all strokes
+    private float[] xs = new float[1024];
+    private float[] ys = new float[1024];
+    private int pointCount;
+
+    // per stroke; the stroke's points are [start[i], start[i + 1]) (start[strokeCount] == pointCount)
+    private int[] start = new int[65];
+    private Color[] color = new Color[64];
+    private float[] width = new float[64];
+    private float[] bounds = new float[64 * 4]; // minX, minY, maxX, maxY
+    private int strokeCount;
+
+    private boolean capturing;
+    private double tolerance;
+
+    // scratch for render(), reused between frames
+    private double[] renderX = new double[256];
+    private double[] renderY = new double[256];
+    // scratch for simplify()
+    private boolean[] keep = new boolean[256];
+    private int[] stack = new int[64];
+
+    /**
+     * Creates an empty model.
+     *
+     * @param tolerance maximum distance (pixels) a simplified stroke may deviate from the
+     *                  captured one; 0 keeps every point
+     */
+    public StrokeModel(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getStrokeCount() {
+        return strokeCount;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    // --- capture ---
+
+    /** Starts a new stroke; an unfinished previous stroke is ended first. */
+    public void beginStroke(double x, double y, Color strokeColor, double strokeWidth) {
+        if (capturing) {
+            endStroke();
+        }
+        if (strokeCount + 1 == start.length) {
+            int n = start.length * 2;
+            start = Arrays.copyOf(start, n);
+            color = Arrays.copyOf(color, n);
+            width = Arrays.copyOf(width, n);
+            bounds = Arrays.copyOf(bounds, n * 4);
+        }
+        start[strokeCount] = pointCount;
+        color[strokeCount] = strokeColor;
+        width[strokeCount] = (float) strokeWidth;
+        bounds[strokeCount * 4] = Float.MAX_VALUE;
+        bounds[strokeCount * 4 + 1] = Float.MAX_VALUE;
+        bounds[strokeCount * 4 + 2] = -Float.MAX_VALUE;
+        bounds[strokeCount * 4 + 3] = -Float.MAX_VALUE;
+        capturing = true;
+        addPoint(x, y);
+    }
+
+    public void addPoint(double x, double y) {
+        if (!capturing) {
+            return;
+        }
+        if (pointCount == xs.length) {
+            xs = Arrays.copyOf(xs, pointCount * 2);
+            ys = Arrays.copyOf(ys, pointCount * 2);
+        }
+        xs[pointCount] = (float) x;
+        ys[pointCount] = (float) y;
+        pointCount++;
+    }
+
+    /** Finishes the current stroke: simplifies it (if enabled) and computes its bounds. */
+    public void endStroke() {
+        if (!capturing) {
+            return;
+        }
+        capturing = false;
+        int from = start[strokeCount];
+        if (tolerance > 0) {
+            pointCount = from + simplify(from, pointCount, tolerance);
+        }
+        updateBounds(strokeCount, from, pointCount);
+        strokeCount++;
+        start[strokeCount] = pointCount;
+    }
+
+    public void clear() {
+        Arrays.fill(color, 0, strokeCount, null);
+        pointCount = 0;
+        strokeCount = 0;
+        capturing = false;
+        start[0] = 0;
+    }
+
+    // --- rendering ---
+
+    /**
+     * Draws the finished strokes: model point (x, y) goes to (x * scale + offsetX, y * scale + offsetY).
+     * Only strokes that intersect the (0, 0, viewWidth, viewHeight) area are drawn.
+     */
+    public void render(GraphicsContext gc, double scale, double offsetX, double offsetY, double viewWidth, double viewHeight) {
+        gc.save();
+        for (int s = 0; s < strokeCount; s++) {
+            int from = start[s];
+            int to = start[s + 1];
+            double lineWidth = Math.max(width[s] * scale, 0.5);
+            double margin = lineWidth / 2;
+            int b = s * 4;
+            if (bounds[b] * scale + offsetX - margin > viewWidth || bounds[b + 2] * scale + offsetX + margin < 0
+                    || bounds[b + 1] * scale + offsetY - margin > viewHeight || bounds[b + 3] * scale + offsetY + margin < 0) {
+                continue;
+            }
+            ensureRenderCapacity(to - from + 1);
+
+            // screen-space decimation: skip points within half a pixel of the last kept one
+            double px = xs[from] * scale + offsetX;
+            double py = ys[from] * scale + offsetY;
+            renderX[0] = px;
+            renderY[0] = py;
+            int n = 1;
+            for (int i = from + 1; i < to; i++) {
+                double x = xs[i] * scale + offsetX;
+                double y = ys[i] * scale + offsetY;
+                double dx = x - px;
+                double dy = y - py;
+                if (dx * dx + dy * dy >= 0.25 || i == to - 1) {
+                    renderX[n] = x;
+                    renderY[n] = y;
+                    n++;
+                    px = x;
+                    py = y;
+                }
+            }
+
+            Color c = color[s];
+            if (n == 1) {
+                // a click without movement
+                gc.setFill(c);
+                gc.fillOval(px - lineWidth / 2, py - lineWidth / 2, lineWidth, lineWidth);
+            } else {
+                gc.setStroke(c);
+                gc.setLineWidth(lineWidth);
+                gc.strokePolyline(renderX, renderY, n);
+            }
+        }
+        gc.restore();
+    }
+
+    // --- file format ---
+
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /** Replaces the model's strokes with the ones in the file. */
+    public void load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            read(in);
+        }
+    }
+
+    /** Writes the finished strokes; the stream is flushed but not closed. */
+    public void write(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(FRACTION_BITS);
+        for (int s = 0; s < strokeCount; s++) {
+            int from = start[s];
+            int to = start[s + 1];
+            writeVarInt(out, to - from);
+            out.writeInt(toArgb(color[s]));
+            out.writeFloat(width[s]);
+            int lastX = 0;
+            int lastY = 0;
+            for (int i = from; i < to; i++) {
+                int x = toFixed(xs[i]);
+                int y = toFixed(ys[i]);
+                writeVarInt(out, zigZag(x - lastX));
+                writeVarInt(out, zigZag(y - lastY));
+                lastX = x;
+                lastY = y;
+            }
+        }
+        writeVarInt(out, 0);
+        out.flush();
+    }
+
+    /**
+     * Replaces the model's strokes with the ones read from the stream (which is not closed).
+     * The strokes are read into a new model first: a truncated or corrupt file throws and
+     * leaves this model as it was.
+     */
+    public void read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is, 64 * 1024));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a stroke file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported stroke file version " + version);
+        }
+        float unit = 1f / (1 << in.readUnsignedByte());
+        StrokeModel loaded = new StrokeModel(tolerance);
+        loaded.readStrokes(in, unit);
+
+        // complete (the end marker was read): take over its arrays
+        xs = loaded.xs;
+        ys = loaded.ys;
+        pointCount = loaded.pointCount;
+        start = loaded.start;
+        color = loaded.color;
+        width = loaded.width;
+        bounds = loaded.bounds;
+        strokeCount = loaded.strokeCount;
+        capturing = false;
+    }
+
+    private void readStrokes(DataInputStream in, float unit) throws IOException {
+        while (true) {
+            int n = readVarInt(in);
+            if (n == 0) {
+                break;
+            }
+            Color c = fromArgb(in.readInt());
+            float w = in.readFloat();
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < n; i++) {
+                x += unZigZag(readVarInt(in));
+                y += unZigZag(readVarInt(in));
+                if (i == 0) {
+                    beginStroke(x * unit, y * unit, c, w);
+                } else {
+                    addPoint(x * unit, y * unit);
+                }
+            }
+            // the file holds already simplified strokes: keep them as they are
+            capturing = false;
+            updateBounds(strokeCount, start[strokeCount], pointCount);
+            strokeCount++;
+            start[strokeCount] = pointCount;
+        }
+    }
+
+    // --- helpers ---
+
+    /**
+     * Ramer-Douglas-Peucker over points [from, to), iterative so long strokes cannot overflow the
+     * stack. Compacts the kept points to the front of the range and returns how many there are.
+     */
+    private int simplify(int from, int to, double tolerance) {
+        int n = to - from;
+        if (n < 3) {
+            return n;
+        }
+        if (keep.length < n) {
+            keep = new boolean[n];
+        }
+        Arrays.fill(keep, 0, n, false);
+        keep[0] = true;
+        keep[n - 1] = true;
+        double tol2 = tolerance * tolerance;
+
+        int sp = 0;
+        stack = pushRange(stack, sp, 0, n - 1);
+        sp += 2;
+        while (sp > 0) {
+            int last = stack[--sp];
+            int first = stack[--sp];
+            double ax = xs[from + first];
+            double ay = ys[from + first];
+            double dx = xs[from + last] - ax;
+            double dy = ys[from + last] - ay;
+            double len2 = dx * dx + dy * dy;
+            double maxDist2 = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double px = xs[from + i] - ax;
+                double py = ys[from + i] - ay;
+                double dist2;
+                if (len2 == 0) {
+                    dist2 = px * px + py * py;
+                } else {
+                    // squared distance from the line through the two end points
+                    double cross = px * dy - py * dx;
+                    dist2 = cross * cross / len2;
+                }
+                if (dist2 > maxDist2) {
+                    maxDist2 = dist2;
+                    index = i;
+                }
+            }
+            if (maxDist2 > tol2) {
+                keep[index] = true;
+                stack = pushRange(stack, sp, first, index);
+                sp += 2;
+                stack = pushRange(stack, sp, index, last);
+                sp += 2;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                xs[from + kept] = xs[from + i];
+                ys[from + kept] = ys[from + i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private static int[] pushRange(int[] stack, int sp, int first, int last) {
+        if (sp + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[sp] = first;
+        stack[sp + 1] = last;
+        return stack;
+    }
+
+    private void updateBounds(int s, int from, int to) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        bounds[s * 4] = minX;
+        bounds[s * 4 + 1] = minY;
+        bounds[s * 4 + 2] = maxX;
+        bounds[s * 4 + 3] = maxY;
+    }
+
+    private void ensureRenderCapacity(int n) {
+        if (renderX.length < n) {
+            int size = Math.max(n, renderX.length * 2);
+            renderX = new double[size];
+            renderY = new double[size];
+        }
+    }
+
+    private static int toFixed(float v) {
+        return Math.round(v * (1 << FRACTION_BITS));
+    }
+
+    private static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7f) != 0) {
+            out.writeByte((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated stroke file");
+            }
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in stroke file");
+    }
+
+    private static int toArgb(Color c) {
+        return (int) Math.round(c.getOpacity() * 255) << 24
+                | (int) Math.round(c.getRed() * 255) << 16
+                | (int) Math.round(c.getGreen() * 255) << 8
+                | (int) Math.round(c.getBlue() * 255);
+    }
+
+    private static Color fromArgb(int argb) {
+        return Color.rgb((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff, ((argb >>> 24) & 0xff) / 255.0);
+    }
+}
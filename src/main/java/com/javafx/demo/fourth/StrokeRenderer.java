@@ -0,0 +1,182 @@
+package com.javafx.demo.fourth;
+
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+/**
+ * StrokeRenderer
+ *
+ * Freehand drawing on a Canvas with a constant cost per frame.
+ *
+ * The usual approach (lineTo + stroke() on every MOUSE_DRAGGED) keeps one path open for the
+ * whole stroke, so every stroke() call paints the entire path again and long strokes get
+ * slower and slower. Here mouse handlers only append points to a buffer; once per pulse an
+ * AnimationTimer strokes a short path from the last drawn point through the new points and
+ * forgets them. What is already on the canvas is never redrawn.
+ *
+ * Usage:
+ * <pre>
+ *   StrokeRenderer strokes = new StrokeRenderer(canvas);
+ *   canvas.setOnMousePressed(e -> strokes.beginStroke(e.getX(), e.getY()));
+ *   canvas.setOnMouseDragged(e -> strokes.addPoint(e.getX(), e.getY()));
+ *   canvas.setOnMouseReleased(e -> strokes.endStroke());
+ * </pre>
+ *
+ * Line width and color are taken from the canvas' GraphicsContext when a frame is drawn.
+ * Call on the FX thread only.
+ */
+public class StrokeRenderer {
+
+    // ops in the pending buffer
+    private static final byte MOVE = 0; // start of a new stroke
+    private static final byte LINE = 1; // next point of the current stroke
+
+    private final GraphicsContext gc;
+
+    // points received since the last frame (x, y pairs), with one op per point
+    private double[] coords = new double[256];
+    private byte[] ops = new byte[128];
+    private int count;
+
+    // the last point already on the canvas, where the next frame's path starts
+    private boolean drawing;
+    private double lastX;
+    private double lastY;
+    private boolean lastStrokeHasLines;
+
+    private long framesDrawn;
+    private long pointsDrawn;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (count == 0) {
+                // nothing came in during the last pulse: sleep until the next point arrives
+                stop();
+            } else {
+                flush();
+            }
+        }
+    };
+
+    public StrokeRenderer(Canvas canvas) {
+        this.gc = canvas.getGraphicsContext2D();
+        // round caps and joins hide the seam where one frame's path meets the next
+        gc.setLineCap(StrokeLineCap.ROUND);
+        gc.setLineJoin(StrokeLineJoin.ROUND);
+    }
+
+    /** Starts a new stroke at the given point (e.g. on MOUSE_PRESSED). */
+    public void beginStroke(double x, double y) {
+        add(MOVE, x, y);
+    }
+
+    /** Adds the next point of the current stroke (e.g. on MOUSE_DRAGGED). */
+    public void addPoint(double x, double y) {
+        add(LINE, x, y);
+    }
+
+    /**
+     * Adds several points to the current stroke at once, as x0, y0, x1, y1, ...
+     * (e.g. replayed input or points produced by a smoothing step).
+     */
+    public void addPoints(double[] xy, int pointCount) {
+        for (int i = 0; i < pointCount; i++) {
+            add(LINE, xy[2 * i], xy[2 * i + 1]);
+        }
+    }
+
+    /** Ends the current stroke; a stroke without any movement is drawn as a dot. */
+    public void endStroke() {
+        // draw now so the stroke is complete on screen before anything else happens
+        flush();
+        if (drawing && !lastStrokeHasLines) {
+            double d = gc.getLineWidth();
+            gc.setFill(gc.getStroke());
+            gc.fillOval(lastX - d / 2, lastY - d / 2, d, d);
+        }
+        drawing = false;
+    }
+
+    /**
+     * Strokes the points received since the last frame. Called by the pulse timer; cost depends
+     * only on the number of new points, not on how much has been drawn before.
+     */
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+        boolean pathOpen = false;
+        gc.beginPath();
+        for (int i = 0; i < count; i++) {
+            double x = coords[2 * i];
+            double y = coords[2 * i + 1];
+            if (ops[i] == MOVE) {
+                gc.moveTo(x, y);
+                pathOpen = true;
+                drawing = true;
+                lastStrokeHasLines = false;
+            } else if (drawing) {
+                if (!pathOpen) {
+                    // continue from where the previous frame stopped
+                    gc.moveTo(lastX, lastY);
+                    pathOpen = true;
+                }
+                gc.lineTo(x, y);
+                lastStrokeHasLines = true;
+            } else {
+                continue; // a point without beginStroke(), e.g. a drag that started elsewhere
+            }
+            lastX = x;
+            lastY = y;
+        }
+        gc.stroke();
+        // the path is not kept open between frames, so the next stroke() only paints new segments
+        gc.beginPath();
+
+        pointsDrawn += count;
+        framesDrawn++;
+        count = 0;
+    }
+
+    /** Clears the canvas and drops anything not yet drawn. */
+    public void clear() {
+        count = 0;
+        drawing = false;
+        Canvas canvas = gc.getCanvas();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /** Stops the pulse timer (e.g. when the window closes). */
+    public void stop() {
+        pulse.stop();
+    }
+
+    /** Number of frames that drew something. */
+    public long getFramesDrawn() {
+        return framesDrawn;
+    }
+
+    /** Number of points drawn; divided by frames this gives the batch size per frame. */
+    public long getPointsDrawn() {
+        return pointsDrawn;
+    }
+
+    private void add(byte op, double x, double y) {
+        if (count == ops.length) {
+            ops = Arrays.copyOf(ops, count * 2);
+            coords = Arrays.copyOf(coords, count * 4);
+        }
+        ops[count] = op;
+        coords[2 * count] = x;
+        coords[2 * count + 1] = y;
+        count++;
+        // start() is a no-op while the timer is already running
+        pulse.start();
+    }
+}
@@ -0,0 +1,180 @@
+package com.javafx.demo.fxml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * FxmlDocument
+ *
+ * An FXML file parsed into a plain element tree, with its {@code <?import?>}s resolved to
+ * classes. This is the XML half of loading FXML, done once per document; turning elements
+ * into objects is left to {@link FxmlTemplate}.
+ *
+ * Element and attribute names keep their prefix ("fx:id"); namespace declarations are
+ * dropped. Only the subset of FXML that the templates support is checked later.
+ */
+final class FxmlDocument {
+
+    /** One XML element. */
+    static final class Element {
+        final String name;
+        final Map<String, String> attributes;
+        final List<Element> children;
+        final String text;
+
+        Element(String name, Map<String, String> attributes, List<Element> children, String text) {
+            this.name = name;
+            this.attributes = attributes;
+            this.children = children;
+            this.text = text;
+        }
+
+        /** Instance elements start with an upper case letter (or are fully qualified class names). */
+        boolean isInstance() {
+            int dot = name.lastIndexOf('.');
+            return Character.isUpperCase(name.charAt(dot + 1)) && !isStaticProperty();
+        }
+
+        /** "GridPane.margin": a static property of another class. */
+        boolean isStaticProperty() {
+            int dot = name.lastIndexOf('.');
+            return dot > 0 && Character.isUpperCase(name.charAt(0)) && Character.isLowerCase(name.charAt(dot + 1));
+        }
+    }
+
+    private final URL location;
+    private final Element root;
+    private final List<String> imports;
+    private final ClassLoader classLoader;
+    private final Map<String, Class<?>> resolved = new HashMap<>();
+
+    private FxmlDocument(URL location, Element root, List<String> imports, ClassLoader classLoader) {
+        this.location = location;
+        this.root = root;
+        this.imports = imports;
+        this.classLoader = classLoader;
+    }
+
+    URL getLocation() {
+        return location;
+    }
+
+    Element getRoot() {
+        return root;
+    }
+
+    List<String> getImports() {
+        return imports;
+    }
+
+    /** Parses the document. */
+    static FxmlDocument parse(URL location, ClassLoader classLoader) throws IOException {
+        try (InputStream in = location.openStream()) {
+            XMLStreamReader xml = XMLInputFactory.newFactory().createXMLStreamReader(in);
+            List<String> imports = new ArrayList<>();
+            Element root = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                    if ("import".equals(xml.getPITarget())) {
+                        imports.add(xml.getPIData().trim());
+                    } else if (!"xml".equals(xml.getPITarget())) {
+                        // <?language?> and friends (scripting) are not supported
+                        throw new UnsupportedFxmlException("processing instruction <?" + xml.getPITarget() + "?>");
+                    }
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    root = readElement(xml);
+                }
+            }
+            xml.close();
+            if (root == null) {
+                throw new IOException("No root element in " + location);
+            }
+            return new FxmlDocument(location, root, Collections.unmodifiableList(imports), classLoader);
+        } catch (XMLStreamException ex) {
+            throw new IOException("Cannot parse " + location + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    // reads the element the reader is positioned on, up to and including its end tag
+    private static Element readElement(XMLStreamReader xml) throws XMLStreamException {
+        String name = qualifiedName(xml.getPrefix(), xml.getLocalName());
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < xml.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(xml.getAttributePrefix(i), xml.getAttributeLocalName(i)), xml.getAttributeValue(i));
+        }
+        List<Element> children = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                children.add(readElement(xml));
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(xml.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        return new Element(name, attributes, children, text.toString().trim());
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    /** Resolves a class name of an element through the imports (or as a fully qualified name). */
+    Class<?> resolveClass(String name) {
+        Class<?> type = resolved.get(name);
+        if (type != null) {
+            return type;
+        }
+        if (Character.isLowerCase(name.charAt(0))) {
+            type = load(name);
+        } else {
+            for (String imp : imports) {
+                if (imp.endsWith(".*")) {
+                    type = load(imp.substring(0, imp.length() - 1) + name);
+                } else if (imp.endsWith("." + name)) {
+                    type = load(imp);
+                }
+                if (type != null) {
+                    break;
+                }
+            }
+        }
+        if (type == null) {
+            throw new UnsupportedFxmlException("unknown class " + name + " (missing import?)");
+        }
+        resolved.put(name, type);
+        return type;
+    }
+
+    private Class<?> load(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException ex) {
+            // nested class written as Outer.Inner
+            int dot = className.lastIndexOf('.');
+            if (dot > 0) {
+                try {
+                    return Class.forName(className.substring(0, dot) + "$" + className.substring(dot + 1), false, classLoader);
+                } catch (ClassNotFoundException notNested) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
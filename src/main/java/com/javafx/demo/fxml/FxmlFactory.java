@@ -0,0 +1,14 @@
+package com.javafx.demo.fxml;
+
+/**
+ * FxmlFactory
+ *
+ * Creates new copies of one FXML document. Implemented by {@link FxmlTemplate} (compiled when
+ * the document is first loaded) and by the classes {@link FxmlJavaCompiler} generates at
+ * build time.
+ */
+public interface FxmlFactory {
+
+    /** A new root node, controller and namespace, like one FXMLLoader.load(). */
+    FxmlView create();
+}
@@ -0,0 +1,689 @@
+package com.javafx.demo.fxml;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.javafx.demo.fxml.FxmlDocument.Element;
+
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.paint.Paint;
+
+/**
+ * FxmlJavaCompiler
+ *
+ * Build step that turns FXML files into Java classes. For {@code com/javafx/demo/sixth/Login.fxml}
+ * it writes {@code com.javafx.demo.sixth.LoginFxml}, an {@link FxmlFactory} whose create() builds
+ * the same node graph with plain constructor and setter calls, assigns the @FXML fields of the
+ * controller and sets the "#handler" event handlers as lambdas - no XML, no reflection.
+ *
+ * <pre>
+ *   java com.javafx.demo.fxml.FxmlJavaCompiler &lt;resources dir&gt; &lt;generated sources dir&gt; &lt;classes dir&gt;
+ * </pre>
+ *
+ * The pom runs it after the main classes are compiled (it looks at the controller classes) and
+ * then compiles the generated sources. It also writes {@value #INDEX} into the classes dir, which
+ * {@link FxmlTemplateCache} reads to use the generated class instead of parsing the FXML. Each
+ * generated class carries a hash of its FXML file ({@value #SOURCE_HASH_FIELD}); the cache
+ * compares it with the FXML on the class path and ignores a class that is older than the file
+ * (e.g. the FXML was edited and only resources were copied, as IDEs do).
+ *
+ * Generated code accesses the controller directly, so @FXML fields, handler methods and
+ * initialize() must not be private (package-private is enough: the generated class lives in
+ * the FXML file's package). The FXML subset is the same as {@link FxmlTemplate}'s; other
+ * documents are skipped and keep loading at runtime.
+ */
+public final class FxmlJavaCompiler {
+
+    /** Resource listing "fxml resource path=generated class name" lines. */
+    public static final String INDEX = "META-INF/fxml-factories.properties";
+
+    /** Static field of a generated class holding {@link #sourceHash} of its FXML file. */
+    static final String SOURCE_HASH_FIELD = "SOURCE_HASH";
+
+    /** A value to put somewhere: attribute text (converted to the target type) or an expression. */
+    private static final class Value {
+        final String text;
+        final String expression;
+        final List<Value> items;
+        final boolean constant;
+
+        private Value(String text, String expression, List<Value> items, boolean constant) {
+            this.text = text;
+            this.expression = expression;
+            this.items = items;
+            this.constant = constant;
+        }
+
+        static Value text(String text) {
+            return new Value(text, null, null, true);
+        }
+
+        static Value expression(String expression, boolean constant) {
+            return new Value(null, expression, null, constant);
+        }
+
+        static Value list(List<Value> items) {
+            boolean constant = true;
+            for (Value item : items) {
+                constant &= item.constant;
+            }
+            return new Value(null, null, items, constant);
+        }
+    }
+
+    private final FxmlDocument document;
+    private final String packageName;
+    private final String className;
+    private final String fileName;
+    private final String sourceHash;
+
+    private final StringBuilder constants = new StringBuilder();
+    private final StringBuilder body = new StringBuilder();
+    private final StringBuilder wiring = new StringBuilder();
+    private int constantCount;
+    private int variableCount;
+    private Class<?> controllerClass;
+
+    private FxmlJavaCompiler(FxmlDocument document, String packageName, String className, String fileName, String sourceHash) {
+        this.document = document;
+        this.packageName = packageName;
+        this.className = className;
+        this.fileName = fileName;
+        this.sourceHash = sourceHash;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: FxmlJavaCompiler <resources dir> <generated sources dir> <classes dir>");
+            System.exit(2);
+        }
+        Path resources = Paths.get(args[0]);
+        Path generated = Paths.get(args[1]);
+        Path classes = Paths.get(args[2]);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(resources)) {
+            files = walk.filter(p -> p.toString().endsWith(".fxml")).sorted().collect(Collectors.toList());
+        }
+        List<String> index = new ArrayList<>();
+        for (Path file : files) {
+            String resource = resources.relativize(file).toString().replace('\\', '/');
+            int slash = resource.lastIndexOf('/');
+            String packageName = slash < 0 ? "" : resource.substring(0, slash).replace('/', '.');
+            String fileName = resource.substring(slash + 1);
+            String className = javaName(fileName.substring(0, fileName.length() - ".fxml".length())) + "Fxml";
+            String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+            try {
+                FxmlDocument document = FxmlDocument.parse(file.toUri().toURL(), classLoader);
+                String hash = sourceHash(Files.readAllBytes(file));
+                String source = new FxmlJavaCompiler(document, packageName, className, fileName, hash).generate();
+                Path out = generated.resolve(qualifiedName.replace('.', '/') + ".java");
+                Files.createDirectories(out.getParent());
+                Files.write(out, source.getBytes(StandardCharsets.UTF_8));
+                index.add(resource + "=" + qualifiedName);
+                System.out.println("[fxml] " + resource + " -> " + qualifiedName);
+            } catch (UnsupportedFxmlException ex) {
+                System.out.println("[fxml] " + resource + " not compiled, loaded at runtime: " + ex.getMessage());
+            }
+        }
+        Path indexFile = classes.resolve(INDEX);
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, index, StandardCharsets.UTF_8);
+    }
+
+    /** SHA-256 of an FXML file's bytes, in hex. */
+    static String sourceHash(byte[] fxml) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(fxml)) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform has SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // ---------- class ----------
+
+    private String generate() {
+        Element root = document.getRoot();
+        String controllerName = root.attributes.get("fx:controller");
+        line(body, "java.util.Map<String, Object> namespace = new java.util.LinkedHashMap<>();");
+        line(body, "namespace.put(\"location\", LOCATION);");
+        line(body, "namespace.put(\"resources\", null);");
+        String controller = "null";
+        if (controllerName != null) {
+            controllerClass = document.resolveClass(controllerName);
+            try {
+                checkAccess(controllerClass.getDeclaredConstructor(), "controller constructor");
+            } catch (NoSuchMethodException ex) {
+                throw new UnsupportedFxmlException("controller " + controllerName + " has no no-arg constructor");
+            }
+            checkAccess(controllerClass, "controller class");
+            String type = controllerClass.getCanonicalName();
+            line(body, type + " controller = new " + type + "();");
+            line(body, "namespace.put(\"controller\", controller);");
+            controller = "controller";
+        }
+        String rootVariable = instance(root).expression;
+        body.append(wiring);
+        if (controllerClass != null) {
+            initialize();
+        }
+        line(body, "return new com.javafx.demo.fxml.FxmlView(" + rootVariable + ", " + controller
+                + ", java.util.Collections.unmodifiableMap(namespace));");
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated from ").append(fileName).append(" by ").append(FxmlJavaCompiler.class.getName())
+                .append(" - do not edit, edit the FXML file instead.\n");
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n");
+        }
+        out.append("\n");
+        out.append("public final class ").append(className).append(" implements com.javafx.demo.fxml.FxmlFactory {\n\n");
+        out.append("    public static final String ").append(SOURCE_HASH_FIELD).append(" = ").append(javaString(sourceHash)).append(";\n");
+        out.append("    private static final java.net.URL LOCATION = ").append(className)
+                .append(".class.getResource(").append(javaString(fileName)).append(");\n");
+        out.append(constants);
+        out.append("\n");
+        out.append("    @Override\n");
+        out.append("    @SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+        out.append("    public com.javafx.demo.fxml.FxmlView create() {\n");
+        out.append(body);
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    // ---------- elements ----------
+
+    // emits the statements creating the element; returns the variable (or constant) holding it
+    private Value instance(Element e) {
+        if (e.name.startsWith("fx:")) {
+            throw new UnsupportedFxmlException("<" + e.name + ">");
+        }
+        if (!e.text.isEmpty()) {
+            throw new UnsupportedFxmlException("text content in <" + e.name + ">");
+        }
+        Class<?> type = document.resolveClass(e.name);
+        checkAccess(type, "class");
+        String fxId = e.attributes.get("fx:id");
+        if (FxmlTemplate.publicNoArgConstructor(type) != null) {
+            return Value.expression(bean(e, type, fxId), false);
+        }
+        return namedArgs(e, type, fxId);
+    }
+
+    private String bean(Element e, Class<?> type, String fxId) {
+        String variable = "n" + variableCount++;
+        line(body, type.getCanonicalName() + " " + variable + " = new " + type.getCanonicalName() + "();");
+        if (fxId != null) {
+            named(fxId, variable, type);
+            // like FXMLLoader: fx:id also becomes the node id unless one is given
+            if (!e.attributes.containsKey("id") && FxmlTemplate.findSetter(type, "id") != null) {
+                line(body, variable + ".setId(" + javaString(fxId) + ");");
+            }
+        }
+        for (Map.Entry<String, String> attr : e.attributes.entrySet()) {
+            String name = attr.getKey();
+            String value = attr.getValue();
+            if (name.equals("fx:id") || name.equals("fx:controller") || name.startsWith("xmlns")) {
+                continue;
+            }
+            if (name.startsWith("fx:")) {
+                throw new UnsupportedFxmlException("attribute " + name);
+            }
+            if (FxmlTemplate.isStaticName(name)) {
+                staticProperty(variable, name, attributeValue(value));
+            } else if (name.startsWith("on") && value.startsWith("#")) {
+                eventHandler(type, variable, name, value.substring(1));
+            } else {
+                property(type, variable, name, List.of(attributeValue(value)), true);
+            }
+        }
+        List<Value> defaultValues = new ArrayList<>();
+        for (Element child : e.children) {
+            if (child.isStaticProperty()) {
+                staticProperty(variable, child.name, single(child));
+            } else if (child.isInstance()) {
+                defaultValues.add(instance(child));
+            } else {
+                property(type, variable, child.name, propertyValues(child), false);
+            }
+        }
+        if (!defaultValues.isEmpty()) {
+            DefaultProperty def = type.getAnnotation(DefaultProperty.class);
+            if (def == null) {
+                throw new UnsupportedFxmlException(type.getSimpleName() + " has no default property");
+            }
+            property(type, variable, def.value(), defaultValues, false);
+        }
+        return variable;
+    }
+
+    // an immutable value type: attributes and property elements are constructor arguments
+    private Value namedArgs(Element e, Class<?> type, String fxId) {
+        Map<String, Value> given = new LinkedHashMap<>();
+        for (Map.Entry<String, String> attr : e.attributes.entrySet()) {
+            String name = attr.getKey();
+            if (name.equals("fx:id") || name.startsWith("xmlns")) {
+                continue;
+            }
+            if (name.indexOf(':') >= 0 || FxmlTemplate.isStaticName(name)) {
+                throw new UnsupportedFxmlException("attribute " + name + " on " + type.getSimpleName());
+            }
+            given.put(name, attributeValue(attr.getValue()));
+        }
+        for (Element child : e.children) {
+            if (child.isInstance() || child.isStaticProperty()) {
+                throw new UnsupportedFxmlException("<" + child.name + "> inside " + type.getSimpleName());
+            }
+            List<Value> values = propertyValues(child);
+            given.put(child.name, values.size() == 1 && !child.children.isEmpty() && !isListArg(type, child.name)
+                    ? values.get(0) : Value.list(values));
+        }
+
+        Constructor<?> best = null;
+        for (Constructor<?> ctor : type.getConstructors()) {
+            List<String> names = FxmlTemplate.namedArgNames(ctor);
+            if (names != null && names.containsAll(given.keySet())
+                    && (best == null || ctor.getParameterCount() < best.getParameterCount())) {
+                best = ctor;
+            }
+        }
+        if (best == null) {
+            throw new UnsupportedFxmlException("no @NamedArg constructor of " + type.getSimpleName() + " for " + given.keySet());
+        }
+        List<String> args = new ArrayList<>();
+        boolean constant = true;
+        for (Parameter param : best.getParameters()) {
+            NamedArg arg = param.getAnnotation(NamedArg.class);
+            Value value = given.get(arg.value());
+            if (value == null) {
+                args.add(defaultArgument(arg.defaultValue(), param.getType()));
+            } else {
+                args.add(convert(value, param.getType()));
+                constant &= value.constant;
+            }
+        }
+        String create = "new " + type.getCanonicalName() + "(" + String.join(", ", args) + ")";
+        if (constant && fxId == null && FxmlTemplate.isShareable(type)) {
+            // immutable value types built from constants: build once, share (see FxmlTemplate)
+            return Value.expression(constant(type, create), true);
+        }
+        String variable = "n" + variableCount++;
+        line(body, type.getCanonicalName() + " " + variable + " = " + create + ";");
+        if (fxId != null) {
+            named(fxId, variable, type);
+        }
+        return Value.expression(variable, false);
+    }
+
+    // values of a property element: its instance children, or its text
+    private List<Value> propertyValues(Element property) {
+        if (!property.attributes.isEmpty()) {
+            throw new UnsupportedFxmlException("attributes on property element <" + property.name + ">");
+        }
+        if (property.children.isEmpty()) {
+            return List.of(attributeValue(property.text));
+        }
+        List<Value> values = new ArrayList<>();
+        for (Element child : property.children) {
+            if (!child.isInstance()) {
+                throw new UnsupportedFxmlException("<" + child.name + "> inside <" + property.name + ">");
+            }
+            values.add(instance(child));
+        }
+        return values;
+    }
+
+    private Value single(Element property) {
+        List<Value> values = propertyValues(property);
+        if (values.size() != 1) {
+            throw new UnsupportedFxmlException("<" + property.name + "> needs exactly one value");
+        }
+        return values.get(0);
+    }
+
+    // ---------- properties ----------
+
+    private void property(Class<?> type, String variable, String name, List<Value> values, boolean fromAttribute) {
+        Method getter = FxmlTemplate.findGetter(type, name);
+        if (getter != null && Collection.class.isAssignableFrom(getter.getReturnType())) {
+            // read-only list property (children, panes, styleClass, ...): add the values
+            if (fromAttribute) {
+                // styleClass="a, b": comma separated strings
+                for (String part : values.get(0).text.split(",")) {
+                    line(body, variable + "." + getter.getName() + "().add(" + javaString(part.trim()) + ");");
+                }
+            } else {
+                for (Value value : values) {
+                    line(body, variable + "." + getter.getName() + "().add(" + convert(value, Object.class) + ");");
+                }
+            }
+            return;
+        }
+        if (values.size() != 1) {
+            throw new UnsupportedFxmlException(type.getSimpleName() + "." + name + " takes one value");
+        }
+        Method setter = FxmlTemplate.findSetter(type, name);
+        if (setter == null) {
+            throw new UnsupportedFxmlException("no property " + name + " in " + type.getSimpleName());
+        }
+        line(body, variable + "." + setter.getName() + "(" + convert(values.get(0), setter.getParameterTypes()[0]) + ");");
+    }
+
+    private void staticProperty(String variable, String qualifiedName, Value value) {
+        int dot = qualifiedName.lastIndexOf('.');
+        Class<?> owner = document.resolveClass(qualifiedName.substring(0, dot));
+        String setterName = "set" + FxmlTemplate.capitalize(qualifiedName.substring(dot + 1));
+        for (Method m : owner.getMethods()) {
+            if (Modifier.isStatic(m.getModifiers()) && m.getName().equals(setterName) && m.getParameterCount() == 2) {
+                line(body, owner.getCanonicalName() + "." + setterName + "(" + variable + ", "
+                        + convert(value, m.getParameterTypes()[1]) + ");");
+                return;
+            }
+        }
+        throw new UnsupportedFxmlException("no static property " + qualifiedName);
+    }
+
+    private void eventHandler(Class<?> type, String variable, String attribute, String methodName) {
+        if (controllerClass == null) {
+            throw new UnsupportedFxmlException(attribute + "=\"#" + methodName + "\" without fx:controller");
+        }
+        Method setter = FxmlTemplate.findSetter(type, attribute);
+        if (setter == null || !EventHandler.class.isAssignableFrom(setter.getParameterTypes()[0])) {
+            throw new UnsupportedFxmlException("no event handler property " + attribute + " in " + type.getSimpleName());
+        }
+        Method method = controllerMethod(methodName);
+        String call = "controller." + methodName + (method.getParameterCount() == 1 ? "(event);" : "();");
+        boolean throwsChecked = false;
+        for (Class<?> exception : method.getExceptionTypes()) {
+            throwsChecked |= !RuntimeException.class.isAssignableFrom(exception) && !Error.class.isAssignableFrom(exception);
+        }
+        if (!throwsChecked) {
+            line(body, variable + "." + setter.getName() + "(event -> " + call.substring(0, call.length() - 1) + ");");
+            return;
+        }
+        // same as FXMLLoader's handlers: checked exceptions of the controller method are wrapped
+        line(body, variable + "." + setter.getName() + "(event -> {");
+        line(body, "    try {");
+        line(body, "        " + call);
+        line(body, "    } catch (RuntimeException ex) {");
+        line(body, "        throw ex;");
+        line(body, "    } catch (Exception ex) {");
+        line(body, "        throw new RuntimeException(ex);");
+        line(body, "    }");
+        line(body, "});");
+    }
+
+    private Method controllerMethod(String name) {
+        for (Class<?> c = controllerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (m.getName().equals(name) && (m.getParameterCount() == 0
+                        || (m.getParameterCount() == 1 && Event.class.isAssignableFrom(m.getParameterTypes()[0])))) {
+                    checkAccess(m, "handler method");
+                    return m;
+                }
+            }
+        }
+        throw new UnsupportedFxmlException("no handler method " + name + " in " + controllerClass.getName());
+    }
+
+    // an object with an fx:id: into the namespace, and into the controller's field of that name
+    private void named(String fxId, String variable, Class<?> type) {
+        line(body, "namespace.put(" + javaString(fxId) + ", " + variable + ");");
+        if (controllerClass == null) {
+            return;
+        }
+        for (Class<?> c = controllerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(fxId);
+                if (!Modifier.isStatic(field.getModifiers())
+                        && (field.isAnnotationPresent(FXML.class) || Modifier.isPublic(field.getModifiers()))) {
+                    checkAccess(field, "@FXML field");
+                    if (!field.getType().isAssignableFrom(type)) {
+                        throw new UnsupportedFxmlException("field " + fxId + " cannot hold a " + type.getSimpleName());
+                    }
+                    // injected after the whole graph is built, as FXMLLoader does
+                    line(wiring, "controller." + fxId + " = " + variable + ";");
+                }
+                return;
+            } catch (NoSuchFieldException notHere) {
+                // look in the superclass
+            }
+        }
+    }
+
+    private void initialize() {
+        if (Initializable.class.isAssignableFrom(controllerClass)) {
+            line(body, "controller.initialize(LOCATION, null);");
+            return;
+        }
+        for (Class<?> c = controllerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Method m = c.getDeclaredMethod("initialize");
+                if (m.isAnnotationPresent(FXML.class) || Modifier.isPublic(m.getModifiers())) {
+                    checkAccess(m, "initialize()");
+                    line(body, "controller.initialize();");
+                }
+                return;
+            } catch (NoSuchMethodException notHere) {
+                // look in the superclass
+            }
+        }
+    }
+
+    // the generated class can only use public members, or package-private ones of its own package
+    private void checkAccess(Member member, String what) {
+        int modifiers = member.getModifiers();
+        if (!Modifier.isPublic(modifiers)
+                && (Modifier.isPrivate(modifiers) || !member.getDeclaringClass().getPackageName().equals(packageName))) {
+            throw new UnsupportedFxmlException(what + " " + member.getName() + " of " + member.getDeclaringClass().getSimpleName()
+                    + " is not accessible from generated code (make it package-private)");
+        }
+    }
+
+    private void checkAccess(Class<?> type, String what) {
+        if (!Modifier.isPublic(type.getModifiers()) && !type.getPackageName().equals(packageName)) {
+            throw new UnsupportedFxmlException(what + " " + type.getName() + " is not accessible from generated code");
+        }
+    }
+
+    // ---------- values ----------
+
+    private Value attributeValue(String value) {
+        if (value.startsWith("\\")) {
+            return Value.text(value.substring(1));
+        }
+        if (value.startsWith("@")) {
+            return Value.expression(className + ".class.getResource(" + javaString(value.substring(1)) + ").toExternalForm()", false);
+        }
+        if (value.startsWith("%") || value.startsWith("$")) {
+            throw new UnsupportedFxmlException("attribute value " + value);
+        }
+        return Value.text(value);
+    }
+
+    private String convert(Value value, Class<?> type) {
+        if (value.items != null) {
+            List<String> items = new ArrayList<>();
+            Class<?> itemType = type.isArray() ? type.getComponentType() : Object.class;
+            for (Value item : value.items) {
+                items.add(convert(item, itemType));
+            }
+            if (type.isArray()) {
+                return "new " + type.getComponentType().getCanonicalName() + "[] { " + String.join(", ", items) + " }";
+            }
+            return "java.util.List.of(" + String.join(", ", items) + ")";
+        }
+        return value.text != null ? literal(value.text, type) : value.expression;
+    }
+
+    private String defaultArgument(String defaultValue, Class<?> type) {
+        if (!defaultValue.isEmpty()) {
+            return literal(defaultValue, type);
+        }
+        if (type == boolean.class) {
+            return "false";
+        }
+        if (type.isPrimitive()) {
+            return literal("0", type);
+        }
+        return "(" + type.getCanonicalName() + ") null";
+    }
+
+    // Java source for an attribute string converted to the type (see FxmlTemplate.coerce)
+    private String literal(String text, Class<?> type) {
+        String s = text.trim();
+        try {
+            if (type == String.class || type == Object.class) {
+                return javaString(text);
+            }
+            if (type == double.class || type == Double.class) {
+                double d = Double.parseDouble(s);
+                if (Double.isNaN(d)) {
+                    return "Double.NaN";
+                }
+                if (Double.isInfinite(d)) {
+                    return d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+                }
+                return Double.toString(d);
+            }
+            if (type == float.class || type == Float.class) {
+                float f = Float.parseFloat(s);
+                if (Float.isNaN(f) || Float.isInfinite(f)) {
+                    return Float.isNaN(f) ? "Float.NaN" : f > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+                }
+                return Float.toString(f) + "f";
+            }
+            if (type == int.class || type == Integer.class) {
+                return Integer.toString(Integer.parseInt(s));
+            }
+            if (type == long.class || type == Long.class) {
+                return Long.parseLong(s) + "L";
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return Boolean.toString(Boolean.parseBoolean(s));
+            }
+        } catch (NumberFormatException ex) {
+            throw new UnsupportedFxmlException("cannot convert \"" + s + "\" to " + type.getSimpleName());
+        }
+        if (type.isEnum()) {
+            try {
+                return type.getCanonicalName() + "." + ((Enum<?>) FxmlTemplate.enumValue(type, s)).name();
+            } catch (IllegalArgumentException ex) {
+                throw new UnsupportedFxmlException("no constant " + s + " in " + type.getSimpleName());
+            }
+        }
+        if (Paint.class.isAssignableFrom(type)) {
+            String cast = type == Paint.class ? "" : "(" + type.getCanonicalName() + ") ";
+            return constant(type, cast + "javafx.scene.paint.Paint.valueOf(" + javaString(s) + ")");
+        }
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+                return constant(type, type.getCanonicalName() + ".valueOf(" + javaString(s) + ")");
+            }
+        } catch (NoSuchMethodException ex) {
+            // no valueOf(String)
+        }
+        throw new UnsupportedFxmlException("cannot convert \"" + s + "\" to " + type.getSimpleName());
+    }
+
+    private boolean isListArg(Class<?> type, String name) {
+        for (Constructor<?> ctor : type.getConstructors()) {
+            for (Parameter p : ctor.getParameters()) {
+                NamedArg arg = p.getAnnotation(NamedArg.class);
+                if (arg != null && arg.value().equals(name)
+                        && (List.class.isAssignableFrom(p.getType()) || p.getType().isArray())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // a static final field of the generated class, created once for all instances
+    private String constant(Class<?> type, String expression) {
+        String name = "C" + constantCount++;
+        constants.append("    private static final ").append(type.getCanonicalName()).append(' ').append(name)
+                .append(" = ").append(expression).append(";\n");
+        return name;
+    }
+
+    private static void line(StringBuilder out, String code) {
+        out.append("        ").append(code).append('\n');
+    }
+
+    private static String javaString(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c > 0x7e) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // "login-page" -> "LoginPage"
+    private static String javaName(String fileBase) {
+        StringBuilder sb = new StringBuilder();
+        boolean upper = true;
+        for (char c : fileBase.toCharArray()) {
+            if (Character.isJavaIdentifierPart(c)) {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,812 @@
+package com.javafx.demo.fxml;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.javafx.demo.fxml.FxmlDocument.Element;
+
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.Insets;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+
+/**
+ * FxmlTemplate
+ *
+ * An FXML document compiled into a tree of object factories. Parsing the XML, resolving
+ * classes and looking up setters, getters, constructors and controller members happens once
+ * in {@link #compile}; {@link #create()} then only calls constructors and setters through
+ * the prepared method handles. Attribute values are converted once as well, and immutable
+ * values built from constants through {@code @NamedArg} constructors are created once and
+ * shared by all instances - only for the types in {@link #isShareable}, every other value
+ * (a mutable object like a Rectangle or a ColumnConstraints) is built again per instance.
+ *
+ * Supported: imports, instance elements (no-arg or @NamedArg constructors), attributes and
+ * property elements (setters, read-only lists, default properties), static properties
+ * (GridPane.rowIndex), fx:id, fx:controller with @FXML field injection, "#handler" event
+ * handlers and initialize(). Anything else (fx:include, scripts, %resources, $expressions,
+ * ...) makes {@link #compile} throw {@link UnsupportedFxmlException}.
+ *
+ * A template is immutable and may be instantiated from any thread, like FXMLLoader (the
+ * nodes it returns are not attached to a scene yet).
+ */
+final class FxmlTemplate implements FxmlFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType NO_ARG_FACTORY = MethodType.methodType(Object.class);
+    private static final MethodType ARRAY_FACTORY = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType HANDLER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType HANDLER_NO_EVENT = MethodType.methodType(void.class, Object.class);
+
+    // exact classes (a WritableImage is an Image, but not immutable)
+    private static final Set<Class<?>> SHAREABLE_TYPES = Set.of(
+            Insets.class, Font.class, Color.class, Stop.class, LinearGradient.class, RadialGradient.class, Image.class);
+
+    /**
+     * Whether a value of the type, built from constants, may be created once and shared by all
+     * instances of a document: it has to be immutable, or one load could change another's.
+     */
+    static boolean isShareable(Class<?> type) {
+        return SHAREABLE_TYPES.contains(type);
+    }
+
+    /**
+     * An "@path" location relative to the document's URL. A jar: URL is opaque to
+     * {@link URI#resolve(String)}, so its entry path after "!/" is resolved on its own.
+     */
+    static URL resolveLocation(URL base, String path) throws MalformedURLException {
+        try {
+            URI uri = base.toURI();
+            if (!uri.isOpaque()) {
+                return uri.resolve(path).toURL();
+            }
+            String text = base.toExternalForm();
+            int entry = text.indexOf("!/");
+            if (entry < 0) {
+                throw new MalformedURLException("cannot resolve " + path + " against " + base);
+            }
+            return new URI(text.substring(0, entry + 1)
+                    + new URI(text.substring(entry + 1)).resolve(path)).toURL();
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            throw (MalformedURLException) new MalformedURLException(ex.getMessage()).initCause(ex);
+        }
+    }
+
+    // ---------- compiled tree ----------
+
+    /** State of one instantiation. */
+    private static final class Context {
+        Object controller;
+        final Map<String, Object> namespace = new LinkedHashMap<>();
+    }
+
+    /** Produces the value of an element (or a converted attribute) for one instantiation. */
+    private interface ValueSource {
+        Object get(Context ctx) throws Throwable;
+
+        default boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Constant implements ValueSource {
+        final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object get(Context ctx) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    /** Applies an attribute / property element to a new object. */
+    private interface Op {
+        void apply(Object target, Context ctx) throws Throwable;
+    }
+
+    /** Element of a class with a no-arg constructor, configured through setters. */
+    private static final class BeanSource implements ValueSource {
+        final MethodHandle constructor;
+        final Op[] ops;
+        final String fxId;
+
+        BeanSource(MethodHandle constructor, List<Op> ops, String fxId) {
+            this.constructor = constructor;
+            this.ops = ops.toArray(new Op[0]);
+            this.fxId = fxId;
+        }
+
+        @Override
+        public Object get(Context ctx) throws Throwable {
+            Object bean = (Object) constructor.invokeExact();
+            if (fxId != null) {
+                ctx.namespace.put(fxId, bean);
+            }
+            for (Op op : ops) {
+                op.apply(bean, ctx);
+            }
+            return bean;
+        }
+    }
+
+    /** Element built through a @NamedArg constructor, from values that differ per instance. */
+    private static final class ConstructorSource implements ValueSource {
+        final MethodHandle constructor; // (Object[]) -> Object
+        final ValueSource[] args;
+        final Class<?>[] types;
+        final String fxId;
+
+        ConstructorSource(MethodHandle constructor, ValueSource[] args, Class<?>[] types, String fxId) {
+            this.constructor = constructor;
+            this.args = args;
+            this.types = types;
+            this.fxId = fxId;
+        }
+
+        @Override
+        public Object get(Context ctx) throws Throwable {
+            Object[] values = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                values[i] = adapt(args[i].get(ctx), types[i]);
+            }
+            Object value = (Object) constructor.invokeExact(values);
+            if (fxId != null) {
+                ctx.namespace.put(fxId, value);
+            }
+            return value;
+        }
+    }
+
+    /** Element whose children are collected into a List (a property element of a list property). */
+    private static final class ListSource implements ValueSource {
+        final ValueSource[] items;
+
+        ListSource(List<ValueSource> items) {
+            this.items = items.toArray(new ValueSource[0]);
+        }
+
+        @Override
+        public Object get(Context ctx) throws Throwable {
+            List<Object> list = new ArrayList<>(items.length);
+            for (ValueSource item : items) {
+                list.add(item.get(ctx));
+            }
+            return list;
+        }
+    }
+
+    // ---------- template ----------
+
+    private final URL location;
+    private final ValueSource root;
+    private final MethodHandle controllerConstructor;
+    private final Map<String, MethodHandle> injections;
+    private final MethodHandle initializeMethod;
+
+    private FxmlTemplate(URL location, ValueSource root, MethodHandle controllerConstructor,
+            Map<String, MethodHandle> injections, MethodHandle initializeMethod) {
+        this.location = location;
+        this.root = root;
+        this.controllerConstructor = controllerConstructor;
+        this.injections = injections;
+        this.initializeMethod = initializeMethod;
+    }
+
+    URL getLocation() {
+        return location;
+    }
+
+    /** Creates a new object graph (and controller) from the template. */
+    @Override
+    public FxmlView create() {
+        Context ctx = new Context();
+        // the same entries FXMLLoader puts in its namespace
+        ctx.namespace.put("location", location);
+        ctx.namespace.put("resources", null);
+        try {
+            if (controllerConstructor != null) {
+                ctx.controller = (Object) controllerConstructor.invokeExact();
+                ctx.namespace.put("controller", ctx.controller);
+            }
+            Object rootObject = root.get(ctx);
+            if (ctx.controller != null) {
+                for (Map.Entry<String, MethodHandle> injection : injections.entrySet()) {
+                    Object value = ctx.namespace.get(injection.getKey());
+                    if (value != null) {
+                        injection.getValue().invoke(ctx.controller, value);
+                    }
+                }
+                if (ctx.controller instanceof Initializable) {
+                    ((Initializable) ctx.controller).initialize(location, null);
+                } else if (initializeMethod != null) {
+                    initializeMethod.invoke(ctx.controller);
+                }
+            }
+            return new FxmlView(rootObject, ctx.controller, Collections.unmodifiableMap(ctx.namespace));
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot instantiate " + location, t);
+        }
+    }
+
+    // ---------- compiling ----------
+
+    /** Compiles the document; throws UnsupportedFxmlException for features it does not handle. */
+    static FxmlTemplate compile(FxmlDocument document) {
+        return new Compiler(document).compile();
+    }
+
+    private static final class Compiler {
+        private final FxmlDocument document;
+        private Class<?> controllerClass;
+        private final Map<String, MethodHandle> injections = new LinkedHashMap<>();
+
+        Compiler(FxmlDocument document) {
+            this.document = document;
+        }
+
+        FxmlTemplate compile() {
+            Element rootElement = document.getRoot();
+            MethodHandle controllerConstructor = null;
+            MethodHandle initialize = null;
+            String controllerName = rootElement.attributes.get("fx:controller");
+            if (controllerName != null) {
+                controllerClass = document.resolveClass(controllerName);
+                try {
+                    Constructor<?> ctor = controllerClass.getDeclaredConstructor();
+                    ctor.setAccessible(true);
+                    controllerConstructor = LOOKUP.unreflectConstructor(ctor).asType(NO_ARG_FACTORY);
+                } catch (ReflectiveOperationException ex) {
+                    throw new UnsupportedFxmlException("controller " + controllerName + " has no no-arg constructor");
+                }
+                initialize = findInitialize(controllerClass);
+            }
+            ValueSource root = instance(rootElement);
+            return new FxmlTemplate(document.getLocation(), root, controllerConstructor,
+                    Collections.unmodifiableMap(injections), initialize);
+        }
+
+        // ----- elements -----
+
+        private ValueSource instance(Element e) {
+            if (e.name.startsWith("fx:")) {
+                throw new UnsupportedFxmlException("<" + e.name + ">");
+            }
+            if (!e.text.isEmpty()) {
+                throw new UnsupportedFxmlException("text content in <" + e.name + ">");
+            }
+            Class<?> type = document.resolveClass(e.name);
+            String fxId = e.attributes.get("fx:id");
+            if (fxId != null) {
+                registerInjection(fxId);
+            }
+            Constructor<?> noArg = publicNoArgConstructor(type);
+            return noArg != null ? bean(e, type, noArg, fxId) : namedArgs(e, type, fxId);
+        }
+
+        private ValueSource bean(Element e, Class<?> type, Constructor<?> ctor, String fxId) {
+            List<Op> ops = new ArrayList<>();
+            for (Map.Entry<String, String> attr : e.attributes.entrySet()) {
+                String name = attr.getKey();
+                String value = attr.getValue();
+                if (name.equals("fx:id") || name.equals("fx:controller") || name.startsWith("xmlns")) {
+                    continue;
+                }
+                if (name.startsWith("fx:")) {
+                    throw new UnsupportedFxmlException("attribute " + name);
+                }
+                if (isStaticName(name)) {
+                    ops.add(staticProperty(name, constantOrUnsupported(value)));
+                } else if (name.startsWith("on") && value.startsWith("#")) {
+                    ops.add(eventHandler(type, name, value.substring(1)));
+                } else {
+                    ops.add(property(type, name, Collections.singletonList(constantOrUnsupported(value)), true));
+                }
+            }
+            // like FXMLLoader: fx:id also becomes the node id unless one is given
+            if (fxId != null && !e.attributes.containsKey("id") && findSetter(type, "id") != null) {
+                ops.add(property(type, "id", Collections.singletonList(new Constant(fxId)), true));
+            }
+            List<ValueSource> defaultValues = new ArrayList<>();
+            for (Element child : e.children) {
+                if (child.isStaticProperty()) {
+                    ops.add(staticProperty(child.name, single(child)));
+                } else if (child.isInstance()) {
+                    defaultValues.add(instance(child));
+                } else {
+                    ops.add(property(type, child.name, propertyValues(child), false));
+                }
+            }
+            if (!defaultValues.isEmpty()) {
+                DefaultProperty def = type.getAnnotation(DefaultProperty.class);
+                if (def == null) {
+                    throw new UnsupportedFxmlException(type.getSimpleName() + " has no default property");
+                }
+                ops.add(property(type, def.value(), defaultValues, false));
+            }
+            try {
+                return new BeanSource(LOOKUP.unreflectConstructor(ctor).asType(NO_ARG_FACTORY), ops, fxId);
+            } catch (IllegalAccessException ex) {
+                throw new UnsupportedFxmlException("cannot access constructor of " + type.getName());
+            }
+        }
+
+        // an immutable value type: attributes and property elements are constructor arguments
+        private ValueSource namedArgs(Element e, Class<?> type, String fxId) {
+            Map<String, ValueSource> given = new HashMap<>();
+            for (Map.Entry<String, String> attr : e.attributes.entrySet()) {
+                String name = attr.getKey();
+                if (name.equals("fx:id") || name.startsWith("xmlns")) {
+                    continue;
+                }
+                if (name.indexOf(':') >= 0 || isStaticName(name)) {
+                    throw new UnsupportedFxmlException("attribute " + name + " on " + type.getSimpleName());
+                }
+                given.put(name, constantOrUnsupported(attr.getValue()));
+            }
+            for (Element child : e.children) {
+                if (child.isInstance() || child.isStaticProperty()) {
+                    throw new UnsupportedFxmlException("<" + child.name + "> inside " + type.getSimpleName());
+                }
+                List<ValueSource> values = propertyValues(child);
+                given.put(child.name, values.size() == 1 && !child.children.isEmpty() && !isListArg(type, child.name)
+                        ? values.get(0) : listOf(values));
+            }
+
+            Constructor<?> best = null;
+            for (Constructor<?> ctor : type.getConstructors()) {
+                List<String> names = namedArgNames(ctor);
+                if (names != null && names.containsAll(given.keySet())
+                        && (best == null || ctor.getParameterCount() < best.getParameterCount())) {
+                    best = ctor;
+                }
+            }
+            if (best == null) {
+                throw new UnsupportedFxmlException("no @NamedArg constructor of " + type.getSimpleName() + " for " + given.keySet());
+            }
+            Parameter[] params = best.getParameters();
+            ValueSource[] args = new ValueSource[params.length];
+            Class<?>[] types = best.getParameterTypes();
+            boolean constant = true;
+            for (int i = 0; i < params.length; i++) {
+                NamedArg arg = params[i].getAnnotation(NamedArg.class);
+                ValueSource source = given.get(arg.value());
+                if (source == null) {
+                    source = new Constant(arg.defaultValue().isEmpty() ? defaultValue(types[i]) : arg.defaultValue());
+                }
+                if (source instanceof Constant) {
+                    source = new Constant(coerce(((Constant) source).value, types[i]));
+                }
+                args[i] = source;
+                constant &= source.isConstant();
+            }
+            MethodHandle ctor;
+            try {
+                ctor = LOOKUP.unreflectConstructor(best).asFixedArity().asSpreader(Object[].class, params.length).asType(ARRAY_FACTORY);
+            } catch (IllegalAccessException ex) {
+                throw new UnsupportedFxmlException("cannot access constructor of " + type.getName());
+            }
+            ConstructorSource source = new ConstructorSource(ctor, args, types, fxId);
+            if (constant && fxId == null && isShareable(type)) {
+                // immutable value types built from constants: build once, share
+                try {
+                    return new Constant(source.get(new Context()));
+                } catch (Throwable t) {
+                    throw new UnsupportedFxmlException("cannot create " + type.getSimpleName() + ": " + t);
+                }
+            }
+            return source;
+        }
+
+        // values of a property element: its instance children, or its text
+        private List<ValueSource> propertyValues(Element property) {
+            if (!property.attributes.isEmpty()) {
+                throw new UnsupportedFxmlException("attributes on property element <" + property.name + ">");
+            }
+            if (property.children.isEmpty()) {
+                return Collections.singletonList(constantOrUnsupported(property.text));
+            }
+            List<ValueSource> values = new ArrayList<>();
+            for (Element child : property.children) {
+                if (!child.isInstance()) {
+                    throw new UnsupportedFxmlException("<" + child.name + "> inside <" + property.name + ">");
+                }
+                values.add(instance(child));
+            }
+            return values;
+        }
+
+        private ValueSource single(Element property) {
+            List<ValueSource> values = propertyValues(property);
+            if (values.size() != 1) {
+                throw new UnsupportedFxmlException("<" + property.name + "> needs exactly one value");
+            }
+            return values.get(0);
+        }
+
+        private ValueSource listOf(List<ValueSource> values) {
+            boolean constant = true;
+            for (ValueSource v : values) {
+                constant &= v.isConstant();
+            }
+            if (constant) {
+                List<Object> list = new ArrayList<>();
+                for (ValueSource v : values) {
+                    list.add(((Constant) v).value);
+                }
+                return new Constant(Collections.unmodifiableList(list));
+            }
+            return new ListSource(values);
+        }
+
+        // ----- properties -----
+
+        private Op property(Class<?> type, String name, List<ValueSource> values, boolean fromAttribute) {
+            Method getter = findGetter(type, name);
+            boolean isList = getter != null && Collection.class.isAssignableFrom(getter.getReturnType());
+            if (isList) {
+                // read-only list property (children, panes, styleClass, ...): add the values
+                MethodHandle get = handle(getter).asType(GETTER);
+                List<ValueSource> items = values;
+                if (fromAttribute) {
+                    // styleClass="a, b": comma separated strings
+                    items = new ArrayList<>();
+                    for (String part : ((String) ((Constant) values.get(0)).value).split(",")) {
+                        items.add(new Constant(part.trim()));
+                    }
+                }
+                ValueSource[] sources = items.toArray(new ValueSource[0]);
+                return (target, ctx) -> {
+                    @SuppressWarnings("unchecked")
+                    Collection<Object> list = (Collection<Object>) (Object) get.invokeExact(target);
+                    for (ValueSource source : sources) {
+                        list.add(source.get(ctx));
+                    }
+                };
+            }
+            if (values.size() != 1) {
+                throw new UnsupportedFxmlException(type.getSimpleName() + "." + name + " takes one value");
+            }
+            Method setter = findSetter(type, name);
+            if (setter == null) {
+                throw new UnsupportedFxmlException("no property " + name + " in " + type.getSimpleName());
+            }
+            Class<?> valueType = setter.getParameterTypes()[0];
+            ValueSource value = convertConstant(values.get(0), valueType);
+            MethodHandle set = handle(setter).asType(SETTER);
+            return (target, ctx) -> {
+                set.invokeExact(target, adapt(value.get(ctx), valueType));
+            };
+        }
+
+        private Op staticProperty(String qualifiedName, ValueSource value) {
+            int dot = qualifiedName.lastIndexOf('.');
+            Class<?> owner = document.resolveClass(qualifiedName.substring(0, dot));
+            String setterName = "set" + capitalize(qualifiedName.substring(dot + 1));
+            for (Method m : owner.getMethods()) {
+                if (Modifier.isStatic(m.getModifiers()) && m.getName().equals(setterName) && m.getParameterCount() == 2) {
+                    Class<?> valueType = m.getParameterTypes()[1];
+                    ValueSource converted = convertConstant(value, valueType);
+                    MethodHandle set = handle(m).asType(SETTER);
+                    return (target, ctx) -> {
+                        set.invokeExact(target, adapt(converted.get(ctx), valueType));
+                    };
+                }
+            }
+            throw new UnsupportedFxmlException("no static property " + qualifiedName);
+        }
+
+        private Op eventHandler(Class<?> type, String attribute, String methodName) {
+            if (controllerClass == null) {
+                throw new UnsupportedFxmlException(attribute + "=\"#" + methodName + "\" without fx:controller");
+            }
+            Method setter = findSetter(type, attribute);
+            if (setter == null || !EventHandler.class.isAssignableFrom(setter.getParameterTypes()[0])) {
+                throw new UnsupportedFxmlException("no event handler property " + attribute + " in " + type.getSimpleName());
+            }
+            Method method = findControllerMethod(methodName);
+            MethodHandle set = handle(setter).asType(SETTER);
+            if (method.getParameterCount() == 1) {
+                MethodHandle call = handle(method).asType(HANDLER);
+                return (target, ctx) -> {
+                    Object controller = ctx.controller;
+                    EventHandler<Event> h = event -> invokeHandler(call, controller, event);
+                    set.invokeExact(target, (Object) h);
+                };
+            }
+            MethodHandle call = handle(method).asType(HANDLER_NO_EVENT);
+            return (target, ctx) -> {
+                Object controller = ctx.controller;
+                EventHandler<Event> h = event -> invokeHandler(call, controller, null);
+                set.invokeExact(target, (Object) h);
+            };
+        }
+
+        private Method findControllerMethod(String name) {
+            for (Class<?> c = controllerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Method m : c.getDeclaredMethods()) {
+                    if (m.getName().equals(name) && (m.getParameterCount() == 0
+                            || (m.getParameterCount() == 1 && Event.class.isAssignableFrom(m.getParameterTypes()[0])))) {
+                        m.setAccessible(true);
+                        return m;
+                    }
+                }
+            }
+            throw new UnsupportedFxmlException("no handler method " + name + " in " + controllerClass.getName());
+        }
+
+        private void registerInjection(String fxId) {
+            if (controllerClass == null) {
+                return;
+            }
+            for (Class<?> c = controllerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Field field = c.getDeclaredField(fxId);
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        return;
+                    }
+                    if (field.isAnnotationPresent(FXML.class) || Modifier.isPublic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        injections.put(fxId, LOOKUP.unreflectSetter(field));
+                    }
+                    return;
+                } catch (NoSuchFieldException notHere) {
+                    // look in the superclass
+                } catch (IllegalAccessException ex) {
+                    throw new UnsupportedFxmlException("cannot inject " + fxId + ": " + ex.getMessage());
+                }
+            }
+        }
+
+        private MethodHandle findInitialize(Class<?> type) {
+            if (Initializable.class.isAssignableFrom(type)) {
+                return null;
+            }
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Method m = c.getDeclaredMethod("initialize");
+                    if (m.isAnnotationPresent(FXML.class) || Modifier.isPublic(m.getModifiers())) {
+                        m.setAccessible(true);
+                        return handle(m);
+                    }
+                    return null;
+                } catch (NoSuchMethodException notHere) {
+                    // look in the superclass
+                }
+            }
+            return null;
+        }
+
+        // ----- attribute values -----
+
+        private ValueSource constantOrUnsupported(String value) {
+            if (value.startsWith("\\")) {
+                return new Constant(value.substring(1));
+            }
+            if (value.startsWith("@")) {
+                try {
+                    return new Constant(resolveLocation(document.getLocation(), value.substring(1)).toExternalForm());
+                } catch (MalformedURLException ex) {
+                    throw new UnsupportedFxmlException("bad location " + value);
+                }
+            }
+            if (value.startsWith("%") || value.startsWith("$")) {
+                throw new UnsupportedFxmlException("attribute value " + value);
+            }
+            return new Constant(value);
+        }
+
+        // converts string constants to the target type now, not on every instantiation
+        private ValueSource convertConstant(ValueSource value, Class<?> type) {
+            if (value instanceof Constant && ((Constant) value).value instanceof String) {
+                return new Constant(coerce(((Constant) value).value, type));
+            }
+            return value;
+        }
+
+        private boolean isListArg(Class<?> type, String name) {
+            for (Constructor<?> ctor : type.getConstructors()) {
+                Parameter[] params = ctor.getParameters();
+                for (Parameter p : params) {
+                    NamedArg arg = p.getAnnotation(NamedArg.class);
+                    if (arg != null && arg.value().equals(name)
+                            && (List.class.isAssignableFrom(p.getType()) || p.getType().isArray())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    // ---------- reflection helpers ----------
+
+    static Constructor<?> publicNoArgConstructor(Class<?> type) {
+        try {
+            return type.getConstructor();
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    static List<String> namedArgNames(Constructor<?> ctor) {
+        List<String> names = new ArrayList<>();
+        for (Parameter p : ctor.getParameters()) {
+            NamedArg arg = p.getAnnotation(NamedArg.class);
+            if (arg == null) {
+                return null;
+            }
+            names.add(arg.value());
+        }
+        return names;
+    }
+
+    static Method findSetter(Class<?> type, String property) {
+        String name = "set" + capitalize(property);
+        Method best = null;
+        for (Method m : type.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == 1 && !Modifier.isStatic(m.getModifiers())) {
+                // prefer the most specific overload (e.g. not the Object bridge method)
+                if (best == null || best.getParameterTypes()[0].isAssignableFrom(m.getParameterTypes()[0])) {
+                    best = m;
+                }
+            }
+        }
+        return best;
+    }
+
+    static Method findGetter(Class<?> type, String property) {
+        try {
+            return type.getMethod("get" + capitalize(property));
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    private static MethodHandle handle(Method m) {
+        try {
+            return LOOKUP.unreflect(m);
+        } catch (IllegalAccessException ex) {
+            throw new UnsupportedFxmlException("cannot access " + m);
+        }
+    }
+
+    private static void invokeHandler(MethodHandle call, Object controller, Event event) {
+        try {
+            if (event == null) {
+                call.invokeExact(controller);
+            } else {
+                call.invokeExact(controller, (Object) event);
+            }
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            // same as FXMLLoader's handlers: checked exceptions of the controller method
+            throw new RuntimeException(t);
+        }
+    }
+
+    static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (type.isPrimitive()) {
+            return "0";
+        }
+        return null;
+    }
+
+    // per-instance values: lists to arrays for varargs-style constructors
+    private static Object adapt(Object value, Class<?> type) {
+        if (value instanceof List && type.isArray()) {
+            List<?> list = (List<?>) value;
+            Object array = Array.newInstance(type.getComponentType(), list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Array.set(array, i, list.get(i));
+            }
+            return array;
+        }
+        return value;
+    }
+
+    /** Converts an attribute string to the type of a property or constructor argument. */
+    static Object coerce(Object value, Class<?> type) {
+        if (!(value instanceof String)) {
+            return adapt(value, type);
+        }
+        String s = ((String) value).trim();
+        if (type == String.class || type == Object.class) {
+            return value;
+        }
+        if (type == double.class || type == Double.class) {
+            return Double.valueOf(s);
+        }
+        if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(s);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(s);
+        }
+        if (type == float.class || type == Float.class) {
+            return Float.valueOf(s);
+        }
+        if (type == long.class || type == Long.class) {
+            return Long.valueOf(s);
+        }
+        if (type.isEnum()) {
+            return enumValue(type, s);
+        }
+        if (Paint.class.isAssignableFrom(type)) {
+            return Paint.valueOf(s);
+        }
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers())) {
+                return valueOf.invoke(null, s);
+            }
+        } catch (ReflectiveOperationException ex) {
+            // no valueOf(String)
+        }
+        throw new UnsupportedFxmlException("cannot convert \"" + s + "\" to " + type.getSimpleName());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object enumValue(Class<?> type, String s) {
+        // FXML also accepts camel case: "centerLeft" -> CENTER_LEFT
+        String constant = s;
+        if (!s.equals(s.toUpperCase(Locale.ROOT))) {
+            constant = s.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        }
+        return Enum.valueOf((Class) type, constant);
+    }
+
+    static boolean isStaticName(String attribute) {
+        int dot = attribute.lastIndexOf('.');
+        return dot > 0 && Character.isUpperCase(attribute.charAt(0));
+    }
+}
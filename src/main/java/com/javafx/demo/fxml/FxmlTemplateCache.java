@@ -0,0 +1,277 @@
+package com.javafx.demo.fxml;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.fxml.FXMLLoader;
+
+/**
+ * FxmlTemplateCache
+ *
+ * Loads FXML documents, parsing each one only once. FXMLLoader.load() reads the XML, resolves
+ * every class and looks up every setter again on each call; here the first load of a document
+ * compiles it into an {@link FxmlTemplate} and every load (the first included) just
+ * instantiates the template. Documents compiled to Java at build time by {@link FxmlJavaCompiler}
+ * skip even that first parse: their generated class is used directly, unless the FXML file
+ * changed since the class was generated (then the document is compiled as a template).
+ *
+ * <pre>
+ *   Parent dashboard = FxmlTemplateCache.getDefault().load(getClass().getResource("Dashboard.fxml")).getRoot();
+ * </pre>
+ *
+ * Documents using FXML features the templates do not support are remembered as such and
+ * loaded with FXMLLoader every time, so the result is always the same as FXMLLoader's.
+ * {@link #stats()} reports hits, misses and instantiation times.
+ */
+public final class FxmlTemplateCache {
+
+    private static final Log LOG = Log.get(FxmlTemplateCache.class);
+
+    private static final FxmlTemplateCache DEFAULT = new FxmlTemplateCache(FxmlTemplateCache.class.getClassLoader());
+
+    /** A generated class or compiled template, or null when the document is loaded with FXMLLoader. */
+    private static final class Entry {
+        final FxmlFactory factory;
+        final String kind;
+
+        Entry(FxmlFactory factory, String kind) {
+            this.factory = factory;
+            this.kind = kind;
+        }
+    }
+
+    private final ClassLoader classLoader;
+    // keyed by the URL's text: URL.equals/hashCode may do DNS lookups
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // document URL -> class generated at build time, read from FxmlJavaCompiler.INDEX
+    private volatile Map<String, String> generatedClasses;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fallbackLoads = new LongAdder();
+    private final LongAdder generatedLoads = new LongAdder();
+    private final LongAdder instantiations = new LongAdder();
+    private final LongAdder instantiationNanos = new LongAdder();
+    private final LongAdder compileNanos = new LongAdder();
+    private final AtomicLong maxInstantiationNanos = new AtomicLong();
+
+    public FxmlTemplateCache(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /** The shared cache used by the application. */
+    public static FxmlTemplateCache getDefault() {
+        return DEFAULT;
+    }
+
+    /** Loads a new copy of the document (root, controller, fx:id objects). */
+    public FxmlView load(URL location) throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException("FXML location is null (resource not found?)");
+        }
+        Entry entry = entries.get(location.toExternalForm());
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = compile(location);
+            entries.putIfAbsent(location.toExternalForm(), entry);
+        }
+
+        long start = System.nanoTime();
+        FxmlView view = entry.factory != null ? entry.factory.create() : loadWithFxmlLoader(location);
+        long nanos = System.nanoTime() - start;
+        if (entry.factory != null && !(entry.factory instanceof FxmlTemplate)) {
+            generatedLoads.increment();
+        }
+        instantiations.increment();
+        instantiationNanos.add(nanos);
+        maxInstantiationNanos.accumulateAndGet(nanos, Math::max);
+        LOG.debug("FXML loaded", "location", location, "by", entry.kind, "ms", nanos / 1_000_000.0);
+        return view;
+    }
+
+    /** Parses and compiles a document ahead of its first load (e.g. the next screen, in the background). */
+    public void preload(URL location) throws IOException {
+        if (!entries.containsKey(location.toExternalForm())) {
+            entries.putIfAbsent(location.toExternalForm(), compile(location));
+        }
+    }
+
+    /** Forgets all templates (e.g. after editing FXML files at runtime). */
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry compile(URL location) throws IOException {
+        long start = System.nanoTime();
+        Entry entry = generated(location);
+        if (entry == null) {
+            try {
+                entry = new Entry(FxmlTemplate.compile(FxmlDocument.parse(location, classLoader)), "template");
+            } catch (UnsupportedFxmlException ex) {
+                LOG.info("FXML document not compiled, loading it with FXMLLoader", "location", location, "reason", ex.getMessage());
+                entry = new Entry(null, "FXMLLoader");
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        compileNanos.add(nanos);
+        LOG.debug("FXML compiled", "location", location, "by", entry.kind, "ms", nanos / 1_000_000.0);
+        return entry;
+    }
+
+    // the class FxmlJavaCompiler generated for the document at build time, if any and up to date
+    private Entry generated(URL location) throws IOException {
+        String className = generatedClasses().get(location.toExternalForm());
+        if (className == null) {
+            return null;
+        }
+        try {
+            Class<?> generated = Class.forName(className, true, classLoader);
+            String builtFrom = (String) generated.getField(FxmlJavaCompiler.SOURCE_HASH_FIELD).get(null);
+            String current;
+            try (InputStream in = location.openStream()) {
+                current = FxmlJavaCompiler.sourceHash(in.readAllBytes());
+            }
+            if (!current.equals(builtFrom)) {
+                // a stale class would build the old document: the edited file wins
+                LOG.warn("Generated FXML class is older than its FXML file, compiling the document instead",
+                        "class", className, "location", location);
+                return null;
+            }
+            FxmlFactory factory = (FxmlFactory) generated.getDeclaredConstructor().newInstance();
+            return new Entry(factory, className);
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException ex) {
+            LOG.warn("Generated FXML class not usable, compiling the document instead", "class", className, ex);
+            return null;
+        }
+    }
+
+    private Map<String, String> generatedClasses() throws IOException {
+        Map<String, String> classes = generatedClasses;
+        if (classes == null) {
+            classes = new HashMap<>();
+            Enumeration<URL> indexes = classLoader.getResources(FxmlJavaCompiler.INDEX);
+            while (indexes.hasMoreElements()) {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(indexes.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        int eq = line.indexOf('=');
+                        URL document = eq > 0 ? classLoader.getResource(line.substring(0, eq)) : null;
+                        if (document != null) {
+                            classes.put(document.toExternalForm(), line.substring(eq + 1).trim());
+                        }
+                    }
+                }
+            }
+            generatedClasses = classes;
+        }
+        return classes;
+    }
+
+    private FxmlView loadWithFxmlLoader(URL location) throws IOException {
+        fallbackLoads.increment();
+        FXMLLoader loader = new FXMLLoader(location);
+        loader.setClassLoader(classLoader);
+        Object root = loader.load();
+        return new FxmlView(root, loader.getController(), new LinkedHashMap<>(loader.getNamespace()));
+    }
+
+    /** Counters since the cache was created. */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), fallbackLoads.sum(), generatedLoads.sum(), instantiations.sum(),
+                instantiationNanos.sum(), maxInstantiationNanos.get(), compileNanos.sum(), entries.size());
+    }
+
+    /** A snapshot of the cache counters. */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long fallbackLoads;
+        private final long generatedLoads;
+        private final long instantiations;
+        private final long instantiationNanos;
+        private final long maxInstantiationNanos;
+        private final long compileNanos;
+        private final int documents;
+
+        Stats(long hits, long misses, long fallbackLoads, long generatedLoads, long instantiations, long instantiationNanos,
+                long maxInstantiationNanos, long compileNanos, int documents) {
+            this.hits = hits;
+            this.misses = misses;
+            this.fallbackLoads = fallbackLoads;
+            this.generatedLoads = generatedLoads;
+            this.instantiations = instantiations;
+            this.instantiationNanos = instantiationNanos;
+            this.maxInstantiationNanos = maxInstantiationNanos;
+            this.compileNanos = compileNanos;
+            this.documents = documents;
+        }
+
+        /** Loads of a document that was already parsed. */
+        public long getHits() {
+            return hits;
+        }
+
+        /** First loads of a document (parsed and compiled). */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** Loads that went through FXMLLoader (unsupported documents). */
+        public long getFallbackLoads() {
+            return fallbackLoads;
+        }
+
+        /** Loads done by classes generated at build time. */
+        public long getGeneratedLoads() {
+            return generatedLoads;
+        }
+
+        public long getInstantiations() {
+            return instantiations;
+        }
+
+        public double getAverageInstantiationMillis() {
+            return instantiations == 0 ? 0 : instantiationNanos / 1_000_000.0 / instantiations;
+        }
+
+        public double getMaxInstantiationMillis() {
+            return maxInstantiationNanos / 1_000_000.0;
+        }
+
+        /** Time spent parsing and compiling documents. */
+        public double getCompileMillis() {
+            return compileNanos / 1_000_000.0;
+        }
+
+        public int getDocuments() {
+            return documents;
+        }
+
+        public double getHitRate() {
+            long loads = hits + misses;
+            return loads == 0 ? 0 : (double) hits / loads;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("fxml-cache documents=%d hits=%d misses=%d fallbackLoads=%d generatedLoads=%d"
+                    + " instantiations=%d avgMs=%.3f maxMs=%.3f compileMs=%.3f", documents, hits, misses, fallbackLoads,
+                    generatedLoads, instantiations, getAverageInstantiationMillis(), getMaxInstantiationMillis(), getCompileMillis());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.javafx.demo.fxml;
+
+import java.util.Map;
+
+/**
+ * FxmlView
+ *
+ * One loaded copy of an FXML document: its root node, its controller (or null) and the
+ * objects that have an fx:id - what FXMLLoader's getRoot(), getController() and
+ * getNamespace() return after load().
+ */
+public final class FxmlView {
+
+    private final Object root;
+    private final Object controller;
+    private final Map<String, Object> namespace;
+
+    /** Used by templates and by generated FXML classes. */
+    public FxmlView(Object root, Object controller, Map<String, Object> namespace) {
+        this.root = root;
+        this.controller = controller;
+        this.namespace = namespace;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getRoot() {
+        return (T) root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getController() {
+        return (T) controller;
+    }
+
+    /** Objects by fx:id (read-only). */
+    public Map<String, Object> getNamespace() {
+        return namespace;
+    }
+}
@@ -0,0 +1,17 @@
+package com.javafx.demo.fxml;
+
+/**
+ * UnsupportedFxmlException
+ *
+ * Thrown while compiling an FXML document that uses a feature the templates do not handle
+ * (scripts, fx:include, resource keys, ...). {@link FxmlTemplateCache} then falls back to
+ * FXMLLoader for that document.
+ */
+public class UnsupportedFxmlException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnsupportedFxmlException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,307 @@
+package com.javafx.demo.image;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * ImageService
+ *
+ * Loads images off the FX thread. {@code new Image("https://...")} in a start() method waits
+ * for the network (or fails without one) before the window even shows. With this service the
+ * ImageView gets a placeholder right away and the real image when it arrives:
+ * <pre>
+ *   ImageService.getDefault().loadInto(imageView, "https://via.placeholder.com/100x60.png");
+ * </pre>
+ *
+ * Lookup order for a URL:
+ * <ol>
+ *   <li>memory: an LRU cache bounded by decoded size (width * height * 4 bytes)</li>
+ *   <li>requests already in flight: a second request for the same URL joins the first</li>
+ *   <li>disk: content-addressed - the bytes are stored once under their SHA-256
+ *       ({@code blobs/ab/abcdef...}) and {@code urls/<sha-256 of url>} holds the content hash,
+ *       so the same picture under several URLs is stored once</li>
+ *   <li>network (or file:/jar: URLs), on a small pool of daemon threads</li>
+ * </ol>
+ *
+ * System properties used by {@link #getDefault()}:
+ *   images.cache.dir   disk cache directory (default ~/.javafx-demo/image-cache)
+ *   images.url.rewrite "from=>to" prefix rewrite, e.g. to point the demos at a
+ *                      {@link LocalImageServer}:
+ *                      -Dimages.url.rewrite=https://via.placeholder.com=>http://localhost:8089
+ */
+public class ImageService {
+
+    private static final Log LOG = Log.get(ImageService.class);
+
+    public static final String CACHE_DIR_PROPERTY = "images.cache.dir";
+    public static final String REWRITE_PROPERTY = "images.url.rewrite";
+
+    private static final long DEFAULT_MEMORY_BYTES = 64L * 1024 * 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    // ImageView property holding the URL the view is waiting for (so late answers for an old URL are ignored)
+    private static final String REQUEST_KEY = ImageService.class.getName() + ".url";
+
+    private static volatile ImageService defaultService;
+
+    private final Path cacheDir;
+    private final LruImageCache memory;
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService pool;
+    private final HttpClient http;
+    private final String rewriteFrom;
+    private final String rewriteTo;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong joinedRequests = new AtomicLong();
+
+    private final Image placeholder = filled(64, 64, Color.gray(0.88));
+    private final Image errorImage = filled(64, 64, Color.rgb(240, 200, 200));
+
+    /**
+     * @param cacheDir       disk cache directory (created if missing), or null for no disk cache
+     * @param memoryBytes    budget of the in-memory LRU cache
+     * @param threads        number of loader threads
+     * @param rewrite        optional "from=>to" URL prefix rewrite, may be null
+     */
+    public ImageService(Path cacheDir, long memoryBytes, int threads, String rewrite) {
+        this.cacheDir = cacheDir;
+        this.memory = new LruImageCache(memoryBytes);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "image-loader-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        int arrow = rewrite == null ? -1 : rewrite.indexOf("=>");
+        this.rewriteFrom = arrow < 0 ? null : rewrite.substring(0, arrow).trim();
+        this.rewriteTo = arrow < 0 ? null : rewrite.substring(arrow + 2).trim();
+    }
+
+    /** Shared instance configured from system properties (see class comment). */
+    public static ImageService getDefault() {
+        ImageService s = defaultService;
+        if (s == null) {
+            synchronized (ImageService.class) {
+                s = defaultService;
+                if (s == null) {
+                    String dir = System.getProperty(CACHE_DIR_PROPERTY);
+                    Path cache = dir != null ? Paths.get(dir)
+                            : Paths.get(System.getProperty("user.home"), ".javafx-demo", "image-cache");
+                    s = new ImageService(cache, DEFAULT_MEMORY_BYTES, 4, System.getProperty(REWRITE_PROPERTY));
+                    defaultService = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Shows the placeholder in the view now and the image once it is loaded (or a light red
+     * error image if loading fails). If the view is given another URL in the meantime, the
+     * older result is dropped. Call on the FX thread.
+     */
+    public void loadInto(ImageView view, String url) {
+        view.getProperties().put(REQUEST_KEY, url);
+        Image cached = memory.get(url);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            view.setImage(cached);
+            return;
+        }
+        view.setImage(placeholder);
+        load(url).whenComplete((image, error) -> Platform.runLater(() -> {
+            // only if the view still wants this URL
+            if (url.equals(view.getProperties().get(REQUEST_KEY))) {
+                view.setImage(error == null ? image : errorImage);
+            }
+        }));
+    }
+
+    /**
+     * Loads an image in the background. Identical concurrent requests share one download;
+     * the future completes on a loader thread.
+     */
+    public CompletableFuture<Image> load(String url) {
+        Image cached = memory.get(url);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Image> created = new CompletableFuture<>();
+        CompletableFuture<Image> existing = inFlight.putIfAbsent(url, created);
+        if (existing != null) {
+            joinedRequests.incrementAndGet();
+            return existing;
+        }
+        pool.execute(() -> {
+            try {
+                Image image = decode(fetchBytes(url));
+                memory.put(url, image);
+                created.complete(image);
+            } catch (Exception ex) {
+                LOG.warn("Could not load image", "url", url, ex);
+                created.completeExceptionally(ex);
+            } finally {
+                inFlight.remove(url, created);
+            }
+        });
+        return created;
+    }
+
+    /** Image shown while loading. */
+    public Image getPlaceholder() {
+        return placeholder;
+    }
+
+    /** Drops the memory cache (the disk cache stays). */
+    public void clearMemory() {
+        memory.clear();
+    }
+
+    /** Hits and downloads so far, e.g. "memory 12, disk 3, joined 2, downloaded 5, cached 3.1 MB". */
+    public String stats() {
+        return String.format("memory %d, disk %d, joined %d, downloaded %d, cached %.1f MB",
+                memoryHits.get(), diskHits.get(), joinedRequests.get(), downloads.get(),
+                memory.getSizeBytes() / (1024.0 * 1024.0));
+    }
+
+    // --- loader thread ---
+
+    private byte[] fetchBytes(String url) throws IOException, InterruptedException {
+        Path urlRef = cacheDir == null ? null : cacheDir.resolve("urls").resolve(sha256(url.getBytes(StandardCharsets.UTF_8)));
+        if (urlRef != null && Files.exists(urlRef)) {
+            Path blob = blobPath(new String(Files.readAllBytes(urlRef), StandardCharsets.US_ASCII).trim());
+            if (Files.exists(blob)) {
+                diskHits.incrementAndGet();
+                return Files.readAllBytes(blob);
+            }
+        }
+
+        byte[] bytes = download(rewrite(url));
+        downloads.incrementAndGet();
+
+        if (urlRef != null) {
+            try {
+                String hash = sha256(bytes);
+                Path blob = blobPath(hash);
+                if (!Files.exists(blob)) {
+                    writeAtomically(blob, bytes);
+                }
+                writeAtomically(urlRef, hash.getBytes(StandardCharsets.US_ASCII));
+            } catch (IOException ex) {
+                // the image itself is fine; only caching failed
+                LOG.warn("Could not write image cache", "dir", cacheDir, ex);
+            }
+        }
+        return bytes;
+    }
+
+    private byte[] download(String url) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme();
+        if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(TIMEOUT).GET().build();
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + url);
+            }
+            return response.body();
+        }
+        // file:, jar: and other URL schemes the JDK understands
+        try (InputStream in = uri.toURL().openStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Image decode(byte[] bytes) throws IOException {
+        // an Image built from a stream decodes synchronously, on this (loader) thread
+        Image image = new Image(new ByteArrayInputStream(bytes));
+        if (image.isError()) {
+            throw new IOException("Not a supported image", image.getException());
+        }
+        return image;
+    }
+
+    private String rewrite(String url) {
+        if (rewriteFrom != null && url.startsWith(rewriteFrom)) {
+            return rewriteTo + url.substring(rewriteFrom.length());
+        }
+        return url;
+    }
+
+    private Path blobPath(String hash) {
+        return cacheDir.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // write to a temp file and move it in place, so readers never see half a file
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "tmp", null);
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static Image filled(int w, int h, Color color) {
+        WritableImage image = new WritableImage(w, h);
+        PixelWriter pw = image.getPixelWriter();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                pw.setColor(x, y, color);
+            }
+        }
+        return image;
+    }
+}
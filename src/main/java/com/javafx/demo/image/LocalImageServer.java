@@ -0,0 +1,159 @@
+package com.javafx.demo.image;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * LocalImageServer
+ *
+ * Offline stand-in for via.placeholder.com, so the {@link ImageService} can be tried and
+ * tested without internet. Answers the same URL shapes with generated PNGs:
+ * <pre>
+ *   /300                 300 x 300
+ *   /100x60.png?text=IMG 100 x 60 with the text "IMG"
+ * </pre>
+ * Every response can be delayed to make the placeholder / swap-in behaviour visible, and
+ * requests are counted so de-duplication and caching can be checked.
+ *
+ * Run it and point the demos at it:
+ * <pre>
+ *   java com.javafx.demo.image.LocalImageServer 8089 500       (port, delay in ms)
+ *   java -Dimages.url.rewrite=https://via.placeholder.com=&gt;http://localhost:8089 ... EventHandlingDemo
+ * </pre>
+ */
+public class LocalImageServer implements AutoCloseable {
+
+    private static final Pattern SIZE = Pattern.compile("/(\\d{1,4})(?:x(\\d{1,4}))?(?:\\.png)?");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long delayMillis;
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Starts the server on the loopback interface.
+     *
+     * @param port        port to listen on, 0 for any free port
+     * @param delayMillis artificial delay before every response
+     */
+    public LocalImageServer(int port, long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "local-image-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /** e.g. http://127.0.0.1:8089 (use as the target of images.url.rewrite). */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /** Number of requests answered so far. */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        // HttpServer.stop does not shut down the executor it was given
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (HttpExchange ex = exchange) {
+            Matcher m = SIZE.matcher(ex.getRequestURI().getPath());
+            if (!m.matches()) {
+                ex.sendResponseHeaders(404, -1);
+                return;
+            }
+            int w = Math.max(1, Integer.parseInt(m.group(1)));
+            int h = m.group(2) == null ? w : Math.max(1, Integer.parseInt(m.group(2)));
+            String text = queryParameter(ex.getRequestURI().getRawQuery(), "text");
+            byte[] png = render(w, h, text != null ? text : w + " x " + h);
+
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            ex.getResponseHeaders().set("Content-Type", "image/png");
+            ex.sendResponseHeaders(200, png.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(png);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // gray box with centered text, like the placeholder service
+    private static byte[] render(int w, int h, String text) throws IOException {
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(new Color(0xcccccc));
+            g.fillRect(0, 0, w, h);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(new Color(0x969696));
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(8, Math.min(w, h) / 5)));
+            FontMetrics fm = g.getFontMetrics();
+            g.drawString(text, (w - fm.stringWidth(text)) / 2, (h - fm.getHeight()) / 2 + fm.getAscent());
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String queryParameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        long delay = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        System.setProperty("java.awt.headless", "true");
+        LocalImageServer server = new LocalImageServer(port, delay);
+        System.out.println("Serving placeholder images at " + server.getBaseUrl() + " (delay " + delay + " ms)");
+        System.out.println("Use: -D" + ImageService.REWRITE_PROPERTY + "=https://via.placeholder.com=>" + server.getBaseUrl());
+        // the server threads are daemons; keep the JVM alive until killed
+        Thread.currentThread().join();
+    }
+}
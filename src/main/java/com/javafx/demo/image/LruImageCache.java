@@ -0,0 +1,66 @@
+package com.javafx.demo.image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+
+/**
+ * LruImageCache
+ *
+ * In-memory image cache bounded by the decoded size of its images (width * height * 4 bytes),
+ * not by their count: one 4000x3000 photo weighs as much as a few thousand thumbnails.
+ * When the budget is exceeded, the least recently used images are evicted.
+ *
+ * Thread-safe; every method is short and synchronized.
+ */
+final class LruImageCache {
+
+    private final long maxBytes;
+    private long sizeBytes;
+
+    // access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+
+    LruImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Image get(String key) {
+        return images.get(key);
+    }
+
+    synchronized void put(String key, Image image) {
+        long weight = weight(image);
+        if (weight > maxBytes) {
+            return; // would evict everything else and still not fit
+        }
+        Image old = images.put(key, image);
+        if (old != null) {
+            sizeBytes -= weight(old);
+        }
+        sizeBytes += weight;
+        Iterator<Map.Entry<String, Image>> it = images.entrySet().iterator();
+        while (sizeBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Image> eldest = it.next();
+            if (eldest.getValue() != image) {
+                sizeBytes -= weight(eldest.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        images.clear();
+        sizeBytes = 0;
+    }
+
+    synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    private static long weight(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
@@ -0,0 +1,222 @@
+package com.javafx.demo.image;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * ThumbnailGallery
+ *
+ * Grid of thumbnails for a directory with thousands of images.
+ *
+ * The grid is a ListView whose items are rows of files, so only the rows on screen (plus one
+ * or two) have cells and ImageViews; the columns adapt to the width. When a cell is reused
+ * for another row, the thumbnail requests of its old row are cancelled, so scrolling quickly
+ * through 10,000 files only decodes what actually stops on screen. Decoding and caching is
+ * done by a {@link ThumbnailLoader}.
+ *
+ * Double-clicking a thumbnail calls the {@link #setOnOpen open handler} with its file.
+ */
+public class ThumbnailGallery extends VBox {
+
+    private static final int THUMB_SIZE = 128;
+    private static final int GAP = 8;
+    private static final long CACHE_BYTES = 96L * 1024 * 1024;
+    private static final String[] EXTENSIONS = { ".jpg", ".jpeg", ".png", ".gif", ".bmp" };
+
+    private final ThumbnailLoader loader = new ThumbnailLoader(THUMB_SIZE, CACHE_BYTES);
+    private final ListView<List<Path>> grid = new ListView<>();
+    private final Label status = new Label();
+
+    private List<Path> files = Collections.emptyList();
+    private int columns = 1;
+    private Consumer<Path> onOpen;
+
+    public ThumbnailGallery() {
+        super(4);
+        grid.setCellFactory(list -> new RowCell());
+        // every row has the same height, the ListView need not measure them
+        grid.setFixedCellSize(THUMB_SIZE + 30 + GAP);
+        grid.widthProperty().addListener((obs, oldW, newW) -> regroup(false));
+        VBox.setVgrow(grid, Priority.ALWAYS);
+        status.setPadding(new Insets(0, 6, 0, 6));
+        getChildren().addAll(grid, status);
+    }
+
+    /** Lists the directory in the background and shows its images. */
+    public void showDirectory(Path dir) {
+        status.setText("Reading " + dir + " ...");
+        CompletableFuture.supplyAsync(() -> listImages(dir)).whenComplete((list, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                status.setText("Cannot read " + dir + ": " + error.getCause());
+                return;
+            }
+            files = list;
+            regroup(true);
+            status.setText(String.format("%s: %,d images", dir, files.size()));
+        }));
+    }
+
+    /** Called with the file of a double-clicked thumbnail. */
+    public void setOnOpen(Consumer<Path> onOpen) {
+        this.onOpen = onOpen;
+    }
+
+    /** Loader statistics (decoded / cancelled / queued / cache size). */
+    public String stats() {
+        return loader.stats();
+    }
+
+    /** Stops the decoder threads. */
+    public void dispose() {
+        loader.dispose();
+    }
+
+    // splits the files into rows of as many thumbnails as fit the width; newFiles: files is
+    // another list than the rows were built from (rebuild, and start at the top)
+    private void regroup(boolean newFiles) {
+        double width = grid.getWidth() - 20; // room for the scroll bar
+        int newColumns = Math.max(1, (int) (width / (THUMB_SIZE + GAP)));
+        if (!newFiles && newColumns == columns) {
+            // only the width changed, and not enough for another column count
+            return;
+        }
+        // keep roughly the same files on screen
+        int firstFile = newFiles || grid.getItems().isEmpty() ? 0 : firstVisibleRow() * columns;
+        columns = newColumns;
+        List<List<Path>> rows = new ArrayList<>((files.size() + columns - 1) / columns);
+        for (int i = 0; i < files.size(); i += columns) {
+            rows.add(files.subList(i, Math.min(files.size(), i + columns)));
+        }
+        grid.getItems().setAll(rows);
+        grid.scrollTo(firstFile / columns);
+    }
+
+    // lowest row index among the cells in use (the ListView has no public API for this)
+    private int firstVisibleRow() {
+        int first = Integer.MAX_VALUE;
+        for (Node n : grid.lookupAll(".list-cell")) {
+            if (n instanceof RowCell && !((RowCell) n).isEmpty() && n.isVisible()) {
+                first = Math.min(first, ((RowCell) n).getIndex());
+            }
+        }
+        return first == Integer.MAX_VALUE ? 0 : first;
+    }
+
+    private static List<Path> listImages(Path dir) {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(p -> {
+                String name = p.getFileName().toString().toLowerCase(Locale.ROOT);
+                for (String ext : EXTENSIONS) {
+                    if (name.endsWith(ext)) {
+                        return true;
+                    }
+                }
+                return false;
+            }).sorted().collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** One row of thumbnails; reuses its tiles and cancels their requests when the row changes. */
+    private final class RowCell extends ListCell<List<Path>> {
+        private final HBox box = new HBox(GAP);
+        private final List<Tile> tiles = new ArrayList<>();
+
+        RowCell() {
+            box.setPadding(new Insets(GAP / 2.0, 0, GAP / 2.0, GAP / 2.0));
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(List<Path> row, boolean empty) {
+            super.updateItem(row, empty);
+            for (Tile tile : tiles) {
+                tile.cancel();
+            }
+            if (empty || row == null) {
+                setGraphic(null);
+                return;
+            }
+            while (tiles.size() < row.size()) {
+                tiles.add(new Tile());
+            }
+            box.getChildren().setAll(tiles.subList(0, row.size()));
+            for (int i = 0; i < row.size(); i++) {
+                tiles.get(i).show(row.get(i));
+            }
+            setGraphic(box);
+        }
+    }
+
+    /** Thumbnail + file name. */
+    private final class Tile extends VBox {
+        private final ImageView view = new ImageView();
+        private final Label name = new Label();
+        private Path file;
+        private Future<?> request;
+
+        Tile() {
+            super(2);
+            setAlignment(Pos.TOP_CENTER);
+            setPrefWidth(THUMB_SIZE);
+            setMinWidth(THUMB_SIZE);
+            view.setFitWidth(THUMB_SIZE);
+            view.setFitHeight(THUMB_SIZE);
+            view.setPreserveRatio(true);
+            name.setMaxWidth(THUMB_SIZE);
+            getChildren().addAll(view, name);
+            setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && onOpen != null && file != null) {
+                    onOpen.accept(file);
+                }
+            });
+        }
+
+        void show(Path newFile) {
+            file = newFile;
+            name.setText(newFile.getFileName().toString());
+            Image cached = loader.getCached(newFile);
+            if (cached != null) {
+                view.setImage(cached);
+                return;
+            }
+            view.setImage(null);
+            request = loader.request(newFile, image -> {
+                // the tile may show another file by now
+                if (newFile.equals(file)) {
+                    view.setImage(image);
+                }
+            });
+        }
+
+        void cancel() {
+            loader.cancel(request);
+            request = null;
+        }
+    }
+}
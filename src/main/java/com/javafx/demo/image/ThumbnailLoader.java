@@ -0,0 +1,122 @@
+package com.javafx.demo.image;
+
+import java.nio.file.Path;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+/**
+ * ThumbnailLoader
+ *
+ * Decodes image files as thumbnails on a fixed pool of worker threads (one less than the
+ * number of cores, so the FX thread keeps a core) and caches them in an LRU bounded by pixel
+ * bytes.
+ *
+ * The Image is created with the thumbnail size as requested size, so the decoder scales while
+ * decoding and only the small bitmap is kept. {@link #request} returns the Future of the decode;
+ * cancel it when the thumbnail is no longer needed (its row scrolled out of view) and the
+ * worker skips it if it has not started yet. Requests are taken newest first, so after a fast
+ * scroll the thumbnails now on screen come before the ones requested on the way.
+ */
+public class ThumbnailLoader {
+
+    private static final Log LOG = Log.get(ThumbnailLoader.class);
+
+    private final int size;
+    private final LruImageCache cache;
+    private final ThreadPoolExecutor pool;
+
+    private final AtomicLong decoded = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param size        thumbnail width and height (images keep their aspect ratio inside it)
+     * @param cacheBytes  budget of the cache in decoded pixel bytes (width * height * 4)
+     */
+    public ThumbnailLoader(int size, long cacheBytes) {
+        this.size = size;
+        this.cache = new LruImageCache(cacheBytes);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LifoQueue(), r -> {
+            Thread t = new Thread(r, "thumbnail-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            // decoding should not compete with the FX thread
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** The cached thumbnail, or null. */
+    public Image getCached(Path file) {
+        return cache.get(file.toString());
+    }
+
+    /**
+     * Decodes the thumbnail in the background and hands it to the callback on the FX thread.
+     * Cancel the returned Future if the thumbnail is not needed anymore.
+     */
+    public Future<?> request(Path file, Consumer<Image> onLoaded) {
+        String key = file.toString();
+        return pool.submit(() -> {
+            Image image = cache.get(key);
+            if (image == null) {
+                image = new Image(file.toUri().toString(), size, size, true, true, false);
+                if (image.isError()) {
+                    LOG.debug("Could not decode thumbnail", "file", file, image.getException());
+                    return;
+                }
+                cache.put(key, image);
+                decoded.incrementAndGet();
+            }
+            Image result = image;
+            Platform.runLater(() -> onLoaded.accept(result));
+        });
+    }
+
+    /** Cancels a request (null-safe) and counts it if it had not run yet. */
+    public void cancel(Future<?> request) {
+        if (request != null && !request.isDone() && request.cancel(false)) {
+            // a cancelled task stays queued until a worker takes it and finds it cancelled;
+            // drop those now and then so the queue does not fill up with them
+            if (cancelled.incrementAndGet() % 256 == 0) {
+                pool.purge();
+            }
+        }
+    }
+
+    /** e.g. "decoded 412, cancelled 1,030, queued 24, cache 38.2 MB". */
+    public String stats() {
+        return String.format("decoded %,d, cancelled %,d, queued %,d, cache %.1f MB", decoded.get(), cancelled.get(),
+                pool.getQueue().size(), cache.getSizeBytes() / (1024.0 * 1024.0));
+    }
+
+    /** Stops the workers; queued requests are dropped. */
+    public void dispose() {
+        pool.shutdownNow();
+        cache.clear();
+    }
+
+    /** Work queue that hands out the most recently added task first. */
+    private static final class LifoQueue extends LinkedBlockingDeque<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean offer(Runnable task) {
+            return offerFirst(task);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.javafx.demo.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * TiledImageSource
+ *
+ * Reads a large image file (JPEG, PNG, ...) as a pyramid of {@value #TILE_SIZE}-pixel tiles
+ * without ever decoding the whole image.
+ *
+ * Level 0 is full resolution; every level above halves width and height, up to the level at
+ * which the whole image fits in one tile. A tile is read with an ImageIO reader restricted to
+ * the tile's source region and subsampled by 2^level, so the decoder only produces the
+ * 256 x 256 pixels of that tile: a 100 megapixel photo can be shown with a few MB of tiles.
+ *
+ * The pyramid is built lazily - a tile is decoded when a viewer asks for it (and should be
+ * cached by the caller, see {@link TiledImageView}). Subsampling picks every 2^level-th pixel,
+ * which is cheaper than averaging but can alias fine patterns on zoomed-out levels.
+ *
+ * ImageReaders are not thread-safe; every thread that calls {@link #readTile} gets its own.
+ * {@link #close()} may be called while other threads are reading: a reader in use is disposed
+ * by its own thread when its current read is done, and reads after close throw IOException.
+ */
+public class TiledImageSource implements AutoCloseable {
+
+    public static final int TILE_SIZE = 256;
+
+    private final Path file;
+    private final int width;
+    private final int height;
+    private final int maxLevel;
+
+    /** A thread's reader; busy while the thread reads with it. Guarded by itself. */
+    private static final class ReaderSlot {
+        final ImageReader reader;
+        boolean busy;
+        boolean disposed;
+
+        ReaderSlot(ImageReader reader) {
+            this.reader = reader;
+        }
+    }
+
+    /** A read with the calling thread's reader. */
+    private interface Read<T> {
+        T run(ImageReader reader) throws IOException;
+    }
+
+    private final List<ReaderSlot> readers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ReaderSlot> reader = ThreadLocal.withInitial(this::openReader);
+    private volatile boolean closed;
+
+    /** Opens the file and reads its size (from the header only). */
+    public TiledImageSource(Path file) throws IOException {
+        this.file = file;
+        this.width = read(r -> r.getWidth(0));
+        this.height = read(r -> r.getHeight(0));
+        int levels = 0;
+        while ((Math.max(width, height) >> levels) > TILE_SIZE) {
+            levels++;
+        }
+        this.maxLevel = levels;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** Width of the full-resolution image. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Height of the full-resolution image. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Coarsest level; the whole image fits in one tile there. */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /** Number of tile columns at a level. */
+    public int columns(int level) {
+        int span = TILE_SIZE << level;
+        return (width + span - 1) / span;
+    }
+
+    /** Number of tile rows at a level. */
+    public int rows(int level) {
+        int span = TILE_SIZE << level;
+        return (height + span - 1) / span;
+    }
+
+    /**
+     * Decodes one tile. Covers source pixels [col * 256 * 2^level, ...) and is at most
+     * 256 x 256 pixels (smaller at the right and bottom edges).
+     */
+    public WritableImage readTile(int level, int col, int row) throws IOException {
+        int step = 1 << level;
+        int span = TILE_SIZE << level;
+        int x = col * span;
+        int y = row * span;
+        Rectangle region = new Rectangle(x, y, Math.min(span, width - x), Math.min(span, height - y));
+
+        BufferedImage tile = read(r -> {
+            ImageReadParam param = r.getDefaultReadParam();
+            param.setSourceRegion(region);
+            param.setSourceSubsampling(step, step, 0, 0);
+            return r.read(0, param);
+        });
+        return toFxImage(tile);
+    }
+
+    /**
+     * Decodes the whole image scaled to fit into maxWidth x maxHeight (by subsampling while
+     * reading, so memory is proportional to the result, not to the file).
+     */
+    public WritableImage readScaled(int maxWidth, int maxHeight) throws IOException {
+        int stepX = (width + Math.max(1, maxWidth) - 1) / Math.max(1, maxWidth);
+        int stepY = (height + Math.max(1, maxHeight) - 1) / Math.max(1, maxHeight);
+        int step = Math.max(1, Math.max(stepX, stepY));
+        BufferedImage image = read(r -> {
+            ImageReadParam param = r.getDefaultReadParam();
+            param.setSourceSubsampling(step, step, 0, 0);
+            return r.read(0, param);
+        });
+        return toFxImage(image);
+    }
+
+    /**
+     * Releases the readers of all threads. Readers that are reading right now are released by
+     * their threads when the read is done, so this never disposes a reader in use.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (ReaderSlot slot : readers) {
+            synchronized (slot) {
+                if (!slot.busy) {
+                    dispose(slot);
+                }
+            }
+        }
+    }
+
+    private <T> T read(Read<T> read) throws IOException {
+        ReaderSlot slot;
+        try {
+            slot = reader.get();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        synchronized (slot) {
+            if (closed || slot.disposed) {
+                dispose(slot);
+                throw new IOException("Image source closed: " + file);
+            }
+            slot.busy = true;
+        }
+        try {
+            return read.run(slot.reader);
+        } finally {
+            synchronized (slot) {
+                slot.busy = false;
+                if (closed) {
+                    dispose(slot);
+                }
+            }
+        }
+    }
+
+    // call while holding the slot's lock
+    private void dispose(ReaderSlot slot) {
+        if (slot.disposed) {
+            return;
+        }
+        slot.disposed = true;
+        readers.remove(slot);
+        Object input = slot.reader.getInput();
+        slot.reader.dispose();
+        if (input instanceof ImageInputStream) {
+            try {
+                ((ImageInputStream) input).close();
+            } catch (IOException ignored) {
+                // nothing useful to do on close
+            }
+        }
+    }
+
+    private ReaderSlot openReader() {
+        if (closed) {
+            throw new UncheckedIOException(new IOException("Image source closed: " + file));
+        }
+        try {
+            ImageInputStream in = ImageIO.createImageInputStream(file.toFile());
+            if (in == null) {
+                throw new IOException("Cannot open " + file);
+            }
+            Iterator<ImageReader> it = ImageIO.getImageReaders(in);
+            if (!it.hasNext()) {
+                in.close();
+                throw new IOException("Unsupported image format: " + file);
+            }
+            ImageReader r = it.next();
+            // seekForwardOnly=false: tiles are read in any order
+            r.setInput(in, false, true);
+            ReaderSlot slot = new ReaderSlot(r);
+            readers.add(slot);
+            // read() checks closed again and disposes it if close() missed it
+            return slot;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // copies the pixels into a JavaFX image (no javafx-swing dependency needed)
+    private static WritableImage toFxImage(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] argb = image.getRGB(0, 0, w, h, null, 0, w);
+        WritableImage fx = new WritableImage(w, h);
+        fx.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+        return fx;
+    }
+}
@@ -0,0 +1,292 @@
+package com.javafx.demo.image;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+
+/**
+ * TiledImageView
+ *
+ * Pan / zoom viewer for very large images, drawing tiles from a {@link TiledImageSource} onto
+ * a Canvas the size of the view.
+ *
+ *  - Drag to pan, mouse wheel to zoom around the cursor, double-click to fit.
+ *  - For the current zoom the coarsest pyramid level that still has at least one image pixel
+ *    per screen pixel is used, so the number of visible tiles stays about the same at any zoom.
+ *  - Missing tiles are decoded on two background threads and drawn when they arrive; until
+ *    then the matching part of a coarser tile is drawn stretched (the top level tile is loaded
+ *    first, so there is always something to show). A queued tile that has scrolled out of
+ *    view by the time a thread picks it up is skipped.
+ *  - Decoded tiles are kept in an LRU cache of {@value #CACHE_MB} MB.
+ *
+ * Call {@link #dispose()} when the viewer is no longer needed.
+ */
+public class TiledImageView extends Region {
+
+    private static final Log LOG = Log.get(TiledImageView.class);
+
+    private static final int CACHE_MB = 64;
+    private static final double MAX_SCALE = 8;
+
+    private final Canvas canvas = new Canvas();
+    private final LruImageCache tiles = new LruImageCache(CACHE_MB * 1024L * 1024L);
+    private final ExecutorService loaders;
+    // tiles of the current source that are queued or being decoded; a new set per source, so a
+    // tile of the old image still being decoded does not block the same tile of the new one
+    private volatile Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    private volatile TiledImageSource source;
+    // tiles the last redraw needed; loader threads skip queued tiles that are no longer in it
+    private volatile Set<String> wanted = new HashSet<>();
+    private boolean redrawPending;
+    private boolean fitPending;
+
+    // view transform: screen = (source - origin) * scale
+    private double scale = 1;
+    private double originX;
+    private double originY;
+    private int level;
+
+    private double dragX;
+    private double dragY;
+
+    public TiledImageView() {
+        getChildren().add(canvas);
+        setStyle("-fx-background-color: #303030;");
+        AtomicInteger threadNo = new AtomicInteger();
+        loaders = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "tile-loader-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
+            originX -= (e.getX() - dragX) / scale;
+            originY -= (e.getY() - dragY) / scale;
+            dragX = e.getX();
+            dragY = e.getY();
+            requestRedraw();
+        });
+        addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getClickCount() == 2) {
+                zoomToFit();
+            }
+        });
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            zoomAt(e.getX(), e.getY(), Math.pow(1.0025, e.getDeltaY()));
+            e.consume();
+        });
+    }
+
+    /**
+     * Shows another image. The previous source is closed; a tile of it that is being decoded
+     * right now finishes first (see {@link TiledImageSource#close()}) and is dropped.
+     */
+    public void setSource(TiledImageSource newSource) {
+        TiledImageSource oldSource = source;
+        source = newSource;
+        queued = ConcurrentHashMap.newKeySet();
+        if (oldSource != null) {
+            oldSource.close();
+        }
+        tiles.clear();
+        fitPending = true;
+        requestLayout();
+        // the coarsest tile first: it is the fallback for every other tile
+        int top = newSource.getMaxLevel();
+        wanted = Set.of(key(top, 0, 0));
+        queue(top, 0, 0);
+    }
+
+    public TiledImageSource getSource() {
+        return source;
+    }
+
+    /** Scales the image to fit the view and centers it. */
+    public void zoomToFit() {
+        if (source == null || getWidth() <= 0 || getHeight() <= 0) {
+            fitPending = true;
+            return;
+        }
+        fitPending = false;
+        scale = Math.min(getWidth() / source.getWidth(), getHeight() / source.getHeight());
+        originX = (source.getWidth() - getWidth() / scale) / 2;
+        originY = (source.getHeight() - getHeight() / scale) / 2;
+        requestRedraw();
+    }
+
+    /** Zooms by the factor, keeping the image point under (x, y) in place. */
+    public void zoomAt(double x, double y, double factor) {
+        if (source == null) {
+            return;
+        }
+        double fit = Math.min(getWidth() / source.getWidth(), getHeight() / source.getHeight());
+        double newScale = Math.max(fit / 4, Math.min(MAX_SCALE, scale * factor));
+        // the source point under the cursor stays under the cursor
+        originX += x / scale - x / newScale;
+        originY += y / scale - y / newScale;
+        scale = newScale;
+        requestRedraw();
+    }
+
+    /** Short status, e.g. "12% - level 3 - 3.5 MB of tiles cached". */
+    public String describe() {
+        return String.format("%.0f%% - level %d - %.1f MB of tiles cached", scale * 100, level,
+                tiles.getSizeBytes() / (1024.0 * 1024.0));
+    }
+
+    /** Stops the loader threads and closes the source (a tile being decoded finishes first). */
+    public void dispose() {
+        loaders.shutdownNow();
+        if (source != null) {
+            source.close();
+        }
+        tiles.clear();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        if (fitPending) {
+            zoomToFit();
+        }
+        redraw();
+    }
+
+    private void requestRedraw() {
+        if (!redrawPending) {
+            redrawPending = true;
+            Platform.runLater(() -> {
+                redrawPending = false;
+                redraw();
+            });
+        }
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        gc.clearRect(0, 0, w, h);
+        if (source == null) {
+            return;
+        }
+
+        // coarsest level with at least one tile pixel per screen pixel
+        level = 0;
+        while (level < source.getMaxLevel() && (1 << (level + 1)) * scale <= 1) {
+            level++;
+        }
+        int span = TiledImageSource.TILE_SIZE << level;
+        int firstCol = Math.max(0, (int) Math.floor(originX / span));
+        int firstRow = Math.max(0, (int) Math.floor(originY / span));
+        int lastCol = Math.min(source.columns(level) - 1, (int) Math.floor((originX + w / scale) / span));
+        int lastRow = Math.min(source.rows(level) - 1, (int) Math.floor((originY + h / scale) / span));
+
+        Set<String> nowWanted = new HashSet<>();
+        nowWanted.add(key(source.getMaxLevel(), 0, 0));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                String key = key(level, col, row);
+                nowWanted.add(key);
+                Image tile = tiles.get(key);
+                if (tile != null) {
+                    drawTile(gc, tile, col * span, row * span, span);
+                } else {
+                    drawFallback(gc, col * span, row * span, span);
+                }
+            }
+        }
+        wanted = nowWanted;
+        // the top tile may have been evicted from the cache
+        if (tiles.get(key(source.getMaxLevel(), 0, 0)) == null) {
+            queue(source.getMaxLevel(), 0, 0);
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (tiles.get(key(level, col, row)) == null) {
+                    queue(level, col, row);
+                }
+            }
+        }
+    }
+
+    // draws a whole tile covering source pixels (x, y) .. (x + span, y + span), clipped at the image edge
+    private void drawTile(GraphicsContext gc, Image tile, double x, double y, int span) {
+        double srcW = Math.min(span, source.getWidth() - x);
+        double srcH = Math.min(span, source.getHeight() - y);
+        gc.drawImage(tile, 0, 0, tile.getWidth(), tile.getHeight(),
+                (x - originX) * scale, (y - originY) * scale, srcW * scale, srcH * scale);
+    }
+
+    // draws the part of the closest cached coarser tile that covers the given area
+    private void drawFallback(GraphicsContext gc, double x, double y, int span) {
+        for (int l = level + 1; l <= source.getMaxLevel(); l++) {
+            int parentSpan = TiledImageSource.TILE_SIZE << l;
+            int col = (int) (x / parentSpan);
+            int row = (int) (y / parentSpan);
+            Image parent = tiles.get(key(l, col, row));
+            if (parent != null) {
+                double step = 1 << l;
+                double srcW = Math.min(span, source.getWidth() - x);
+                double srcH = Math.min(span, source.getHeight() - y);
+                double px = (x - col * parentSpan) / step;
+                double py = (y - row * parentSpan) / step;
+                gc.drawImage(parent, px, py, Math.min(srcW / step, parent.getWidth() - px), Math.min(srcH / step, parent.getHeight() - py),
+                        (x - originX) * scale, (y - originY) * scale, srcW * scale, srcH * scale);
+                return;
+            }
+        }
+    }
+
+    private void queue(int tileLevel, int col, int row) {
+        String key = key(tileLevel, col, row);
+        Set<String> sourceQueued = queued;
+        if (loaders.isShutdown() || !sourceQueued.add(key)) {
+            return;
+        }
+        TiledImageSource src = source;
+        loaders.execute(() -> {
+            try {
+                if (!wanted.contains(key) || src != source) {
+                    return; // scrolled away or another image was opened
+                }
+                Image tile = src.readTile(tileLevel, col, row);
+                if (src == source) {
+                    tiles.put(key, tile);
+                    Platform.runLater(this::requestRedraw);
+                }
+            } catch (IOException ex) {
+                // a source closed meanwhile fails its reads: not worth a warning
+                if (src == source) {
+                    LOG.warn("Could not decode tile", "file", src.getFile(), "tile", key, ex);
+                }
+            } finally {
+                sourceQueued.remove(key);
+            }
+        });
+    }
+
+    private static String key(int tileLevel, int col, int row) {
+        return tileLevel + "/" + col + "/" + row;
+    }
+}
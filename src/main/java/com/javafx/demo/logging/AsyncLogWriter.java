@@ -0,0 +1,211 @@
+package com.javafx.demo.logging;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncLogWriter
+ *
+ * The background half of {@link Log}. Callers (usually the FX thread) only capture the time,
+ * thread name, message and raw field values into an entry and put it on a lock-free
+ * {@link MpscQueue}. A single daemon thread takes entries off the queue, formats a whole batch
+ * into one StringBuilder and writes it to stdout with a single write + flush. A slow or blocked
+ * console therefore only delays this thread, never rendering.
+ *
+ * If the writer falls more than {@link #CAPACITY} entries behind, new entries are dropped
+ * (and counted) instead of growing memory without bound; the count is reported in the output.
+ *
+ * Field values whose key contains one of the redacted markers (password, secret, ...) are
+ * printed as *** - the value itself is never formatted.
+ */
+final class AsyncLogWriter {
+
+    static final int CAPACITY = 100_000;
+    private static final int MAX_BATCH = 1_000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final String REDACTED = "***";
+
+    static final AsyncLogWriter INSTANCE = new AsyncLogWriter(System.out);
+
+    /** One log call, as captured on the calling thread. Formatted later on the writer thread. */
+    private static final class Entry {
+        final long millis;
+        final Level level;
+        final String logger;
+        final String thread;
+        final String message;
+        final Object[] fields;
+
+        Entry(long millis, Level level, String logger, String thread, String message, Object[] fields) {
+            this.millis = millis;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.message = message;
+            this.fields = fields;
+        }
+    }
+
+    private final MpscQueue<Entry> queue = new MpscQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Set<String> redactedMarkers = ConcurrentHashMap.newKeySet();
+    private final PrintStream out;
+    private final Thread thread;
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+    private volatile boolean running = true;
+
+    private AsyncLogWriter(PrintStream out) {
+        this.out = out;
+        for (String marker : new String[] { "password", "passwd", "pwd", "secret", "token", "apikey" }) {
+            redactedMarkers.add(marker);
+        }
+        thread = new Thread(this::run, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        // write out whatever is still queued when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "log-writer-shutdown"));
+    }
+
+    void submit(Level level, String logger, String message, Object[] fields) {
+        if (pending.incrementAndGet() > CAPACITY) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), level, logger, Thread.currentThread().getName(), message, fields));
+    }
+
+    void addRedactedMarker(String marker) {
+        redactedMarkers.add(marker.toLowerCase(Locale.ROOT));
+    }
+
+    /** Waits (up to the timeout) until everything submitted so far has been written. */
+    void flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LockSupport.unpark(thread);
+        while (pending.get() > 0 && System.nanoTime() < deadline && thread.isAlive()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(2_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running || pending.get() > 0) {
+            int count = 0;
+            Entry entry;
+            while (count < MAX_BATCH && (entry = queue.poll()) != null) {
+                format(entry, batch);
+                count++;
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                batch.append("*** log writer fell behind, dropped ").append(lost).append(" messages\n");
+            }
+            if (batch.length() > 0) {
+                out.append(batch);
+                out.flush();
+                batch.setLength(0);
+                pending.addAndGet(-count);
+                // shrink again after a burst of very long messages
+                if (batch.capacity() > 1024 * 1024) {
+                    batch.trimToSize();
+                }
+            } else if (running) {
+                // nothing to do: sleep a little, which also lets the next batch build up
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else if (pending.get() > 0) {
+                // a producer is between offering and linking its entry; it shows up in a moment
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // HH:mm:ss.SSS LEVEL [thread] logger - message key=value ...
+    private void format(Entry e, StringBuilder sb) {
+        long local = e.millis + TimeZone.getDefault().getOffset(e.millis);
+        long msOfDay = Math.floorMod(local, 86_400_000L);
+        pad2(sb, (int) (msOfDay / 3_600_000)).append(':');
+        pad2(sb, (int) (msOfDay / 60_000 % 60)).append(':');
+        pad2(sb, (int) (msOfDay / 1_000 % 60)).append('.');
+        int ms = (int) (msOfDay % 1_000);
+        if (ms < 100) {
+            sb.append('0');
+        }
+        pad2(sb, ms);
+        sb.append(' ').append(e.level);
+        for (int i = e.level.name().length(); i < 5; i++) {
+            sb.append(' ');
+        }
+        sb.append(" [").append(e.thread).append("] ").append(e.logger).append(" - ").append(e.message);
+
+        Object[] fields = e.fields;
+        if (fields != null) {
+            int i = 0;
+            for (; i + 1 < fields.length; i += 2) {
+                String key = String.valueOf(fields[i]);
+                sb.append(' ').append(key).append('=');
+                if (isRedacted(key)) {
+                    sb.append(REDACTED);
+                } else {
+                    sb.append(fields[i + 1]);
+                }
+            }
+            // an odd trailing value is printed on its own (e.g. an exception)
+            if (i < fields.length) {
+                Object last = fields[i];
+                if (last instanceof Throwable) {
+                    sb.append('\n');
+                    appendStackTrace((Throwable) last, sb);
+                } else {
+                    sb.append(' ').append(last);
+                }
+            }
+        }
+        sb.append('\n');
+    }
+
+    private boolean isRedacted(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        for (String marker : redactedMarkers) {
+            if (lower.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder pad2(StringBuilder sb, int v) {
+        if (v < 10) {
+            sb.append('0');
+        }
+        return sb.append(v);
+    }
+
+    private static void appendStackTrace(Throwable t, StringBuilder sb) {
+        sb.append(t);
+        for (StackTraceElement element : t.getStackTrace()) {
+            sb.append("\n\tat ").append(element);
+        }
+        if (t.getCause() != null && t.getCause() != t) {
+            sb.append("\nCaused by: ");
+            appendStackTrace(t.getCause(), sb);
+        }
+    }
+}
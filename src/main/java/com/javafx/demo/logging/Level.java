@@ -0,0 +1,26 @@
+package com.javafx.demo.logging;
+
+/**
+ * Level
+ *
+ * Severity of a log message. Messages below the configured level (system property
+ * {@value Log#LEVEL_PROPERTY}, default INFO) are dropped before anything is formatted.
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    /** Parses a level name, falling back to the given default for null or unknown names. */
+    static Level parse(String name, Level fallback) {
+        if (name != null) {
+            for (Level level : values()) {
+                if (level.name().equalsIgnoreCase(name.trim())) {
+                    return level;
+                }
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,83 @@
+package com.javafx.demo.logging;
+
+/**
+ * Log
+ *
+ * Small logging facade for the demo apps, used instead of System.out.println in event handlers.
+ * A log call only checks the level and queues the raw values; formatting and writing to the
+ * console happen on a background thread (see {@link AsyncLogWriter}), so the FX thread never
+ * waits for stdout.
+ *
+ * Usage:
+ * <pre>
+ *   private static final Log LOG = Log.get(LoginController.class);
+ *   ...
+ *   LOG.info("Login attempt", "loginId", loginId, "password", pwd);   // password=***
+ *   LOG.debug("Slider value", "value", newVal.intValue());
+ * </pre>
+ *
+ * Extra details are passed as key/value pairs (not concatenated into the message), so the
+ * message is never built when the level is off, and secrets can be recognised by their key
+ * and redacted. A trailing Throwable is printed with its stack trace.
+ *
+ * The level is set with -D{@value #LEVEL_PROPERTY}=DEBUG|INFO|WARN|ERROR (default INFO).
+ */
+public final class Log {
+
+    public static final String LEVEL_PROPERTY = "log.level";
+
+    private static final Level THRESHOLD = Level.parse(System.getProperty(LEVEL_PROPERTY), Level.INFO);
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /** Logger named after the class' simple name. */
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(THRESHOLD) >= 0;
+    }
+
+    public void debug(String message, Object... fields) {
+        log(Level.DEBUG, message, fields);
+    }
+
+    public void info(String message, Object... fields) {
+        log(Level.INFO, message, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(Level.WARN, message, fields);
+    }
+
+    public void error(String message, Object... fields) {
+        log(Level.ERROR, message, fields);
+    }
+
+    public void log(Level level, String message, Object... fields) {
+        if (isEnabled(level)) {
+            AsyncLogWriter.INSTANCE.submit(level, name, message, fields);
+        }
+    }
+
+    /**
+     * Field keys containing this text (case-insensitive) are printed as ***.
+     * password, passwd, pwd, secret, token and apikey are redacted by default.
+     */
+    public static void redactFieldsContaining(String marker) {
+        AsyncLogWriter.INSTANCE.addRedactedMarker(marker);
+    }
+
+    /**
+     * Waits up to a second until everything logged so far is written, e.g. before printing
+     * directly to the console. Pending messages are also written when the JVM exits.
+     */
+    public static void flush() {
+        AsyncLogWriter.INSTANCE.flush(1_000);
+    }
+}
@@ -0,0 +1,56 @@
+package com.javafx.demo.logging;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MpscQueue
+ *
+ * Unbounded lock-free queue for many producers and a single consumer (the log writer thread).
+ *
+ * Producers swap themselves in as the new tail with one atomic getAndSet and then link the
+ * previous tail to their node; they never wait for each other or for the consumer. The
+ * consumer walks the links from its private head. Between the getAndSet and the link a node
+ * is briefly unreachable; {@link #poll()} then returns null and the consumer simply picks the
+ * node up on its next round.
+ *
+ * @param <E> element type
+ */
+final class MpscQueue<E> {
+
+    private static final class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head; // consumer only; a dummy node whose successor is the first element
+
+    MpscQueue() {
+        Node<E> dummy = new Node<>(null);
+        head = dummy;
+        tail = new AtomicReference<>(dummy);
+    }
+
+    /** Adds an element. Safe to call from any thread; never blocks. */
+    void offer(E value) {
+        Node<E> node = new Node<>(value);
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    /** Removes the oldest element, or returns null if there is none (yet). Consumer thread only. */
+    E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null; // next becomes the new dummy; don't keep the element alive
+        head = next;
+        return value;
+    }
+}
@@ -0,0 +1,126 @@
+package com.javafx.demo.replay;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * AppUnderTest
+ *
+ * Starts one of the demo applications through the normal Application.launch path
+ * (so init(), start() and getParameters() behave exactly as when run from main) and
+ * hands back its primary Stage once it is showing with a Scene.
+ *
+ * {@link #useHeadlessToolkit()} switches JavaFX to the Monocle headless platform with
+ * the software pipeline; call it before anything touches the toolkit. Monocle must be
+ * on the runtime classpath (org.testfx:openjfx-monocle).
+ */
+public final class AppUnderTest {
+
+    private AppUnderTest() {
+    }
+
+    /**
+     * Selects the Monocle headless glass platform and software rendering.
+     */
+    public static void useHeadlessToolkit() {
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("prism.text", "t2k");
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    /**
+     * Launches the application on a background thread and waits for its first showing stage.
+     */
+    public static Stage launch(Class<? extends Application> appClass, String[] args, long timeoutMillis)
+            throws InterruptedException, TimeoutException {
+        CompletableFuture<Stage> shown = new CompletableFuture<>();
+
+        Thread launcher = new Thread(() -> {
+            try {
+                Application.launch(appClass, args);
+            } catch (Throwable t) {
+                shown.completeExceptionally(t);
+            }
+        }, "app-under-test-launcher");
+        launcher.setDaemon(true);
+        launcher.start();
+
+        // the toolkit is started by launch(); retry until runLater is accepted
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            try {
+                Platform.runLater(() -> watchForStage(shown));
+                break;
+            } catch (IllegalStateException notStartedYet) {
+                if (System.currentTimeMillis() > deadline || shown.isDone()) {
+                    break;
+                }
+                Thread.sleep(10);
+            }
+        }
+
+        try {
+            return shown.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("application failed to start: " + appClass.getName(), ex.getCause());
+        }
+    }
+
+    /**
+     * Runs the action on the FX thread and waits for it to finish.
+     */
+    public static void runAndWait(Runnable action) throws InterruptedException {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                action.run();
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+        try {
+            done.get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static void watchForStage(CompletableFuture<Stage> shown) {
+        if (checkWindows(shown)) {
+            return;
+        }
+        Window.getWindows().addListener(new ListChangeListener<Window>() {
+            @Override
+            public void onChanged(Change<? extends Window> c) {
+                if (checkWindows(shown)) {
+                    Window.getWindows().removeListener(this);
+                }
+            }
+        });
+    }
+
+    private static boolean checkWindows(CompletableFuture<Stage> shown) {
+        for (Window w : Window.getWindows()) {
+            if (w instanceof Stage && w.isShowing() && w.getScene() != null) {
+                shown.complete((Stage) w);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package com.javafx.demo.replay;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.stage.Stage;
+
+/**
+ * InputRecorder
+ *
+ * Captures the MouseEvent, KeyEvent and ScrollEvent streams of a Scene, with their timing,
+ * so they can be fed back later by {@link InputReplayer}. The recorder sits in the scene's
+ * capture phase, so it sees every event before any node can consume it.
+ *
+ * Record a session of one of the demos (close the window to save):
+ * <pre>
+ *   java ... com.javafx.demo.replay.InputRecorder events.rec com.javafx.demo.fourth.EventsDemoApp
+ * </pre>
+ * Any further arguments are passed to the application (e.g. "GridPane" for NodesLayOutDemo).
+ */
+public class InputRecorder {
+
+    private final List<RecordedInput> recorded = new ArrayList<>();
+    private final EventHandler<Event> filter = this::capture;
+    private Scene scene;
+    private long startNanos;
+
+    /**
+     * Starts recording the given scene. Must be called on the FX thread.
+     */
+    public void start(Scene scene) {
+        this.scene = scene;
+        this.startNanos = System.nanoTime();
+        scene.addEventFilter(MouseEvent.ANY, filter);
+        scene.addEventFilter(KeyEvent.ANY, filter);
+        scene.addEventFilter(ScrollEvent.SCROLL, filter);
+    }
+
+    /**
+     * Stops recording. Must be called on the FX thread.
+     */
+    public void stop() {
+        if (scene != null) {
+            scene.removeEventFilter(MouseEvent.ANY, filter);
+            scene.removeEventFilter(KeyEvent.ANY, filter);
+            scene.removeEventFilter(ScrollEvent.SCROLL, filter);
+            scene = null;
+        }
+    }
+
+    public List<RecordedInput> getRecorded() {
+        return Collections.unmodifiableList(recorded);
+    }
+
+    private void capture(Event event) {
+        RecordedInput input = RecordedInput.capture(System.nanoTime() - startNanos, event);
+        if (input != null) {
+            recorded.add(input);
+        }
+    }
+
+    /**
+     * Writes the recording, one event per line.
+     */
+    public void save(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (RecordedInput input : recorded) {
+                out.write(input.toLine());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a recording written by {@link #save(Path)}.
+     */
+    public static List<RecordedInput> load(Path file) throws IOException {
+        List<RecordedInput> inputs = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    inputs.add(RecordedInput.parse(line));
+                }
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Usage: InputRecorder &lt;output file&gt; &lt;application class&gt; [application args...]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: InputRecorder <output file> <application class> [application args...]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        Class<? extends Application> appClass = Class.forName(args[1]).asSubclass(Application.class);
+        String[] appArgs = new String[args.length - 2];
+        System.arraycopy(args, 2, appArgs, 0, appArgs.length);
+
+        Stage stage = AppUnderTest.launch(appClass, appArgs, 30_000);
+        InputRecorder recorder = new InputRecorder();
+        Platform.runLater(() -> {
+            recorder.start(stage.getScene());
+            stage.setOnHidden(e -> {
+                recorder.stop();
+                try {
+                    recorder.save(output);
+                    System.out.println("Recorded " + recorder.getRecorded().size() + " events to " + output.toAbsolutePath());
+                } catch (IOException ex) {
+                    System.err.println("Could not save recording: " + ex);
+                }
+                Platform.exit();
+            });
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.javafx.demo.replay;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventTarget;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * InputReplayer
+ *
+ * Feeds a recording made by {@link InputRecorder} back into a Scene and measures how long
+ * the event dispatch (all filters and handlers along the chain) takes for every event.
+ *
+ * Two modes:
+ *  - REALTIME: keeps the recorded spacing between events, like a user would
+ *  - FAST: sends events back to back, to find the maximum throughput
+ *
+ * Run a demo headless (Monocle) and replay into it:
+ * <pre>
+ *   java ... com.javafx.demo.replay.InputReplayer events.rec fast com.javafx.demo.fourth.EventsDemoApp
+ * </pre>
+ * Set -Dreplay.headless=false to replay into a visible window instead.
+ */
+public class InputReplayer {
+
+    public enum Mode { REALTIME, FAST }
+
+    private final Scene scene;
+
+    public InputReplayer(Scene scene) {
+        this.scene = scene;
+    }
+
+    /**
+     * Replays the events and blocks until they have all been dispatched. Must not be
+     * called on the FX thread.
+     */
+    public Report replay(List<RecordedInput> inputs, Mode mode) throws InterruptedException {
+        if (Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("replay() blocks; call it from a background thread");
+        }
+        Report report = new Report(inputs.size());
+        CountDownLatch done = new CountDownLatch(inputs.size());
+        long start = System.nanoTime();
+
+        for (RecordedInput input : inputs) {
+            if (mode == Mode.REALTIME) {
+                long wait = input.getOffsetNanos() - (System.nanoTime() - start);
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+            Platform.runLater(() -> {
+                try {
+                    dispatch(input, report);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        report.wallNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void dispatch(RecordedInput input, Report report) {
+        EventTarget target = input.resolveTarget(scene);
+        if (target == null) {
+            report.skipped++;
+            return;
+        }
+        Event event = input.toEvent(target);
+        long t0 = System.nanoTime();
+        Event.fireEvent(target, event);
+        report.add(input.getEventType(), System.nanoTime() - t0);
+    }
+
+    /**
+     * Throughput and per-event dispatch cost of one replay run.
+     */
+    public static class Report {
+        private final Map<String, long[]> costsByType = new TreeMap<>();
+        private final Map<String, Integer> countsByType = new TreeMap<>();
+        private final int expected;
+        private int dispatched;
+        private int skipped;
+        private long wallNanos;
+
+        Report(int expected) {
+            this.expected = expected;
+        }
+
+        private void add(String type, long nanos) {
+            int n = countsByType.getOrDefault(type, 0);
+            long[] costs = costsByType.get(type);
+            if (costs == null || n == costs.length) {
+                costs = Arrays.copyOf(costs == null ? new long[0] : costs, Math.max(64, n * 2));
+                costsByType.put(type, costs);
+            }
+            costs[n] = nanos;
+            countsByType.put(type, n + 1);
+            dispatched++;
+        }
+
+        public int getDispatched() {
+            return dispatched;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /** Events dispatched per second of wall clock time. */
+        public double getThroughput() {
+            return wallNanos == 0 ? 0 : dispatched * 1e9 / wallNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Replayed %d of %d events (%d skipped, target not found) in %.1f ms -> %.0f events/s%n",
+                    dispatched, expected, skipped, wallNanos / 1e6, getThroughput()));
+            sb.append(String.format("%-20s %8s %10s %10s %10s %10s%n", "event type", "count", "mean us", "p50 us", "p99 us", "max us"));
+            long[] all = new long[dispatched];
+            int k = 0;
+            for (Map.Entry<String, long[]> e : costsByType.entrySet()) {
+                int n = countsByType.get(e.getKey());
+                long[] costs = Arrays.copyOf(e.getValue(), n);
+                System.arraycopy(costs, 0, all, k, n);
+                k += n;
+                sb.append(row(e.getKey(), costs));
+            }
+            sb.append(row("ALL", all));
+            return sb.toString();
+        }
+
+        private static String row(String name, long[] costs) {
+            if (costs.length == 0) {
+                return String.format("%-20s %8d%n", name, 0);
+            }
+            Arrays.sort(costs);
+            long sum = 0;
+            for (long c : costs) {
+                sum += c;
+            }
+            return String.format("%-20s %8d %10.1f %10.1f %10.1f %10.1f%n", name, costs.length,
+                    sum / 1e3 / costs.length, percentile(costs, 0.50) / 1e3, percentile(costs, 0.99) / 1e3,
+                    costs[costs.length - 1] / 1e3);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    /**
+     * Usage: InputReplayer &lt;recording&gt; &lt;fast|realtime&gt; &lt;application class&gt; [application args...]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: InputReplayer <recording> <fast|realtime> <application class> [application args...]");
+            return;
+        }
+        Path recording = Paths.get(args[0]);
+        Mode mode = Mode.valueOf(args[1].toUpperCase());
+        Class<? extends Application> appClass = Class.forName(args[2]).asSubclass(Application.class);
+        String[] appArgs = new String[args.length - 3];
+        System.arraycopy(args, 3, appArgs, 0, appArgs.length);
+        int runs = Integer.getInteger("replay.runs", 1);
+
+        if (Boolean.parseBoolean(System.getProperty("replay.headless", "true"))) {
+            AppUnderTest.useHeadlessToolkit();
+        }
+
+        List<RecordedInput> inputs = new ArrayList<>(InputRecorder.load(recording));
+        Stage stage = AppUnderTest.launch(appClass, appArgs, 30_000);
+        InputReplayer replayer = new InputReplayer(stage.getScene());
+
+        for (int run = 1; run <= runs; run++) {
+            Report report = replayer.replay(inputs, mode);
+            System.out.println("Run " + run + " (" + appClass.getSimpleName() + ", " + mode + ")");
+            System.out.println(report);
+        }
+        Platform.exit();
+    }
+}
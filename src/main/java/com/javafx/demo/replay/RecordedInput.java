@@ -0,0 +1,286 @@
+package com.javafx.demo.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.event.Event;
+import javafx.event.EventTarget;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseDragEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.PickResult;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * RecordedInput
+ *
+ * One input event captured by {@link InputRecorder}: when it happened (relative to the
+ * start of the recording), which node it targeted (as a path of child indexes from the
+ * scene root) and the event data needed to build it again.
+ *
+ * Stored as one tab separated line per event so recordings are easy to diff and edit:
+ * <pre>
+ *   offsetNanos  kind(M|K|S)  eventType  targetPath  fields...
+ * </pre>
+ */
+public class RecordedInput {
+
+    static final char MOUSE = 'M';
+    static final char KEY = 'K';
+    static final char SCROLL = 'S';
+
+    // target path of the Scene itself (events that did not hit any node)
+    static final String SCENE_PATH = "-";
+
+    private final long offsetNanos;
+    private final char kind;
+    private final String eventType;
+    private final String targetPath;
+    private final String[] fields;
+
+    private RecordedInput(long offsetNanos, char kind, String eventType, String targetPath, String[] fields) {
+        this.offsetNanos = offsetNanos;
+        this.kind = kind;
+        this.eventType = eventType;
+        this.targetPath = targetPath;
+        this.fields = fields;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    /**
+     * Captures an event seen by a scene-level filter. Returns null for events we do not replay.
+     */
+    static RecordedInput capture(long offsetNanos, Event event) {
+        if (event instanceof MouseDragEvent) {
+            // full press-drag-release events (after startFullDrag) need the gesture source of a
+            // live drag to be rebuilt; they are not raw input, so they are not recorded
+            return null;
+        }
+        String path = pathOf(event.getTarget());
+        if (event instanceof MouseEvent) {
+            MouseEvent me = (MouseEvent) event;
+            // ancestors see enter/exit as *_TARGET; record what the target itself received
+            EventType<? extends MouseEvent> type = me.getEventType();
+            if (type == MouseEvent.MOUSE_ENTERED_TARGET) {
+                type = MouseEvent.MOUSE_ENTERED;
+            } else if (type == MouseEvent.MOUSE_EXITED_TARGET) {
+                type = MouseEvent.MOUSE_EXITED;
+            }
+            return new RecordedInput(offsetNanos, MOUSE, type.getName(), path, new String[] {
+                d(me.getSceneX()), d(me.getSceneY()), d(me.getScreenX()), d(me.getScreenY()),
+                me.getButton().name(), Integer.toString(me.getClickCount()),
+                b(me.isShiftDown()), b(me.isControlDown()), b(me.isAltDown()), b(me.isMetaDown()),
+                b(me.isPrimaryButtonDown()), b(me.isMiddleButtonDown()), b(me.isSecondaryButtonDown()),
+                b(me.isSynthesized()), b(me.isPopupTrigger()), b(me.isStillSincePress())
+            });
+        }
+        if (event instanceof KeyEvent) {
+            KeyEvent ke = (KeyEvent) event;
+            return new RecordedInput(offsetNanos, KEY, ke.getEventType().getName(), path, new String[] {
+                escape(ke.getCharacter()), escape(ke.getText()), ke.getCode().name(),
+                b(ke.isShiftDown()), b(ke.isControlDown()), b(ke.isAltDown()), b(ke.isMetaDown())
+            });
+        }
+        if (event instanceof ScrollEvent && event.getEventType() == ScrollEvent.SCROLL) {
+            ScrollEvent se = (ScrollEvent) event;
+            return new RecordedInput(offsetNanos, SCROLL, se.getEventType().getName(), path, new String[] {
+                d(se.getSceneX()), d(se.getSceneY()), d(se.getScreenX()), d(se.getScreenY()),
+                b(se.isShiftDown()), b(se.isControlDown()), b(se.isAltDown()), b(se.isMetaDown()),
+                b(se.isDirect()), b(se.isInertia()),
+                d(se.getDeltaX()), d(se.getDeltaY()), d(se.getTotalDeltaX()), d(se.getTotalDeltaY()),
+                se.getTextDeltaXUnits().name(), d(se.getTextDeltaX()),
+                se.getTextDeltaYUnits().name(), d(se.getTextDeltaY()), Integer.toString(se.getTouchCount())
+            });
+        }
+        return null;
+    }
+
+    /**
+     * The node this event targeted in the given scene, or null when the path no longer exists.
+     */
+    EventTarget resolveTarget(Scene scene) {
+        if (SCENE_PATH.equals(targetPath)) {
+            return scene;
+        }
+        Node node = scene.getRoot();
+        if (!targetPath.isEmpty()) {
+            for (String index : targetPath.split("\\.")) {
+                if (!(node instanceof Parent)) {
+                    return null;
+                }
+                List<Node> children = ((Parent) node).getChildrenUnmodifiable();
+                int i = Integer.parseInt(index);
+                if (i >= children.size()) {
+                    return null;
+                }
+                node = children.get(i);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Builds the event again for the given target. Coordinates are recorded in scene space,
+     * so the event is created with a null source; dispatch converts them for each node.
+     */
+    @SuppressWarnings("unchecked")
+    Event toEvent(EventTarget target) {
+        int i = 0;
+        switch (kind) {
+            case MOUSE: {
+                EventType<MouseEvent> type = (EventType<MouseEvent>) mouseType(eventType);
+                double sceneX = pd(fields[i++]), sceneY = pd(fields[i++]);
+                double screenX = pd(fields[i++]), screenY = pd(fields[i++]);
+                MouseButton button = MouseButton.valueOf(fields[i++]);
+                int clickCount = Integer.parseInt(fields[i++]);
+                return new MouseEvent(null, target, type, sceneX, sceneY, screenX, screenY, button, clickCount,
+                        pb(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]),
+                        pb(fields[i++]), pb(fields[i++]), pb(fields[i++]),
+                        pb(fields[i++]), pb(fields[i++]), pb(fields[i++]),
+                        new PickResult(target, sceneX, sceneY));
+            }
+            case KEY: {
+                EventType<KeyEvent> type = keyType(eventType);
+                return new KeyEvent(null, target, type, unescape(fields[i++]), unescape(fields[i++]),
+                        KeyCode.valueOf(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]));
+            }
+            case SCROLL: {
+                double sceneX = pd(fields[i++]), sceneY = pd(fields[i++]);
+                double screenX = pd(fields[i++]), screenY = pd(fields[i++]);
+                return new ScrollEvent(null, target, ScrollEvent.SCROLL, sceneX, sceneY, screenX, screenY,
+                        pb(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]), pb(fields[i++]),
+                        pd(fields[i++]), pd(fields[i++]), pd(fields[i++]), pd(fields[i++]),
+                        ScrollEvent.HorizontalTextScrollUnits.valueOf(fields[i++]), pd(fields[i++]),
+                        ScrollEvent.VerticalTextScrollUnits.valueOf(fields[i++]), pd(fields[i++]),
+                        Integer.parseInt(fields[i++]), new PickResult(target, sceneX, sceneY));
+            }
+            default:
+                throw new IllegalStateException("unknown event kind " + kind);
+        }
+    }
+
+    String toLine() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(offsetNanos).append('\t').append(kind).append('\t').append(eventType).append('\t').append(targetPath);
+        for (String f : fields) {
+            sb.append('\t').append(f);
+        }
+        return sb.toString();
+    }
+
+    static RecordedInput parse(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("malformed recording line: " + line);
+        }
+        String[] fields = new String[parts.length - 4];
+        System.arraycopy(parts, 4, fields, 0, fields.length);
+        return new RecordedInput(Long.parseLong(parts[0]), parts[1].charAt(0), parts[2], parts[3], fields);
+    }
+
+    private static String pathOf(EventTarget target) {
+        if (!(target instanceof Node)) {
+            return SCENE_PATH;
+        }
+        List<Integer> indexes = new ArrayList<>();
+        Node node = (Node) target;
+        while (node.getParent() != null) {
+            Parent parent = node.getParent();
+            indexes.add(parent.getChildrenUnmodifiable().indexOf(node));
+            node = parent;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = indexes.size() - 1; i >= 0; i--) {
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            sb.append(indexes.get(i));
+        }
+        return sb.toString();
+    }
+
+    private static EventType<? extends MouseEvent> mouseType(String name) {
+        for (EventType<? extends MouseEvent> t : MOUSE_TYPES) {
+            if (t.getName().equals(name)) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("unknown mouse event type " + name);
+    }
+
+    private static EventType<KeyEvent> keyType(String name) {
+        if (KeyEvent.KEY_PRESSED.getName().equals(name)) {
+            return KeyEvent.KEY_PRESSED;
+        } else if (KeyEvent.KEY_RELEASED.getName().equals(name)) {
+            return KeyEvent.KEY_RELEASED;
+        } else if (KeyEvent.KEY_TYPED.getName().equals(name)) {
+            return KeyEvent.KEY_TYPED;
+        }
+        throw new IllegalArgumentException("unknown key event type " + name);
+    }
+
+    private static final List<EventType<? extends MouseEvent>> MOUSE_TYPES = List.of(
+            MouseEvent.MOUSE_PRESSED, MouseEvent.MOUSE_RELEASED, MouseEvent.MOUSE_CLICKED,
+            MouseEvent.MOUSE_MOVED, MouseEvent.MOUSE_DRAGGED, MouseEvent.MOUSE_ENTERED,
+            MouseEvent.MOUSE_EXITED, MouseEvent.DRAG_DETECTED);
+
+    private static String d(double v) {
+        return Double.toString(v);
+    }
+
+    private static String b(boolean v) {
+        return v ? "1" : "0";
+    }
+
+    private static double pd(String s) {
+        return Double.parseDouble(s);
+    }
+
+    private static boolean pb(String s) {
+        return "1".equals(s);
+    }
+
+    // key characters can be tabs/newlines; keep one event per line
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c == '\\' || c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 5 < s.length() && s.charAt(i + 1) == 'u') {
+                sb.append((char) Integer.parseInt(s.substring(i + 2, i + 6), 16));
+                i += 5;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
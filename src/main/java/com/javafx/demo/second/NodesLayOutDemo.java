@@ -1,7 +1,10 @@
 package com.javafx.demo.second;
 
-import javafx.application.Application;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -45,6 +48,8 @@ import java.util.Scanner;
  *   5 - StackPane
  *   6 - BorderPane
  *   7 - AnchorPane
+ *   8 - VirtualFlowPane (100,000 tiles, only the visible ones are nodes)
+ *   9 - VirtualGridPane (100,000 tiles in 4 columns)
  *
  * Java 8 compatible.
  *
@@ -52,7 +57,10 @@ import java.util.Scanner;
  *
  * Author: Pradeep (adapted)
  */
-public class NodesLayOutDemo extends Application {
+public class NodesLayOutDemo extends InstrumentedApplication {
+
+    // Number of items shown by the virtualized layouts (8 and 9)
+    private static final int VIRTUAL_TILE_COUNT = 100_000;
 
     /**
      * Console-driven main: prompt the user, then call launch with the selected layout
@@ -71,7 +79,9 @@ public class NodesLayOutDemo extends Application {
         System.out.println(" 5 - StackPane");
         System.out.println(" 6 - BorderPane");
         System.out.println(" 7 - AnchorPane");
-        System.out.print("Your choice [1..7] (default 3 - FlowPane): ");
+        System.out.println(" 8 - VirtualFlowPane (100,000 tiles)");
+        System.out.println(" 9 - VirtualGridPane (100,000 tiles)");
+        System.out.print("Your choice [1..9] (default 3 - FlowPane): ");
 
         String choice = "FlowPane";
         try {
@@ -86,6 +96,8 @@ public class NodesLayOutDemo extends Application {
                     case 5: choice = "StackPane"; break;
                     case 6: choice = "BorderPane"; break;
                     case 7: choice = "AnchorPane"; break;
+                    case 8: choice = "VirtualFlowPane"; break;
+                    case 9: choice = "VirtualGridPane"; break;
                     default:
                         System.out.println("Invalid number. Defaulting to FlowPane.");
                         choice = "FlowPane";
@@ -101,11 +113,11 @@ public class NodesLayOutDemo extends Application {
         }
 
         // Pass the chosen layout as the first argument to the JavaFX application
-        launch(new String[]{ choice });
+        StartupLauncher.launch(NodesLayOutDemo.class, choice);
     }
 
     @Override
-    public void start(Stage primaryStage) throws Exception {
+    protected void startApp(Stage primaryStage) throws Exception {
         // Read layout choice passed from main as first unnamed arg
         List<String> params = getParameters().getUnnamed();
         String layoutChoice = (params.isEmpty() ? "FlowPane" : params.get(0));
@@ -115,9 +127,25 @@ public class NodesLayOutDemo extends Application {
         // Create demo nodes (no event handling)
         List<Node> demoNodes = createDemoNodes();
 
+        // Select root layout based on user choice
+        javafx.scene.Parent root = buildLayout(layoutChoice, demoNodes);
+
+        // Create Scene and show
+        Scene scene = new Scene(root, 900, 520);
+        primaryStage.setScene(scene);
+        primaryStage.setTitle("NodesLayOutDemo - Layout: " + root.getClass().getSimpleName().toUpperCase());
+        primaryStage.show();
+    }
+
+    /**
+     * Build the root layout for a layout name ("HBox", "vbox", "flow", ... case-insensitive;
+     * unknown names give a FlowPane) around the given demo nodes.
+     * Public so the layout benchmarks (benchmarks module) measure exactly what the demo shows.
+     */
+    public static javafx.scene.Parent buildLayout(String layoutChoice, List<Node> demoNodes) {
+        layoutChoice = layoutChoice.trim().toLowerCase();
         javafx.scene.Parent root = null;
 
-        // Select root layout based on user choice
         if ("hbox".equals(layoutChoice)) {
             HBox hbox = new HBox(10); // spacing between children = 10
             // Adds 12px padding inside HBox on all sides
@@ -229,6 +257,19 @@ public class NodesLayOutDemo extends Application {
 
             root = anchor;
 
+        } else if ("virtualflowpane".equals(layoutChoice) || "virtualflow".equals(layoutChoice)) {
+            // Like the FlowPane above, but for a huge number of tiles: the items are plain
+            // Strings and only the ~100 tiles on screen are nodes (reused while scrolling)
+            VirtualFlowPane<String> flow = new VirtualFlowPane<>();
+            flow.setItems(createTileItems(VIRTUAL_TILE_COUNT));
+            root = flow;
+
+        } else if ("virtualgridpane".equals(layoutChoice) || "virtualgrid".equals(layoutChoice)) {
+            // Fixed number of columns that share the width, like a GridPane filled row by row
+            VirtualGridPane<String> grid = new VirtualGridPane<>(4);
+            grid.setItems(createTileItems(VIRTUAL_TILE_COUNT));
+            root = grid;
+
         } else {
             // fallback to FlowPane
             FlowPane flow = new FlowPane();
@@ -237,14 +278,20 @@ public class NodesLayOutDemo extends Application {
             flow.setPadding(new Insets(12));
             flow.getChildren().addAll(demoNodes);
             root = flow;
-            layoutChoice = "flowpane";
         }
 
-        // Create Scene and show
-        Scene scene = new Scene(root, 900, 520);
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("NodesLayOutDemo - Layout: " + layoutChoice.toUpperCase());
-        primaryStage.show();
+        return root;
+    }
+
+    /**
+     * Items for the virtualized layouts: just data, the tiles are created on demand.
+     */
+    private static ObservableList<String> createTileItems(int count) {
+        List<String> items = new ArrayList<String>(count);
+        for (int i = 1; i <= count; i++) {
+            items.add("Tile " + i);
+        }
+        return FXCollections.observableArrayList(items);
     }
 
     /**
@@ -253,6 +300,24 @@ public class NodesLayOutDemo extends Application {
      */
     private List<Node> createDemoNodes() {
         List<Node> nodes = new ArrayList<Node>();
+        addDemoNodes(nodes);
+        return nodes;
+    }
+
+    /**
+     * Create {@code count} demo nodes by repeating the set of createDemoNodes() (new
+     * instances every time - a node can only have one parent). Used by the benchmarks.
+     */
+    public static List<Node> createDemoNodes(int count) {
+        List<Node> nodes = new ArrayList<Node>(count + 12);
+        while (nodes.size() < count) {
+            addDemoNodes(nodes);
+        }
+        return new ArrayList<Node>(nodes.subList(0, count));
+    }
+
+    // adds one set of the demo controls
+    private static void addDemoNodes(List<Node> nodes) {
 
         Label lbl = new Label("Label: Hello World");
         TextField tf = new TextField("TextField - sample text");
@@ -299,7 +364,5 @@ public class NodesLayOutDemo extends Application {
         nodes.add(slider);
         nodes.add(progress);
         nodes.add(growBox);
-
-        return nodes;
     }
 }
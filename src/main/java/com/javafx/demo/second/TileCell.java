@@ -0,0 +1,37 @@
+package com.javafx.demo.second;
+
+import javafx.scene.control.IndexedCell;
+
+/**
+ * TileCell
+ *
+ * One tile of a {@link VirtualTilePane}. Works like a ListCell: the pane creates a few of
+ * them through its cell factory and reuses them for whatever items are on screen, calling
+ * {@link #updateItem(Object, boolean)} each time a cell gets another item.
+ *
+ * Override updateItem to show the item (call super first); the default shows toString().
+ */
+public class TileCell<T> extends IndexedCell<T> {
+
+    public TileCell() {
+        getStyleClass().add("tile-cell");
+    }
+
+    @Override
+    protected void updateItem(T item, boolean empty) {
+        super.updateItem(item, empty);
+        setText(empty || item == null ? null : item.toString());
+    }
+
+    // called by the pane when the cell is given another index / item
+    void show(int index, T item) {
+        updateIndex(index);
+        updateItem(item, false);
+    }
+
+    // called by the pane when the cell goes back to the pool
+    void clear() {
+        updateIndex(-1);
+        updateItem(null, true);
+    }
+}
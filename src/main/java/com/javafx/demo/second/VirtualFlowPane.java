@@ -0,0 +1,26 @@
+package com.javafx.demo.second;
+
+/**
+ * VirtualFlowPane
+ *
+ * Virtualized counterpart of a horizontal FlowPane whose children all have the same size:
+ * tiles of {@link #getTileWidth() tileWidth} are placed left to right and wrap to the next
+ * row when the width is used up, so the number of columns follows the width of the pane.
+ * Only the tiles on screen have nodes (see {@link VirtualTilePane}).
+ */
+public class VirtualFlowPane<T> extends VirtualTilePane<T> {
+
+    public VirtualFlowPane() {
+        getStyleClass().add("virtual-flow-pane");
+    }
+
+    @Override
+    protected int computeColumns(double contentWidth) {
+        return (int) ((contentWidth + getHgap()) / (getTileWidth() + getHgap()));
+    }
+
+    @Override
+    protected double computeColumnWidth(double contentWidth, int columnCount) {
+        return getTileWidth();
+    }
+}
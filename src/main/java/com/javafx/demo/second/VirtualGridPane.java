@@ -0,0 +1,40 @@
+package com.javafx.demo.second;
+
+/**
+ * VirtualGridPane
+ *
+ * Virtualized grid with a fixed number of columns (like a GridPane filled row by row). The
+ * columns share the width of the pane but are never narrower than
+ * {@link #getTileWidth() tileWidth} (columns that do not fit are cut off - there is no
+ * horizontal scrolling); all rows have the same height.
+ * Only the tiles on screen have nodes (see {@link VirtualTilePane}).
+ */
+public class VirtualGridPane<T> extends VirtualTilePane<T> {
+
+    private int columnCount;
+
+    public VirtualGridPane(int columnCount) {
+        getStyleClass().add("virtual-grid-pane");
+        setColumnCount(columnCount);
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public void setColumnCount(int columnCount) {
+        this.columnCount = Math.max(1, columnCount);
+        requestLayout();
+    }
+
+    @Override
+    protected int computeColumns(double contentWidth) {
+        return columnCount;
+    }
+
+    @Override
+    protected double computeColumnWidth(double contentWidth, int columns) {
+        double shared = (contentWidth - (columns - 1) * getHgap()) / columns;
+        return Math.max(getTileWidth(), shared);
+    }
+}
@@ -0,0 +1,257 @@
+package com.javafx.demo.second;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Callback;
+
+/**
+ * VirtualTilePane
+ *
+ * Base of {@link VirtualFlowPane} and {@link VirtualGridPane}: shows a list of items as rows of
+ * equally sized tiles, like a FlowPane / GridPane of nodes, but only creates nodes for the tiles
+ * that are on screen - the same idea as ListView's VirtualFlow.
+ *
+ *  - Items are plain data in an ObservableList; a cell factory creates {@link TileCell}s.
+ *  - On every layout pass the visible rows are computed from the scroll position; cells whose
+ *    item scrolled out go back to a pool and are reused for the items that scrolled in. The
+ *    number of cells stays at about (visible rows + 1) * columns, whether there are 100 or
+ *    1,000,000 items.
+ *  - Scrolling only moves the scroll bar and requests a layout, so any number of scroll
+ *    events in one frame cost one layout pass.
+ *
+ * Subclasses decide how many columns there are and how wide they are.
+ */
+public abstract class VirtualTilePane<T> extends Region {
+
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Pane sheet = new Pane();
+    private final Rectangle clip = new Rectangle();
+
+    private ObservableList<T> items = FXCollections.observableArrayList();
+    private final ListChangeListener<T> itemsListener = c -> itemsChanged();
+    private Callback<VirtualTilePane<T>, TileCell<T>> cellFactory = pane -> new TileCell<>();
+
+    private double tileWidth = 120;
+    private double tileHeight = 40;
+    private double hgap = 8;
+    private double vgap = 8;
+
+    // cells showing items, in no particular order, and the pool of unused cells
+    private final List<TileCell<T>> activeCells = new ArrayList<>();
+    private final Deque<TileCell<T>> freeCells = new ArrayDeque<>();
+    // set when the items changed: every active cell must fetch its item again
+    private boolean refreshAll;
+    private int columns = 1;
+
+    protected VirtualTilePane() {
+        getStyleClass().add("virtual-tile-pane");
+        setPadding(new Insets(8));
+        sheet.setClip(clip);
+        sheet.setManaged(false);
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setManaged(false);
+        getChildren().addAll(sheet, scrollBar);
+
+        items.addListener(itemsListener);
+        // the visible rows are recomputed in the next layout pass (at most once per frame)
+        scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> requestLayout());
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            scrollBy(-e.getDeltaY());
+            e.consume();
+        });
+    }
+
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    public void setItems(ObservableList<T> newItems) {
+        items.removeListener(itemsListener);
+        items = newItems == null ? FXCollections.observableArrayList() : newItems;
+        items.addListener(itemsListener);
+        itemsChanged();
+    }
+
+    /** Creates the cells; called only for as many cells as fit on screen. */
+    public void setCellFactory(Callback<VirtualTilePane<T>, TileCell<T>> cellFactory) {
+        this.cellFactory = cellFactory;
+        // throw away the cells made by the old factory
+        sheet.getChildren().clear();
+        activeCells.clear();
+        freeCells.clear();
+        requestLayout();
+    }
+
+    public double getTileWidth() {
+        return tileWidth;
+    }
+
+    /** Width of a tile (the minimum column width for a grid). */
+    public void setTileWidth(double tileWidth) {
+        this.tileWidth = tileWidth;
+        requestLayout();
+    }
+
+    public double getTileHeight() {
+        return tileHeight;
+    }
+
+    public void setTileHeight(double tileHeight) {
+        this.tileHeight = tileHeight;
+        requestLayout();
+    }
+
+    public void setGaps(double hgap, double vgap) {
+        this.hgap = hgap;
+        this.vgap = vgap;
+        requestLayout();
+    }
+
+    public double getHgap() {
+        return hgap;
+    }
+
+    public double getVgap() {
+        return vgap;
+    }
+
+    /** Number of columns of the last layout pass. */
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Number of cells created so far (in use or pooled). */
+    public int getCellCount() {
+        return activeCells.size() + freeCells.size();
+    }
+
+    /** Scrolls so that the item's row is at the top. */
+    public void scrollTo(int index) {
+        int row = Math.max(0, index) / Math.max(1, columns);
+        scrollBar.setValue(Math.min(scrollBar.getMax(), row * (tileHeight + vgap)));
+    }
+
+    /** Scrolls by the given number of pixels (positive = down). */
+    public void scrollBy(double pixels) {
+        scrollBar.setValue(Math.max(0, Math.min(scrollBar.getMax(), scrollBar.getValue() + pixels)));
+    }
+
+    /** How many columns fit into the given content width. */
+    protected abstract int computeColumns(double contentWidth);
+
+    /** Width of one column for the given content width and column count. */
+    protected abstract double computeColumnWidth(double contentWidth, int columnCount);
+
+    @Override
+    protected double computePrefWidth(double height) {
+        Insets in = getInsets();
+        return in.getLeft() + in.getRight() + 4 * tileWidth + 3 * hgap + scrollBar.prefWidth(-1);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        Insets in = getInsets();
+        return in.getTop() + in.getBottom() + 8 * (tileHeight + vgap);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        Insets in = getInsets();
+        double barWidth = scrollBar.prefWidth(-1);
+        double x0 = in.getLeft();
+        double y0 = in.getTop();
+        double viewWidth = Math.max(0, getWidth() - in.getLeft() - in.getRight() - barWidth);
+        double viewHeight = Math.max(0, getHeight() - in.getTop() - in.getBottom());
+
+        sheet.resizeRelocate(x0, y0, viewWidth, viewHeight);
+        clip.setWidth(viewWidth);
+        clip.setHeight(viewHeight);
+        scrollBar.resizeRelocate(getWidth() - in.getRight() - barWidth, y0, barWidth, viewHeight);
+
+        int count = items.size();
+        columns = Math.max(1, computeColumns(viewWidth));
+        double columnWidth = computeColumnWidth(viewWidth, columns);
+        double rowHeight = tileHeight + vgap;
+        int rows = (count + columns - 1) / columns;
+        double contentHeight = Math.max(0, rows * rowHeight - vgap);
+
+        scrollBar.setMax(Math.max(0, contentHeight - viewHeight));
+        scrollBar.setVisibleAmount(viewHeight);
+        scrollBar.setUnitIncrement(rowHeight);
+        scrollBar.setBlockIncrement(Math.max(rowHeight, viewHeight - rowHeight));
+        if (scrollBar.getValue() > scrollBar.getMax()) {
+            // fewer items or a larger view than before
+            scrollBar.setValue(scrollBar.getMax());
+        }
+        double offset = scrollBar.getValue();
+
+        // the items whose rows intersect the viewport
+        int firstRow = (int) Math.floor(offset / rowHeight);
+        int lastRow = (int) Math.floor((offset + viewHeight) / rowHeight);
+        int first = Math.min(count, firstRow * columns);
+        int last = Math.min(count, (lastRow + 1) * columns); // exclusive
+
+        // keep the cells that still show a visible item; the others go to the pool
+        TileCell<?>[] byIndex = new TileCell<?>[last - first];
+        for (int i = activeCells.size() - 1; i >= 0; i--) {
+            TileCell<T> cell = activeCells.get(i);
+            int index = cell.getIndex();
+            if (!refreshAll && index >= first && index < last) {
+                byIndex[index - first] = cell;
+            } else {
+                activeCells.remove(i);
+                release(cell);
+            }
+        }
+        refreshAll = false;
+
+        for (int index = first; index < last; index++) {
+            @SuppressWarnings("unchecked")
+            TileCell<T> cell = (TileCell<T>) byIndex[index - first];
+            if (cell == null) {
+                cell = obtain();
+                cell.show(index, items.get(index));
+                activeCells.add(cell);
+            }
+            int row = index / columns;
+            int column = index % columns;
+            cell.resizeRelocate(column * (columnWidth + hgap), row * rowHeight - offset, columnWidth, tileHeight);
+        }
+    }
+
+    private TileCell<T> obtain() {
+        TileCell<T> cell = freeCells.poll();
+        if (cell == null) {
+            cell = cellFactory.call(this);
+            cell.setManaged(false);
+            sheet.getChildren().add(cell);
+        }
+        cell.setVisible(true);
+        return cell;
+    }
+
+    // pooled cells stay in the scene graph, only hidden: no children list churn while scrolling
+    private void release(TileCell<T> cell) {
+        cell.clear();
+        cell.setVisible(false);
+        freeCells.push(cell);
+    }
+
+    private void itemsChanged() {
+        refreshAll = true;
+        requestLayout();
+    }
+}
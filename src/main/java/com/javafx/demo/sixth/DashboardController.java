@@ -0,0 +1,101 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+import java.util.List;
+
+import com.javafx.demo.util.LazyTitledPane;
+import com.javafx.demo.util.LazyTitledPane.ContentProvider;
+
+import javafx.fxml.FXML;
+import javafx.scene.Node;
+import javafx.scene.control.Accordion;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TitledPane;
+
+/**
+ * Controller of Dashboard.fxml.
+ *
+ * Nothing below the department headers is created up front: each department, year and section
+ * is a LazyTitledPane that builds its content when it is first expanded (students and subjects
+ * are loaded in the background meanwhile) and drops it again a while after it was collapsed.
+ * So the dashboard opens as fast with a hundred departments as with three.
+ *
+ * @author Pradeep
+ *
+ */
+public class DashboardController {
+
+	//Package-private for the DashboardFxml class generated at build time (see LoginController)
+	@FXML
+	Accordion departments;
+
+	@FXML
+	public void initialize() {
+		//One provider per department pane of the FXML; a new department is just a new pane there
+		for(TitledPane pane : departments.getPanes()) {
+			if(pane instanceof LazyTitledPane) {
+				String department = pane.getText();
+				((LazyTitledPane) pane).setContentProvider(ContentProvider.of(() -> years(department)));
+			}
+		}
+	}
+
+	//Department content: one pane per year, still empty
+	private Node years(String department) {
+		Accordion years = new Accordion();
+		for(int i = 0; i < Departments.YEARS.length; i++) {
+			int year = i + 1;
+			years.getPanes().add(lazyPane(Departments.YEARS[i], ContentProvider.of(() -> sections(department, year))));
+		}
+		return years;
+	}
+
+	//Year content: the sections, loaded when opened
+	private Node sections(String department, int year) {
+		Accordion sections = new Accordion();
+		sections.getPanes().add(lazyPane("Students", new ContentProvider<StudentIndex>() {
+			@Override
+			public StudentIndex load() {
+				//LazyTitledPane's loader thread, a progress indicator is shown meanwhile
+				return Departments.students(department, year);
+			}
+
+			@Override
+			public Node build(StudentIndex students) {
+				//Pages, sorts and filters the roster in the background too
+				return new StudentTable(students);
+			}
+		}));
+		sections.getPanes().add(lazyPane("Subjects", new ContentProvider<List<String>>() {
+			@Override
+			public List<String> load() {
+				return Departments.subjects(department, year);
+			}
+
+			@Override
+			public Node build(List<String> subjects) {
+				return list(subjects);
+			}
+		}));
+		sections.getPanes().add(lazyPane("Misc", ContentProvider.of(() -> new Label("Nothing here yet"))));
+		return sections;
+	}
+
+	private static LazyTitledPane lazyPane(String title, ContentProvider<?> provider) {
+		LazyTitledPane pane = new LazyTitledPane(title, provider);
+		pane.setAnimated(false);
+		return pane;
+	}
+
+	private static ListView<String> list(List<String> items) {
+		ListView<String> list = new ListView<>();
+		//ListView only creates cells for the visible rows, however long the list
+		list.getItems().setAll(items);
+		list.setPrefHeight(180);
+		return list;
+	}
+
+}
@@ -0,0 +1,59 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+import java.util.List;
+
+/**
+ * Departments
+ *
+ * Demo data for the dashboard: students and subjects of a department's year. Stands in for a
+ * database, so the methods are slow-ish and must not be called on the FX thread - the dashboard
+ * calls them from LazyTitledPane's background loader.
+ *
+ * @author Pradeep
+ *
+ */
+final class Departments {
+
+	static final String[] YEARS = { "1st Year", "2nd Year", "3rd Year", "4th Year" };
+
+	//each year's ids are a block of 10 million: 20000001 and up for the 2nd year
+	private static final int IDS_PER_YEAR = 10_000_000;
+
+	//-Ddashboard.students=N: students per year, clamped to one id block so years never share ids.
+	//The table pages and sorts in the background, so a million is fine
+	static final int STUDENTS_PER_YEAR = Math.max(0, Math.min(IDS_PER_YEAR,
+			Integer.getInteger("dashboard.students", 1_000_000)));
+
+	private static final String[][] SUBJECTS = {
+			{ "Mathematics I", "Physics", "Programming in C", "Engineering Graphics", "English" },
+			{ "Data Structures", "Discrete Mathematics", "Digital Logic", "Object Oriented Programming", "Statistics" },
+			{ "Operating Systems", "Databases", "Computer Networks", "Machine Learning", "Design and Analysis of Algorithms" },
+			{ "Deep Learning", "Cloud Computing", "Project Work", "Elective", "Internship" } };
+
+	private Departments() {
+	}
+
+	/** The roster of a department's year (1 to 4); the same roster every time it is loaded again. */
+	static StudentIndex students(String department, int year) {
+		simulateQuery();
+		return StudentIndex.generate(year * IDS_PER_YEAR + 1, STUDENTS_PER_YEAR, department.hashCode() * 31L + year);
+	}
+
+	/** Subjects of the year (1 to 4). */
+	static List<String> subjects(String department, int year) {
+		simulateQuery();
+		return List.of(SUBJECTS[year - 1]);
+	}
+
+	private static void simulateQuery() {
+		try {
+			Thread.sleep(150);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
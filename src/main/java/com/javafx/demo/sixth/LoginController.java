@@ -7,14 +7,16 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.sun.prism.paint.Paint;
+import com.javafx.demo.fxml.FxmlTemplateCache;
+import com.javafx.demo.logging.Log;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
@@ -27,46 +29,78 @@ import javafx.stage.Stage;
  */
 public class LoginController {
 	
+	private static final Log LOG = Log.get(LoginController.class);
 	
 	
+	//@FXML fields are package-private (not private): the LoginFxml class generated from Login.fxml
+	//at build time sets them directly, without reflection
 	@FXML
-	private TextField userName;
+	TextField userName;
 	
 	@FXML
-	private PasswordField password;
+	PasswordField password;
 	
 	@FXML
-	private Label feedBack;
+	Label feedBack;
 	
 	@FXML
-	public void login(ActionEvent event) throws IOException {
+	Button login;
+	
+	@FXML
+	public void login(ActionEvent event) {
 		String loginId = userName.getText();
-		String pwd = password.getText();
-		System.out.println("loginId is "+loginId);
-		//This is for demo purpose only never print passwords in log
-		System.out.println("password is "+pwd);
-		String pwdOfUser = MyPortal.userIdPwd.get(loginId);
-		if(pwd.equals(pwdOfUser)) {
-			System.out.println("Login Successful");
-			feedBack.setText("Login Successful, redirecting to dashboard");
-			feedBack.setTextFill(Color.GREEN);
-			Parent dashboard = FXMLLoader.load(getClass().getResource("Dashboard.fxml"));
-			Scene dashboardScene = new Scene(dashboard);
-			//Want to display Dashboard FX Scene here
-			Stage currentStage = (Stage) feedBack.getScene().getWindow();
-			currentStage.setTitle("Welcome - "+loginId);
-			currentStage.setScene(dashboardScene);
-			currentStage.show();
-		}else {
-			System.out.println("Login Failed, try again");
-			feedBack.setText("Login Failed, Try again with valid userName and Password");
+		String text = password.getText();
+		//char[] instead of String: the authenticator wipes it once the password is checked
+		char[] pwd = text == null ? new char[0] : text.toCharArray();
+		//Never print passwords in log
+		LOG.info("Login attempt", "loginId", loginId);
+		//Checking the password hash takes a while (on purpose), so it runs in the background
+		//and the window stays responsive. Disable the button so it is not clicked twice meanwhile
+		login.setDisable(true);
+		feedBack.setText("Checking...");
+		feedBack.setTextFill(Color.GRAY);
+		MyPortal.authenticator.authenticate(loginId, pwd).whenComplete((ok, error) -> Platform.runLater(() -> {
+			//back on the FX thread
+			login.setDisable(false);
+			if(error != null) {
+				LOG.error("Login check failed", "loginId", loginId, error);
+				feedBack.setText("Login could not be checked, try again");
+				feedBack.setTextFill(Color.RED);
+			}else if(ok) {
+				LOG.info("Login Successful", "loginId", loginId);
+				feedBack.setText("Login Successful, redirecting to dashboard");
+				feedBack.setTextFill(Color.GREEN);
+				showDashboard(loginId);
+			}else {
+				LOG.info("Login Failed, try again", "loginId", loginId);
+				feedBack.setText("Login Failed, Try again with valid userName and Password");
+				feedBack.setTextFill(Color.RED);
+			}
+		}));
+	}
+	
+	private void showDashboard(String loginId) {
+		Parent dashboard;
+		try {
+			//Dashboard.fxml is parsed on the first login only, later logins reuse the parsed template
+			dashboard = FxmlTemplateCache.getDefault().load(getClass().getResource("Dashboard.fxml")).getRoot();
+		} catch (IOException e) {
+			LOG.error("Cannot load dashboard", e);
+			feedBack.setText("Dashboard could not be loaded");
 			feedBack.setTextFill(Color.RED);
+			return;
 		}
+		Scene dashboardScene = new Scene(dashboard);
+		//Want to display Dashboard FX Scene here
+		Stage currentStage = (Stage) feedBack.getScene().getWindow();
+		currentStage.setTitle("Welcome - "+loginId);
+		currentStage.setScene(dashboardScene);
+		currentStage.show();
 	}
 	
 	@FXML
 	public void reset(ActionEvent event) {
-		System.out.println("In Reset");
+		LOG.info("In Reset");
 		userName.setText(null);
 		password.setText(null);
 	}
@@ -3,17 +3,18 @@
  */
 package com.javafx.demo.sixth;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 
+import com.javafx.demo.auth.Authenticator;
+import com.javafx.demo.auth.PasswordHasher;
+import com.javafx.demo.auth.UserStore;
+import com.javafx.demo.fxml.FxmlTemplateCache;
+import com.javafx.demo.logging.Log;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
 
-Java FX GUI: Java FX Scene Builder, 
-Java FX App Window Structure,
-displaying text and
-image, event handling, laying out nodes in scene graph, mouse events
-import java.util.Map;
-
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -22,34 +23,65 @@ import javafx.stage.Stage;
  * @author Pradeep
  *
  */
-public class MyPortal extends Application {
+public class MyPortal extends InstrumentedApplication {
+	
+	private static final Log LOG = Log.get(MyPortal.class);
+	
+	//Keeps only salted password hashes and checks logins on its own threads (not the FX thread)
+	static Authenticator authenticator;
 	
-	static Map<String, String> userIdPwd;
+	//Optional user directory file (-Dauth.users.file=users.db), memory-mapped: millions of users, no load time
+	private UserStore userStore;
 
 	@Override
-	public void init() {
-		System.out.println("In init");
-		userIdPwd=new HashMap<String, String>();
-		userIdPwd.put("admin", "admin123");
-		userIdPwd.put("hema", "hema123");
-		userIdPwd.put("suma", "suma123");
-		System.out.println("Size of the map is "+userIdPwd.size());
+	protected void initApp() {
+		LOG.info("In init");
+		String usersFile = System.getProperty(UserStore.FILE_PROPERTY);
+		if(usersFile!=null) {
+			try {
+				//Only opens an existing file; create test data with: java com.javafx.demo.auth.UserStore users.db 1000000
+				userStore=UserStore.openExisting(Paths.get(usersFile));
+				LOG.info("User store opened", "file", usersFile, "users", userStore.size());
+			} catch (NoSuchFileException e) {
+				LOG.error("User store file does not exist (check -D"+UserStore.FILE_PROPERTY+"), using the demo users only", "file", Paths.get(usersFile).toAbsolutePath());
+			} catch (IOException e) {
+				LOG.error("Cannot open user store, using the demo users only", "file", usersFile, e);
+			}
+		}
+		authenticator=new Authenticator(PasswordHasher.fromSystemProperties(), Runtime.getRuntime().availableProcessors(), userStore);
+		//Demo users: the passwords are hashed in the background, the plain text is not kept.
+		//A real application would load stored hashes instead, with addHashedUser
+		authenticator.addUser("admin", "admin123".toCharArray());
+		authenticator.addUser("hema", "hema123".toCharArray());
+		authenticator.addUser("suma", "suma123".toCharArray());
+		LOG.info("Users loaded", "count", authenticator.getUserCount());
 	}
 
 	@Override
-	public void start(Stage primaryStage) throws Exception {
-		Parent root = FXMLLoader.load(getClass().getResource("/com/javafx/demo/sixth/Login.fxml"));
+	protected void startApp(Stage primaryStage) throws Exception {
+		Parent root = FxmlTemplateCache.getDefault().load(getClass().getResource("/com/javafx/demo/sixth/Login.fxml")).getRoot();
 		Scene sc = new Scene(root);
 		primaryStage.setScene(sc);
 		primaryStage.show();
 
 	}
 
+	@Override
+	public void stop() {
+		if(authenticator!=null) {
+			LOG.info("Authenticator stats", "stats", authenticator.stats());
+			authenticator.shutdown();
+		}
+		if(userStore!=null) {
+			userStore.close();
+		}
+	}
+
 	/**
 	 * @param args
 	 */
 	public static void main(String[] args) {
-		launch();
+		StartupLauncher.launch(MyPortal.class, args);
 	}
 
 }
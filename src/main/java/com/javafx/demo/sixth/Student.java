@@ -0,0 +1,48 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+/**
+ * One row of the dashboard's student table. Made from a {@link StudentIndex} only for the
+ * rows on screen, and never changed.
+ *
+ * @author Pradeep
+ *
+ */
+public final class Student {
+
+	private final int id;
+	private final String name;
+	private final String city;
+	private final double cgpa;
+
+	Student(int id, String name, String city, double cgpa) {
+		this.id = id;
+		this.name = name;
+		this.city = city;
+		this.cgpa = cgpa;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getCity() {
+		return city;
+	}
+
+	public double getCgpa() {
+		return cgpa;
+	}
+
+	@Override
+	public String toString() {
+		return id + " " + name;
+	}
+
+}
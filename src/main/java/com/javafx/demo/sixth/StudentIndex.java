@@ -0,0 +1,233 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * StudentIndex
+ *
+ * A student roster stored by column in primitive arrays: ids in an int[], names and cities as
+ * short/byte codes into small dictionaries, CGPAs in hundredths in a short[]. A million students
+ * take about 11 MB and no objects; {@link Student} objects are made only for the rows shown.
+ *
+ * {@link #query(String, List)} filters and sorts on the codes alone: the filter is matched once
+ * per dictionary entry (not once per row), and the dictionaries' alphabetical ranks are
+ * precomputed, so sorting by name sorts ints, not Strings. The result is a view: row numbers in
+ * display order. Queries are slow enough for millions of rows (tens to hundreds of
+ * milliseconds) that they run in the background, see StudentTable.
+ *
+ * Never changed after it is made, so it is safe to read from any thread.
+ *
+ * @author Pradeep
+ *
+ */
+final class StudentIndex {
+
+	enum Column {
+		ID, NAME, CITY, CGPA
+	}
+
+	/** Sort by a column; the first key of a list is the primary one. */
+	static final class SortKey {
+		final Column column;
+		final boolean ascending;
+
+		SortKey(Column column, boolean ascending) {
+			this.column = column;
+			this.ascending = ascending;
+		}
+
+		@Override
+		public String toString() {
+			return column + (ascending ? " asc" : " desc");
+		}
+	}
+
+	private static final String[] FIRST_NAMES = { "Aarav", "Asha", "Bharath", "Chaitra", "Deepak", "Divya", "Ganesh",
+			"Harini", "Hema", "Irfan", "Kavya", "Kiran", "Lakshmi", "Manoj", "Meera", "Nikhil", "Nisha", "Pradeep",
+			"Priya", "Rahul", "Ravi", "Sahana", "Suma", "Tejas", "Usha", "Varun", "Vinay", "Yamini" };
+	private static final String[] LAST_NAMES = { "Acharya", "Bhat", "Gowda", "Hegde", "Iyer", "Joshi", "Kamath",
+			"Kulkarni", "Kumar", "Menon", "Naidu", "Nayak", "Pai", "Patil", "Rao", "Reddy", "Shetty", "Shenoy" };
+	private static final String[] CITIES = { "Bengaluru", "Chennai", "Hubballi", "Hyderabad", "Kochi", "Mangaluru",
+			"Mumbai", "Mysuru", "Pune", "Udupi" };
+
+	//Alphabetical rank of each name (first * LAST_NAMES.length + last) and of each city
+	private static final int[] NAME_RANKS = ranks(allNames());
+	private static final int[] CITY_RANKS = ranks(CITIES);
+
+	private final int[] ids;
+	private final short[] firstNames;
+	private final short[] lastNames;
+	private final byte[] cities;
+	private final short[] cgpas;
+
+	private StudentIndex(int size) {
+		ids = new int[size];
+		firstNames = new short[size];
+		lastNames = new short[size];
+		cities = new byte[size];
+		cgpas = new short[size];
+	}
+
+	/** A roster of random students with the ids firstId, firstId + 1, ...; the same seed gives the same roster. */
+	static StudentIndex generate(int firstId, int size, long seed) {
+		Random random = new Random(seed);
+		StudentIndex index = new StudentIndex(size);
+		for(int row = 0; row < size; row++) {
+			index.ids[row] = firstId + row;
+			index.firstNames[row] = (short) random.nextInt(FIRST_NAMES.length);
+			index.lastNames[row] = (short) random.nextInt(LAST_NAMES.length);
+			index.cities[row] = (byte) random.nextInt(CITIES.length);
+			//CGPA 4.00 to 10.00
+			index.cgpas[row] = (short) (400 + random.nextInt(601));
+		}
+		return index;
+	}
+
+	int size() {
+		return ids.length;
+	}
+
+	int id(int row) {
+		return ids[row];
+	}
+
+	Student student(int row) {
+		return new Student(ids[row], FIRST_NAMES[firstNames[row]] + " " + LAST_NAMES[lastNames[row]],
+				CITIES[cities[row]], cgpas[row] / 100.0);
+	}
+
+	/**
+	 * Row numbers of the students matching the filter, in the given order (ties in the order of
+	 * the roster). The filter matches names and cities (case-insensitive, anywhere in the text)
+	 * and, if it is a number, the start of the id; null or blank matches everyone.
+	 */
+	int[] query(String filter, List<SortKey> sort) {
+		int[] view = filter(filter);
+		//Least significant key first: each pass is stable (ties keep the order of the pass
+		//before), so the last pass, by the primary key, leaves the others in effect for ties
+		for(int k = sort.size() - 1; k >= 0; k--) {
+			view = sort(view, sort.get(k));
+		}
+		return view;
+	}
+
+	/** Position of the row in the view, or -1. */
+	static int positionOf(int[] view, int row) {
+		for(int i = 0; i < view.length; i++) {
+			if(view[i] == row) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int[] filter(String filter) {
+		String text = filter == null ? "" : filter.trim().toLowerCase(Locale.ROOT);
+		int size = size();
+		int[] view = new int[size];
+		if(text.isEmpty()) {
+			for(int row = 0; row < size; row++) {
+				view[row] = row;
+			}
+			return view;
+		}
+		//Match the dictionaries once; per row it is then two array lookups
+		boolean[] nameMatches = new boolean[FIRST_NAMES.length * LAST_NAMES.length];
+		for(int first = 0; first < FIRST_NAMES.length; first++) {
+			for(int last = 0; last < LAST_NAMES.length; last++) {
+				String name = (FIRST_NAMES[first] + " " + LAST_NAMES[last]).toLowerCase(Locale.ROOT);
+				nameMatches[first * LAST_NAMES.length + last] = name.contains(text);
+			}
+		}
+		boolean[] cityMatches = new boolean[CITIES.length];
+		for(int city = 0; city < CITIES.length; city++) {
+			cityMatches[city] = CITIES[city].toLowerCase(Locale.ROOT).contains(text);
+		}
+		int idPrefix = -1;
+		if(text.length() <= 9 && text.chars().allMatch(Character::isDigit) && text.charAt(0) != '0') {
+			idPrefix = Integer.parseInt(text);
+		}
+		int count = 0;
+		for(int row = 0; row < size; row++) {
+			if(nameMatches[firstNames[row] * LAST_NAMES.length + lastNames[row]] || cityMatches[cities[row]]
+					|| (idPrefix > 0 && startsWith(ids[row], idPrefix))) {
+				view[count++] = row;
+			}
+		}
+		return Arrays.copyOf(view, count);
+	}
+
+	//Whether the decimal digits of id start with those of prefix
+	private static boolean startsWith(int id, int prefix) {
+		while(id > prefix) {
+			id /= 10;
+		}
+		return id == prefix;
+	}
+
+	private int[] sort(int[] view, SortKey key) {
+		//One long per row: the sort value in the high half, the current position in the low
+		//half. Sorting the longs (primitives, no comparator) sorts by value, ties by position
+		long[] keys = new long[view.length];
+		for(int i = 0; i < view.length; i++) {
+			long value = value(view[i], key.column);
+			if(!key.ascending) {
+				value = Integer.MAX_VALUE - value;
+			}
+			keys[i] = value << 32 | i;
+		}
+		Arrays.parallelSort(keys);
+		int[] sorted = new int[view.length];
+		for(int i = 0; i < keys.length; i++) {
+			sorted[i] = view[(int) keys[i]];
+		}
+		return sorted;
+	}
+
+	//Non-negative, in the column's order
+	private int value(int row, Column column) {
+		switch(column) {
+		case ID:
+			return ids[row];
+		case NAME:
+			return NAME_RANKS[firstNames[row] * LAST_NAMES.length + lastNames[row]];
+		case CITY:
+			return CITY_RANKS[cities[row]];
+		case CGPA:
+			return cgpas[row];
+		default:
+			throw new IllegalArgumentException("column " + column);
+		}
+	}
+
+	private static String[] allNames() {
+		String[] names = new String[FIRST_NAMES.length * LAST_NAMES.length];
+		for(int first = 0; first < FIRST_NAMES.length; first++) {
+			for(int last = 0; last < LAST_NAMES.length; last++) {
+				names[first * LAST_NAMES.length + last] = FIRST_NAMES[first] + " " + LAST_NAMES[last];
+			}
+		}
+		return names;
+	}
+
+	private static int[] ranks(String[] values) {
+		Integer[] order = new Integer[values.length];
+		for(int i = 0; i < values.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> values[i]));
+		int[] ranks = new int[values.length];
+		for(int rank = 0; rank < order.length; rank++) {
+			ranks[order[rank]] = rank;
+		}
+		return ranks;
+	}
+
+}
@@ -0,0 +1,226 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import com.javafx.demo.logging.Log;
+import com.javafx.demo.util.PagedList;
+import com.javafx.demo.util.ThrottledValue;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * StudentTable
+ *
+ * Filter field, table and status line for a {@link StudentIndex} of any size (millions of
+ * students are fine):
+ *
+ *  - The table's items are a {@link PagedList} over a view (row numbers in display order), so
+ *    Student objects exist only for the pages on screen and next to them.
+ *  - Sorting (click a header, shift-click for more columns) and filtering do not touch the
+ *    items: the table's sort policy runs {@link StudentIndex#query} on a background thread,
+ *    and a PagedList over the new view replaces the items when it is ready. Typing in the filter field starts
+ *    a query at most every 250 ms; a query that is overtaken by a newer one is not shown.
+ *  - After a new view the selected student stays selected, and the selected row (or, if it is
+ *    off screen, the top row) stays where it was on screen, instead of jumping to the top.
+ *
+ * @author Pradeep
+ *
+ */
+final class StudentTable extends VBox {
+
+	private static final Log LOG = Log.get(StudentTable.class);
+
+	private static final int PAGE_SIZE = 100;
+
+	//One query at a time, in the order they were started
+	private static final ExecutorService QUERIES = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "student-query");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final StudentIndex index;
+	private final TableView<Student> table = new TableView<>();
+	private final TextField filter = new TextField();
+	private final ThrottledValue<String> filterText = ThrottledValue.atRate(filter.textProperty(), Duration.millis(250));
+	private final Label status = new Label();
+
+	//Row numbers of the index in display order, of the rows shown
+	private int[] view = new int[0];
+	private String shownQuery;
+	private String runningQuery;
+	private int queryNo;
+	//true while a new view is put in: the sort policy calls that causes are not queries
+	private boolean showing;
+
+	StudentTable(StudentIndex index) {
+		this.index = index;
+
+		table.getColumns().add(column("ID", StudentIndex.Column.ID, Student::getId, 90));
+		table.getColumns().add(column("Name", StudentIndex.Column.NAME, Student::getName, 160));
+		table.getColumns().add(column("City", StudentIndex.Column.CITY, Student::getCity, 100));
+		table.getColumns().add(column("CGPA", StudentIndex.Column.CGPA, s -> String.format("%.2f", s.getCgpa()), 60));
+		table.setPlaceholder(new Label("No students match"));
+		//Sorting the items would load every page: sort the index in the background instead
+		table.setSortPolicy(t -> {
+			query();
+			return true;
+		});
+		table.setPrefHeight(320);
+
+		filter.setPromptText("Filter by name, city or ID");
+		filterText.addListener((obs, oldText, newText) -> query());
+
+		setSpacing(4);
+		getChildren().addAll(filter, table, status);
+		query();
+	}
+
+	private <V> TableColumn<Student, V> column(String title, StudentIndex.Column key, Function<Student, V> value, double width) {
+		TableColumn<Student, V> column = new TableColumn<>(title);
+		//The item is null while its page is loading
+		column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue() == null ? null : value.apply(c.getValue())));
+		column.setUserData(key);
+		column.setPrefWidth(width);
+		return column;
+	}
+
+	//PagedList's loader thread
+	private List<Student> loadPage(int[] rowsInView, int from, int to) {
+		List<Student> page = new ArrayList<>(to - from);
+		for(int i = from; i < to; i++) {
+			page.add(index.student(rowsInView[i]));
+		}
+		return page;
+	}
+
+	private void query() {
+		if(showing) {
+			return;
+		}
+		String text = filterText.getValue();
+		List<StudentIndex.SortKey> sort = new ArrayList<>();
+		for(TableColumn<Student, ?> column : table.getSortOrder()) {
+			sort.add(new StudentIndex.SortKey((StudentIndex.Column) column.getUserData(),
+					column.getSortType() == TableColumn.SortType.ASCENDING));
+		}
+		String signature = (text == null ? "" : text.trim()) + "|" + sort;
+		if(signature.equals(runningQuery == null ? shownQuery : runningQuery)) {
+			//e.g. the sort policy is also called when nothing changed
+			return;
+		}
+		runningQuery = signature;
+		int no = ++queryNo;
+
+		//Where the user is now: the selected student, and a row to keep in place on screen
+		int[] oldView = view;
+		int selected = table.getSelectionModel().getSelectedIndex();
+		int first = 0;
+		int last = -1;
+		VirtualFlow<?> flow = (VirtualFlow<?>) table.lookup(".virtual-flow");
+		if(flow != null && flow.getFirstVisibleCell() != null) {
+			first = flow.getFirstVisibleCell().getIndex();
+			IndexedCell<?> lastCell = flow.getLastVisibleCell();
+			last = lastCell == null ? first : lastCell.getIndex();
+		}
+		int selectedRow = selected >= 0 && selected < oldView.length ? oldView[selected] : -1;
+		boolean selectionOnScreen = selectedRow >= 0 && selected >= first && selected <= last;
+		int anchorRow = selectionOnScreen ? selectedRow : first < oldView.length ? oldView[first] : -1;
+		int anchorOffset = selectionOnScreen ? selected - first : 0;
+		int firstBefore = first;
+
+		String sortedBy = sort.isEmpty() ? "" : ", sorted by " + sortText();
+		status.setText(oldView.length == 0 ? "Loading..." : "Updating...");
+		long start = System.nanoTime();
+		CompletableFuture.supplyAsync(() -> {
+			int[] newView = index.query(text, sort);
+			return new QueryResult(newView, StudentIndex.positionOf(newView, selectedRow), StudentIndex.positionOf(newView, anchorRow));
+		}, QUERIES).whenComplete((result, error) -> Platform.runLater(() -> {
+			if(no != queryNo) {
+				//overtaken by a newer query
+				return;
+			}
+			runningQuery = null;
+			if(error != null) {
+				LOG.error("Student query failed", "query", signature, error);
+				status.setText("Could not sort or filter: " + error.getMessage());
+				return;
+			}
+			shownQuery = signature;
+			double ms = (System.nanoTime() - start) / 1_000_000.0;
+			show(result, anchorOffset, firstBefore);
+			status.setText(String.format("%,d of %,d students%s, %.0f ms", result.view.length, index.size(), sortedBy, ms));
+			LOG.debug("Student query", "query", signature, "rows", result.view.length, "ms", ms);
+		}));
+	}
+
+	private void show(QueryResult result, int anchorOffset, int firstBefore) {
+		view = result.view;
+		int[] rowsInView = result.view;
+		//TableView clears the sort order when the items are replaced (unless they are a SortedList,
+		//which would copy all rows): put it back, the rows are sorted by it
+		List<TableColumn<Student, ?>> sortOrder = new ArrayList<>(table.getSortOrder());
+		showing = true;
+		try {
+			//New items, not new content: see PagedList
+			table.setItems(new PagedList<>((from, to) -> loadPage(rowsInView, from, to), rowsInView.length, PAGE_SIZE));
+			table.getSortOrder().setAll(sortOrder);
+		} finally {
+			showing = false;
+		}
+		if(result.selectedPosition >= 0) {
+			table.getSelectionModel().clearAndSelect(result.selectedPosition);
+		}
+		if(result.view.length == 0) {
+			return;
+		}
+		if(result.anchorPosition >= 0) {
+			table.scrollTo(Math.max(0, result.anchorPosition - anchorOffset));
+		} else {
+			//the row at the top was filtered out: stay at the same index
+			table.scrollTo(Math.min(firstBefore, result.view.length - 1));
+		}
+	}
+
+	private String sortText() {
+		StringBuilder text = new StringBuilder();
+		for(TableColumn<Student, ?> column : table.getSortOrder()) {
+			if(text.length() > 0) {
+				text.append(", ");
+			}
+			text.append(column.getText()).append(column.getSortType() == TableColumn.SortType.ASCENDING ? " asc" : " desc");
+		}
+		return text.toString();
+	}
+
+	//A new view, and where the selected student and the anchor row are in it (-1: filtered out)
+	private static final class QueryResult {
+		final int[] view;
+		final int selectedPosition;
+		final int anchorPosition;
+
+		QueryResult(int[] view, int selectedPosition, int anchorPosition) {
+			this.view = view;
+			this.selectedPosition = selectedPosition;
+			this.anchorPosition = anchorPosition;
+		}
+	}
+
+}
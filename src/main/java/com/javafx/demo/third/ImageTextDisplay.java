@@ -1,7 +1,20 @@
 package com.javafx.demo.third;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
-import javafx.application.Application;
+import com.javafx.demo.image.ImageService;
+import com.javafx.demo.image.ThumbnailGallery;
+import com.javafx.demo.image.TiledImageSource;
+import com.javafx.demo.image.TiledImageView;
+import com.javafx.demo.util.InstrumentedApplication;
+import com.javafx.demo.util.StartupLauncher;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,10 +22,14 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.text.Font;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Simple JavaFX app that displays text (label) and an image.
@@ -22,12 +39,23 @@ import javafx.stage.Stage;
  *
  * Resources: put images in src/main/resources/images/
  *
+ * "Open large image..." (or an image path as the first argument) switches to a tiled
+ * pan/zoom viewer that can show 100+ megapixel images without decoding them in full.
+ * "Gallery..." shows a folder as a grid of thumbnails (double-click one to open it).
+ *
  * Run: mvn clean javafx:run
  */
-public class ImageTextDisplay extends Application {
+public class ImageTextDisplay extends InstrumentedApplication {
+
+    // viewer for large images, when one is open
+    private TiledImageView tiledView;
+
+    // thumbnail grid of a folder, when one is open
+    private ThumbnailGallery gallery;
+    private Timeline galleryStats;
 
     @Override
-    public void start(Stage primaryStage) {
+    protected void startApp(Stage primaryStage) {
         // Top label (big title)
         Label titleLabel = new Label("Welcome to JavaFX — Image + Text Demo");
         titleLabel.setFont(Font.font(22));
@@ -35,21 +63,25 @@ public class ImageTextDisplay extends Application {
 
         // Load image from resources
         // Put your image at src/ImageTextDisplay/resources/images/sample.png
-        // Use getResourceAsStream so it works from both IDE and packaged jar
-        Image image;
-        try {
-            image = new Image(getClass().getResourceAsStream("/sample.jpg"));
-        } catch (Exception e) {
-            // fallback: if image not found, create a tiny empty image so app still runs
-            image = new Image("https://via.placeholder.com/300"); // online fallback
-        }
-
+        // Use getResource so it works from both IDE and packaged jar
         // ImageView to show the image
-        ImageView imageView = new ImageView(image);
+        ImageView imageView = new ImageView();
+        URL sample = getClass().getResource("/sample.jpg");
+        if (sample != null) {
+            // Decode at the size we show (400 wide) instead of full size + setFitWidth: the full
+            // bitmap of a big photo would otherwise stay on the heap. Loads in the background.
+            imageView.setImage(new Image(sample.toExternalForm(), 400, 0, true, true, true));
+        } else {
+            // fallback: the online placeholder, loaded in the background (placeholder shown meanwhile,
+            // cached on disk for the next start, works offline with a LocalImageServer)
+            ImageService.getDefault().loadInto(imageView, "https://via.placeholder.com/300");
+        }
         imageView.setPreserveRatio(true);
         imageView.setFitWidth(400); // scale to fit width (height auto because preserve ratio)
         imageView.setSmooth(true);// Enables smooth scaling (bilinear filtering) when the image is resized — makes it look less pixelated and more visually appealing
 
+        BorderPane root = new BorderPane();
+
         // Bottom small text label (status)
         Label statusLabel = new Label("Click the button to change title text.");
         statusLabel.setPadding(new Insets(8));
@@ -61,13 +93,45 @@ public class ImageTextDisplay extends Application {
             statusLabel.setText("You clicked the button.");
         });
 
+        // Viewer mode for very large images (100+ megapixels): the TiledImageView decodes only
+        // the 256x256 tiles on screen, at the resolution the current zoom needs
+        Button openLargeBtn = new Button("Open large image...");
+        Button simpleViewBtn = new Button("Simple view");
+        simpleViewBtn.setDisable(true);
+        openLargeBtn.setOnAction(evt -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Open image");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Images", "*.jpg", "*.jpeg", "*.png", "*.bmp", "*.gif"));
+            File file = chooser.showOpenDialog(primaryStage);
+            if (file != null) {
+                showTiled(file.toPath(), root, statusLabel);
+                simpleViewBtn.setDisable(false);
+            }
+        });
+        Button galleryBtn = new Button("Gallery...");
+        galleryBtn.setOnAction(evt -> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Image folder");
+            File dir = chooser.showDialog(primaryStage);
+            if (dir != null) {
+                showGallery(dir.toPath(), root, statusLabel);
+                simpleViewBtn.setDisable(false);
+            }
+        });
+        simpleViewBtn.setOnAction(evt -> {
+            disposeTiledView();
+            disposeGallery();
+            root.setCenter(imageView);
+            statusLabel.setText("Simple view");
+            simpleViewBtn.setDisable(true);
+        });
+
         // control box for bottom-right placement
         HBox controls = new HBox(10, changeTextBtn);
         controls.setPadding(new Insets(10));
         controls.setAlignment(Pos.CENTER_RIGHT);
 
         // Root layout - BorderPane is good for top/center/bottom layout
-        BorderPane root = new BorderPane();
         root.setTop(titleLabel);
         BorderPane.setAlignment(titleLabel, Pos.CENTER); // center the top label
         root.setCenter(imageView);
@@ -80,7 +144,7 @@ public class ImageTextDisplay extends Application {
         bottom.setSpacing(10);
         Label spacer = new Label(); // spacer will grow
         HBox.setHgrow(spacer, javafx.scene.layout.Priority.ALWAYS);
-        bottom.getChildren().addAll(statusLabel, spacer, changeTextBtn);
+        bottom.getChildren().addAll(statusLabel, spacer, galleryBtn, openLargeBtn, simpleViewBtn, changeTextBtn);
 
         root.setBottom(bottom);
 
@@ -89,10 +153,76 @@ public class ImageTextDisplay extends Application {
         primaryStage.setTitle("JavaFX Text + Image Demo");
         primaryStage.setScene(scene);
         primaryStage.show();
+
+        // an image path on the command line opens it in the tiled viewer right away
+        if (!getParameters().getRaw().isEmpty()) {
+            showTiled(Paths.get(getParameters().getRaw().get(0)), root, statusLabel);
+            simpleViewBtn.setDisable(false);
+        }
+    }
+
+    // replaces the center with a tiled pan/zoom view of the file
+    private void showTiled(Path file, BorderPane root, Label statusLabel) {
+        disposeTiledView();
+        if (galleryStats != null) {
+            galleryStats.stop();
+        }
+        try {
+            // reads only the header here; tiles are decoded in the background when visible
+            TiledImageSource source = new TiledImageSource(file);
+            tiledView = new TiledImageView();
+            tiledView.setSource(source);
+            root.setCenter(tiledView);
+            statusLabel.setText(String.format("%s: %,d x %,d px - drag to pan, wheel to zoom", file.getFileName(),
+                    source.getWidth(), source.getHeight()));
+            TiledImageView view = tiledView;
+            view.addEventHandler(ScrollEvent.SCROLL, e -> statusLabel.setText(view.describe()));
+        } catch (IOException ex) {
+            statusLabel.setText("Cannot open " + file.getFileName() + ": " + ex.getMessage());
+        }
+    }
+
+    // replaces the center with a thumbnail grid of the folder; double-click opens an image tiled
+    private void showGallery(Path dir, BorderPane root, Label statusLabel) {
+        disposeTiledView();
+        if (gallery == null) {
+            gallery = new ThumbnailGallery();
+            gallery.setOnOpen(file -> {
+                root.setCenter(null);
+                showTiled(file, root, statusLabel);
+            });
+            // show the loader's progress while the gallery is open
+            galleryStats = new Timeline(new KeyFrame(Duration.millis(500), e -> statusLabel.setText("Thumbnails: " + gallery.stats())));
+            galleryStats.setCycleCount(Timeline.INDEFINITE);
+        }
+        gallery.showDirectory(dir);
+        root.setCenter(gallery);
+        galleryStats.play();
+    }
+
+    private void disposeGallery() {
+        if (gallery != null) {
+            galleryStats.stop();
+            gallery.dispose();
+            gallery = null;
+        }
+    }
+
+    private void disposeTiledView() {
+        if (tiledView != null) {
+            tiledView.dispose();
+            tiledView = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        disposeTiledView();
+        disposeGallery();
     }
 
     public static void main(String[] args) {
-        launch(args);
+        StartupLauncher.launch(ImageTextDisplay.class, args);
     }
 }
 
@@ -0,0 +1,46 @@
+package com.javafx.demo.util;
+
+import com.javafx.demo.util.StartupProfiler.Phase;
+
+import javafx.application.Application;
+import javafx.stage.Stage;
+
+/**
+ * InstrumentedApplication
+ *
+ * Application base class that reports where startup time goes. Extend it instead of
+ * Application, put the code of init() / start() into {@link #initApp()} /
+ * {@link #startApp(Stage)}, and launch with {@link StartupLauncher#launch(Class, String...)}.
+ *
+ * The constructor (called by the toolkit once it is up), init() and start() mark their
+ * phases in the {@link StartupProfiler}, and the primary stage is watched until its first
+ * frame; then the breakdown is logged.
+ */
+public abstract class InstrumentedApplication extends Application {
+
+    protected InstrumentedApplication() {
+        StartupProfiler.setAppName(getClass().getSimpleName());
+        StartupProfiler.mark(Phase.TOOLKIT_READY);
+    }
+
+    @Override
+    public final void init() throws Exception {
+        initApp();
+        StartupProfiler.mark(Phase.INIT_DONE);
+    }
+
+    @Override
+    public final void start(Stage primaryStage) throws Exception {
+        StartupProfiler.mark(Phase.START_CALLED);
+        StartupProfiler.watch(primaryStage);
+        startApp(primaryStage);
+        StartupProfiler.mark(Phase.START_RETURNED);
+    }
+
+    /** What init() would do; runs on the launcher thread before start. Does nothing by default. */
+    protected void initApp() throws Exception {
+    }
+
+    /** What start() would do. */
+    protected abstract void startApp(Stage primaryStage) throws Exception;
+}
@@ -0,0 +1,234 @@
+package com.javafx.demo.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+
+/**
+ * LazyTitledPane
+ *
+ * A TitledPane whose content is created the first time it is expanded, and dropped again when
+ * it has been collapsed for a while. An Accordion with hundreds of these costs hundreds of
+ * headers at startup, not hundreds of contents.
+ * <pre>
+ *   LazyTitledPane students = new LazyTitledPane("Students", new LazyTitledPane.ContentProvider&lt;List&lt;String&gt;&gt;() {
+ *       public List&lt;String&gt; load() { return repository.students(year); }       // background thread
+ *       public Node build(List&lt;String&gt; names) { return new ListView&lt;&gt;(...); } // FX thread
+ *   });
+ * </pre>
+ *
+ *  - load() runs on a background thread while the pane shows a progress indicator; build()
+ *    then makes the nodes on the FX thread. A failed load shows the error and is retried on the
+ *    next expansion.
+ *  - After the pane was collapsed for {@link #releaseDelayProperty() releaseDelay} (default
+ *    60 s, INDEFINITE = keep) the content is released and rebuilt on the next expansion, so
+ *    what was opened once does not stay in memory for good. Nested lazy panes go with it.
+ *  - Lazy panes start collapsed (a plain TitledPane starts expanded, which would load at once).
+ *
+ * Can be declared in FXML like a TitledPane; set the provider from the controller. Use on the
+ * FX thread.
+ */
+public class LazyTitledPane extends TitledPane {
+
+    private static final Log LOG = Log.get(LazyTitledPane.class);
+
+    public static final Duration DEFAULT_RELEASE_DELAY = Duration.seconds(60);
+
+    /** Creates a pane's content. */
+    public interface ContentProvider<T> {
+
+        /** Loads what the content shows. Runs on a background thread: no nodes of a showing scene here. */
+        T load() throws Exception;
+
+        /** Builds the content from the loaded data. Runs on the FX thread. */
+        Node build(T data);
+
+        /** A provider without a loading step: the content is just built on the FX thread. */
+        static ContentProvider<Void> of(Supplier<? extends Node> builder) {
+            return new ContentProvider<Void>() {
+                @Override
+                public Void load() {
+                    return null;
+                }
+
+                @Override
+                public Node build(Void data) {
+                    return builder.get();
+                }
+            };
+        }
+    }
+
+    /** Where the content is. */
+    public enum State {
+        NOT_LOADED, LOADING, LOADED, FAILED
+    }
+
+    private static final AtomicInteger LOADER_THREADS = new AtomicInteger();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "lazy-content-" + LOADER_THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ObjectProperty<ContentProvider<?>> contentProvider = new SimpleObjectProperty<>(this, "contentProvider");
+    private final ObjectProperty<Duration> releaseDelay = new SimpleObjectProperty<>(this, "releaseDelay", DEFAULT_RELEASE_DELAY);
+    private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(this, "state", State.NOT_LOADED);
+    private final PauseTransition releaseTimer = new PauseTransition();
+
+    // bumped on every load and release: results of an older load are dropped
+    private int generation;
+
+    public LazyTitledPane() {
+        this(null, null);
+    }
+
+    public LazyTitledPane(String title, ContentProvider<?> provider) {
+        super(title, null);
+        setExpanded(false);
+        contentProvider.set(provider);
+        releaseTimer.setOnFinished(e -> release());
+        expandedProperty().addListener((obs, wasExpanded, expanded) -> expandedChanged(expanded));
+        contentProvider.addListener((obs, oldProvider, newProvider) -> reload());
+    }
+
+    public final ObjectProperty<ContentProvider<?>> contentProviderProperty() {
+        return contentProvider;
+    }
+
+    public final ContentProvider<?> getContentProvider() {
+        return contentProvider.get();
+    }
+
+    public final void setContentProvider(ContentProvider<?> provider) {
+        contentProvider.set(provider);
+    }
+
+    /** How long the content is kept after collapsing; Duration.INDEFINITE keeps it. */
+    public final ObjectProperty<Duration> releaseDelayProperty() {
+        return releaseDelay;
+    }
+
+    public final Duration getReleaseDelay() {
+        return releaseDelay.get();
+    }
+
+    public final void setReleaseDelay(Duration delay) {
+        releaseDelay.set(delay);
+    }
+
+    public final ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    public final State getState() {
+        return state.get();
+    }
+
+    /** Drops the content and, if the pane is expanded, loads it again. */
+    public void reload() {
+        release();
+        if (isExpanded()) {
+            load();
+        }
+    }
+
+    /** Drops the content now; it is created again on the next expansion. */
+    public void release() {
+        releaseTimer.stop();
+        generation++;
+        if (state.get() != State.NOT_LOADED) {
+            setContent(null);
+            state.set(State.NOT_LOADED);
+            LOG.debug("Content released", "pane", getText());
+        }
+    }
+
+    private void expandedChanged(boolean expanded) {
+        if (expanded) {
+            releaseTimer.stop();
+            if (state.get() == State.NOT_LOADED || state.get() == State.FAILED) {
+                load();
+            }
+        } else if (state.get() != State.NOT_LOADED) {
+            Duration delay = getReleaseDelay();
+            if (delay != null && !delay.isIndefinite()) {
+                releaseTimer.setDuration(delay);
+                releaseTimer.playFromStart();
+            }
+        }
+    }
+
+    private void load() {
+        ContentProvider<?> provider = getContentProvider();
+        if (provider == null) {
+            return;
+        }
+        int loadGeneration = ++generation;
+        state.set(State.LOADING);
+        setContent(placeholder());
+        start(provider, loadGeneration);
+    }
+
+    private <T> void start(ContentProvider<T> provider, int loadGeneration) {
+        long startNanos = System.nanoTime();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return provider.load();
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, LOADER).whenComplete((data, error) -> Platform.runLater(() -> {
+            if (loadGeneration != generation) {
+                // released (or reloaded) while loading
+                return;
+            }
+            Node content = null;
+            Throwable failure = error instanceof CompletionException ? error.getCause() : error;
+            if (failure == null) {
+                try {
+                    content = provider.build(data);
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+            }
+            if (failure != null) {
+                LOG.warn("Loading pane content failed", "pane", getText(), failure);
+                Label message = new Label("Could not load: " + failure.getMessage());
+                message.setWrapText(true);
+                setContent(message);
+                state.set(State.FAILED);
+                return;
+            }
+            setContent(content);
+            state.set(State.LOADED);
+            LOG.debug("Content loaded", "pane", getText(), "ms", (System.nanoTime() - startNanos) / 1_000_000.0);
+        }));
+    }
+
+    private static Node placeholder() {
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(40, 40);
+        StackPane box = new StackPane(progress);
+        box.setMinHeight(80);
+        return box;
+    }
+}
@@ -0,0 +1,193 @@
+package com.javafx.demo.util;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+/**
+ * PagedList
+ *
+ * A read-only ObservableList of a fixed size whose elements are loaded a page at a time, in
+ * the background, when they are first asked for. Made for TableView and ListView: they only call
+ * get() for the rows on screen, so only those pages (and a few around them) are ever loaded,
+ * whether the list has a thousand rows or ten million.
+ * <pre>
+ *   table.setItems(new PagedList&lt;&gt;((from, to) -&gt; repository.students(from, to), repository.count(), 100));
+ * </pre>
+ *
+ *  - get() of a row that is not loaded yet returns null (cells show empty) and starts loading
+ *    its page; when the page arrives an update change is fired for its rows, and the cells
+ *    show them. Cell factories must expect null items.
+ *  - The pages next to the one asked for are loaded too, so scrolling rarely shows empty rows.
+ *  - Only the most recently used pages are kept (default 50); older ones are loaded again when
+ *    needed.
+ *  - For other rows (sorted or filtered again) set a new PagedList as the items. Changing this
+ *    one's content would fire a change whose added elements TableView reads - all of them.
+ *  - indexOf(), lastIndexOf() and contains() only search the loaded pages (TableView looks for
+ *    the selected item in new items; searching everything would load every page). Iterating
+ *    still walks, and loads, every element.
+ *
+ * Use on the FX thread. The loader runs on a small pool of daemon threads.
+ *
+ * @param <T> element type
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    private static final Log LOG = Log.get(PagedList.class);
+
+    /** Loads a page. */
+    public interface PageLoader<T> {
+
+        /** Elements from (inclusive) to (exclusive). Runs on a background thread. */
+        List<T> load(int from, int to) throws Exception;
+    }
+
+    private static final AtomicInteger LOADER_THREADS = new AtomicInteger();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "paged-list-" + LOADER_THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final int maxPages;
+    private final int prefetchPages;
+
+    // access order: the eldest entry is the least recently used page
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private final int size;
+    private long pageLoads;
+
+    public PagedList(PageLoader<T> loader, int size, int pageSize) {
+        this(loader, size, pageSize, 50, 1);
+    }
+
+    /**
+     * @param maxPages      pages kept in memory
+     * @param prefetchPages pages loaded on either side of a page that is asked for
+     */
+    public PagedList(PageLoader<T> loader, int size, int pageSize, int maxPages, int prefetchPages) {
+        if (size < 0 || pageSize < 1 || maxPages < 1 + 2 * prefetchPages) {
+            throw new IllegalArgumentException("size " + size + ", pageSize " + pageSize + ", maxPages " + maxPages + ", prefetchPages " + prefetchPages);
+        }
+        this.loader = loader;
+        this.size = size;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.prefetchPages = prefetchPages;
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedList.this.maxPages;
+            }
+        };
+    }
+
+    /** The element, or null while its page is loading. */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        int page = index / pageSize;
+        List<T> elements = pages.get(page);
+        for (int p = page - prefetchPages; p <= page + prefetchPages; p++) {
+            request(p);
+        }
+        return elements == null ? null : elements.get(index - page * pageSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Index of the element among the loaded ones, or -1. Does not load anything. */
+    @Override
+    public int indexOf(Object element) {
+        int found = -1;
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            int i = page.getValue().indexOf(element);
+            if (i >= 0 && (found < 0 || page.getKey() * pageSize + i < found)) {
+                found = page.getKey() * pageSize + i;
+            }
+        }
+        return found;
+    }
+
+    /** Last index of the element among the loaded ones, or -1. Does not load anything. */
+    @Override
+    public int lastIndexOf(Object element) {
+        int found = -1;
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            int i = page.getValue().lastIndexOf(element);
+            if (i >= 0) {
+                found = Math.max(found, page.getKey() * pageSize + i);
+            }
+        }
+        return found;
+    }
+
+    /** Whether the element is among the loaded ones. Does not load anything. */
+    @Override
+    public boolean contains(Object element) {
+        return indexOf(element) >= 0;
+    }
+
+    /** Whether the element is loaded (without loading it). */
+    public boolean isLoaded(int index) {
+        return pages.containsKey(index / pageSize);
+    }
+
+    /** Number of pages loaded so far, for statistics. */
+    public long getPageLoads() {
+        return pageLoads;
+    }
+
+    private void request(int page) {
+        int from = page * pageSize;
+        if (page < 0 || from >= size || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        int to = Math.min(size, from + pageSize);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load(from, to);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }, LOADER).whenComplete((elements, error) -> Platform.runLater(() -> {
+            loading.remove(page);
+            if (error != null) {
+                // not kept: the next get() of the page tries again
+                LOG.warn("Loading page failed", "from", from, "to", to, error);
+                return;
+            }
+            if (elements.size() != to - from) {
+                LOG.warn("Page has the wrong size, dropped", "from", from, "to", to, "size", elements.size());
+                return;
+            }
+            pages.put(page, elements);
+            pageLoads++;
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }));
+    }
+}
@@ -0,0 +1,190 @@
+package com.javafx.demo.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * SceneRegistry
+ *
+ * Screens of an application by name, each built the first time it is shown instead of all of
+ * them up front, so startup does not grow with the number of screens.
+ *
+ * <pre>
+ *   SceneRegistry scenes = new SceneRegistry(stage, 600, 400);
+ *   scenes.register("login", this::createLogin, "dashboard");
+ *   scenes.register("dashboard", this::createDashboard, "settings");
+ *   scenes.show("login");
+ * </pre>
+ *
+ *  - A screen is a factory for its root node. The Scene is created on first show and cached.
+ *  - The last argument of register() names the screens likely to come next. After a screen is
+ *    shown, those are prebuilt on a background thread: a node graph that is not attached to a
+ *    showing window may be built on any thread. When the user gets there, only the Scene
+ *    (and its first CSS pass, on the FX thread) is left to do.
+ *  - {@link #setMaxCachedScenes(int)} bounds the cache (least recently shown screens are
+ *    dropped and rebuilt when needed - with fresh state). Unbounded by default.
+ *
+ * Factories must not touch showing nodes (they may run off the FX thread). Use the
+ * registry itself on the FX thread only.
+ */
+public class SceneRegistry {
+
+    private static final Log LOG = Log.get(SceneRegistry.class);
+
+    private final Stage stage;
+    private final double width;
+    private final double height;
+
+    private final Map<String, Supplier<? extends Parent>> factories = new HashMap<>();
+    private final Map<String, List<String>> likelyNext = new HashMap<>();
+    // access order: the first entry is the least recently shown screen
+    private final LinkedHashMap<String, Scene> scenes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Parent>> prebuilding = new HashMap<>();
+    private final ExecutorService prebuilder;
+
+    private int maxCachedScenes;
+    private String current;
+
+    public SceneRegistry(Stage stage, double width, double height) {
+        this.stage = stage;
+        this.width = width;
+        this.height = height;
+        this.prebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "scene-prebuilder");
+            t.setDaemon(true);
+            // prebuilding is speculative; the FX thread comes first
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Registers a screen.
+     *
+     * @param name        name used with {@link #show(String)}
+     * @param rootFactory builds the screen's root node; may run on a background thread
+     * @param next        screens likely to be shown after this one (prebuilt in the background)
+     */
+    public void register(String name, Supplier<? extends Parent> rootFactory, String... next) {
+        factories.put(name, rootFactory);
+        likelyNext.put(name, Collections.unmodifiableList(Arrays.asList(next)));
+    }
+
+    /** Keeps at most this many built scenes (0 = no limit). */
+    public void setMaxCachedScenes(int maxCachedScenes) {
+        this.maxCachedScenes = maxCachedScenes;
+        evict();
+    }
+
+    /** Name of the screen on the stage, or null. */
+    public String getCurrent() {
+        return current;
+    }
+
+    /** Whether the screen's scene is built and cached. */
+    public boolean isBuilt(String name) {
+        return scenes.containsKey(name);
+    }
+
+    /** Puts the screen on the stage, building it if needed, then prebuilds the likely next ones. */
+    public void show(String name) {
+        Scene scene = sceneFor(name);
+        current = name;
+        stage.setScene(scene);
+        evict();
+        for (String next : likelyNext.getOrDefault(name, Collections.emptyList())) {
+            prebuild(next);
+        }
+    }
+
+    /** Drops all cached scenes except the one showing; they are rebuilt on demand. */
+    public void clear() {
+        scenes.keySet().removeIf(name -> !name.equals(current));
+    }
+
+    /** Stops the background thread. */
+    public void dispose() {
+        prebuilder.shutdownNow();
+    }
+
+    private Scene sceneFor(String name) {
+        Scene scene = scenes.get(name);
+        if (scene != null) {
+            return scene;
+        }
+        Supplier<? extends Parent> factory = factories.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("No scene registered as " + name);
+        }
+        long start = System.nanoTime();
+        Parent root = prebuiltRoot(name);
+        boolean prebuilt = root != null;
+        if (root == null) {
+            root = factory.get();
+        }
+        scene = new Scene(root, width, height);
+        scenes.put(name, scene);
+        LOG.debug("Scene built", "name", name, "prebuilt", prebuilt, "ms", (System.nanoTime() - start) / 1_000_000.0);
+        return scene;
+    }
+
+    // the root from a finished prebuild, or null if there is none (or it failed / is unfinished)
+    private Parent prebuiltRoot(String name) {
+        CompletableFuture<Parent> future = prebuilding.remove(name);
+        if (future == null) {
+            return null;
+        }
+        if (!future.isDone()) {
+            // a queued prebuild is skipped; a running one is left to finish and discarded
+            future.cancel(false);
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            LOG.warn("Prebuilding scene failed, building it now", "name", name, ex.getCause());
+            return null;
+        }
+    }
+
+    private void prebuild(String name) {
+        Supplier<? extends Parent> factory = factories.get(name);
+        if (factory == null || scenes.containsKey(name) || prebuilding.containsKey(name)) {
+            return;
+        }
+        prebuilding.put(name, CompletableFuture.supplyAsync(factory::get, prebuilder));
+    }
+
+    private void evict() {
+        if (maxCachedScenes <= 0) {
+            return;
+        }
+        Iterator<String> it = scenes.keySet().iterator();
+        while (scenes.size() > maxCachedScenes && it.hasNext()) {
+            String name = it.next();
+            if (!name.equals(current)) {
+                it.remove();
+                LOG.debug("Scene evicted", "name", name);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.javafx.demo.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.javafx.demo.util.StartupProfiler.Phase;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * StartupLauncher
+ *
+ * Launches an Application with startup instrumentation and reports the time to first frame,
+ * broken down by phase (see {@link StartupProfiler}).
+ *
+ * From an application's main():
+ * <pre>
+ *   public static void main(String[] args) {
+ *       StartupLauncher.launch(MyApp.class, args);
+ *   }
+ * </pre>
+ * From the command line, for any Application subclass:
+ * <pre>
+ *   java ... com.javafx.demo.util.StartupLauncher com.javafx.demo.MultiSceneApp [app args]
+ *   java ... com.javafx.demo.util.StartupLauncher --runs 20 com.javafx.demo.MultiSceneApp [app args]
+ * </pre>
+ * The second form starts the application 20 times, each in a fresh JVM (same java, class path
+ * and JVM options) that exits right after its first frame, and prints min / median / p90 / max
+ * per phase.
+ *
+ * Applications extending {@link InstrumentedApplication} also report init() and start() and
+ * the scene construction inside start(); for others the launcher only sees the toolkit and
+ * the first stage.
+ */
+public final class StartupLauncher {
+
+    /** Set in the child JVMs of an aggregated run: print the marks and exit after the first frame. */
+    static final String CHILD_PROPERTY = "startup.child";
+    private static final String RESULT_PREFIX = "startup-times ";
+    private static final long RUN_TIMEOUT_SECONDS = 120;
+
+    private StartupLauncher() {
+    }
+
+    /** Launches the application like Application.launch, with startup instrumentation. */
+    public static void launch(Class<? extends Application> appClass, String... args) {
+        StartupProfiler.mark(Phase.MAIN);
+        StartupProfiler.setAppName(appClass.getSimpleName());
+        boolean child = Boolean.getBoolean(CHILD_PROPERTY);
+        if (child) {
+            StartupProfiler.setOnFirstFrame(marks -> {
+                System.out.println(RESULT_PREFIX + join(StartupProfiler.toMillis(marks)));
+                System.out.flush();
+                Platform.exit();
+            });
+        }
+        watchToolkit();
+        Application.launch(appClass, args);
+        if (child) {
+            // threads of the application (servers, pools) must not keep the run alive
+            System.exit(0);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 0;
+        int next = 0;
+        if (args.length >= 2 && "--runs".equals(args[0])) {
+            runs = Integer.parseInt(args[1]);
+            next = 2;
+        }
+        if (args.length <= next) {
+            System.err.println("Usage: StartupLauncher [--runs N] <application class> [application args]");
+            System.exit(2);
+            return;
+        }
+        String appClassName = args[next];
+        String[] appArgs = Arrays.copyOfRange(args, next + 1, args.length);
+        if (runs <= 0) {
+            launch(Class.forName(appClassName).asSubclass(Application.class), appArgs);
+        } else {
+            aggregate(runs, appClassName, appArgs);
+        }
+    }
+
+    // marks the toolkit as soon as it accepts runLater, then watches for the first stage
+    private static void watchToolkit() {
+        Thread watcher = new Thread(() -> {
+            while (true) {
+                try {
+                    Platform.runLater(() -> {
+                        StartupProfiler.mark(Phase.TOOLKIT_READY);
+                        watchFirstStage();
+                    });
+                    return;
+                } catch (IllegalStateException notStartedYet) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+        }, "startup-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void watchFirstStage() {
+        for (Window w : Window.getWindows()) {
+            if (w instanceof Stage) {
+                StartupProfiler.watch((Stage) w);
+                return;
+            }
+        }
+        Window.getWindows().addListener(new ListChangeListener<Window>() {
+            @Override
+            public void onChanged(Change<? extends Window> c) {
+                for (Window w : Window.getWindows()) {
+                    if (w instanceof Stage) {
+                        Window.getWindows().removeListener(this);
+                        StartupProfiler.watch((Stage) w);
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    // ---------- aggregated runs ----------
+
+    private static void aggregate(int runs, String appClassName, String[] appArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-D" + CHILD_PROPERTY + "=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupLauncher.class.getName());
+        command.add(appClassName);
+        command.addAll(Arrays.asList(appArgs));
+
+        List<double[]> results = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            double[] marks = runOnce(command);
+            if (marks == null) {
+                System.err.println("run " + run + ": no first frame reported");
+            } else {
+                results.add(marks);
+                System.err.printf(Locale.ROOT, "run %d: first frame after %.1f ms%n", run, marks[Phase.FIRST_FRAME.ordinal()]);
+            }
+        }
+        System.out.println(summary(appClassName, results));
+    }
+
+    private static double[] runOnce(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<double[]> marks = new AtomicReference<>();
+        // read everything on another thread, so the child never blocks on a full pipe and a
+        // child that hangs (its pipe stays open) still runs into the timeout below
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        marks.set(parse(line.substring(RESULT_PREFIX.length())));
+                    }
+                }
+            } catch (IOException ex) {
+                // the pipe closes when the child is killed
+            }
+        }, "startup-run-output");
+        reader.setDaemon(true);
+        reader.start();
+        if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            System.err.println("run did not exit within " + RUN_TIMEOUT_SECONDS + " s, killed");
+            process.destroyForcibly().waitFor();
+        }
+        // the rest of the output is still in the pipe after the child exited
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        return marks.get();
+    }
+
+    /** Per mark: min / median / p90 / max of the time since the previous mark of the same run. */
+    static String summary(String name, List<double[]> results) {
+        Phase[] phases = Phase.values();
+        double[][] took = new double[phases.length][results.size()];
+        int[] counts = new int[phases.length];
+        double[] sumAt = new double[phases.length];
+        for (double[] marks : results) {
+            double previous = 0;
+            for (int p : StartupProfiler.order(marks)) {
+                took[p][counts[p]++] = marks[p] - previous;
+                sumAt[p] += marks[p];
+                previous = marks[p];
+            }
+        }
+        // list the marks in their average order
+        Integer[] byTime = new Integer[phases.length];
+        for (int p = 0; p < phases.length; p++) {
+            byTime[p] = p;
+        }
+        Arrays.sort(byTime, (a, b) -> Double.compare(sumAt[a] / Math.max(1, counts[a]), sumAt[b] / Math.max(1, counts[b])));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Startup of %s over %d runs (ms since the previous mark)%n", name, results.size()));
+        sb.append(String.format(Locale.ROOT, "  %-38s %8s %8s %8s %8s%n", "mark", "min", "median", "p90", "max"));
+        for (int p : byTime) {
+            if (p != Phase.JVM_START.ordinal()) {
+                appendStats(sb, phases[p].getEvent(), Arrays.copyOf(took[p], counts[p]));
+            }
+        }
+        double[] total = new double[results.size()];
+        int n = 0;
+        for (double[] marks : results) {
+            if (marks[Phase.FIRST_FRAME.ordinal()] >= 0) {
+                total[n++] = marks[Phase.FIRST_FRAME.ordinal()];
+            }
+        }
+        appendStats(sb, "time to first frame", Arrays.copyOf(total, n));
+        return sb.toString();
+    }
+
+    private static void appendStats(StringBuilder sb, String step, double[] values) {
+        if (values.length == 0) {
+            sb.append(String.format(Locale.ROOT, "  %-38s %8s %8s %8s %8s%n", step, "-", "-", "-", "-"));
+            return;
+        }
+        Arrays.sort(values);
+        sb.append(String.format(Locale.ROOT, "  %-38s %8.1f %8.1f %8.1f %8.1f%n", step, values[0],
+                percentile(values, 0.5), percentile(values, 0.9), values[values.length - 1]));
+    }
+
+    // nearest-rank percentile of sorted values
+    private static double percentile(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static String join(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : values) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(String.format(Locale.ROOT, "%.3f", v));
+        }
+        return sb.toString();
+    }
+
+    private static double[] parse(String csv) {
+        String[] parts = csv.trim().split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i]);
+        }
+        return values;
+    }
+}
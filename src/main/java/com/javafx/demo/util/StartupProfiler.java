@@ -0,0 +1,219 @@
+package com.javafx.demo.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import com.javafx.demo.logging.Log;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * StartupProfiler
+ *
+ * Records when each startup phase of the (single) application in this JVM was reached, from
+ * JVM start up to the first frame, and reports the breakdown once the first frame is done.
+ *
+ * {@link StartupLauncher} marks main() and the toolkit, {@link InstrumentedApplication} marks
+ * init() / start(), and {@link #watch(Stage)} follows the primary stage: scene set, end of the
+ * first CSS + layout pass (usually inside Stage.show(), which sizes the window), first pulse
+ * and the end of that pulse, when the frame has been synchronized to the render thread.
+ * JavaFX has no public hook for "frame is on screen"; painting itself runs on the render
+ * thread in parallel with the FX thread.
+ *
+ * The report lists the marks in the order they were reached, each with the time since the
+ * previous one.
+ *
+ * Each phase keeps its first mark, so later scenes or stages do not change the numbers.
+ * Times are taken with System.nanoTime(); JVM start comes from the RuntimeMXBean (ms
+ * resolution).
+ */
+public final class StartupProfiler {
+
+    private static final Log LOG = Log.get(StartupProfiler.class);
+
+    /** Startup milestones; the report lists them in the order they were reached. */
+    public enum Phase {
+        JVM_START("JVM start"),
+        MAIN("main() entered"),
+        TOOLKIT_READY("toolkit ready"),
+        INIT_DONE("init() done"),
+        START_CALLED("start() called"),
+        SCENE_SET("scene built and set on the stage"),
+        FIRST_LAYOUT("first CSS + layout pass done"),
+        START_RETURNED("start() returned"),
+        FIRST_PULSE("first pulse started"),
+        FIRST_FRAME("first pulse done (frame to renderer)");
+
+        private final String event;
+
+        Phase(String event) {
+            this.event = event;
+        }
+
+        /** What happened at this mark. */
+        public String getEvent() {
+            return event;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // nanoTime of each mark, 0 = not reached
+    private static final long[] marks = new long[PHASES.length];
+    private static String appName = "application";
+    private static Consumer<long[]> onFirstFrame;
+    private static boolean watching;
+
+    static {
+        // nanoTime has no fixed origin: place JVM start on its scale via the wall clock
+        long uptimeMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        marks[Phase.JVM_START.ordinal()] = System.nanoTime() - uptimeMillis * 1_000_000L;
+    }
+
+    private StartupProfiler() {
+    }
+
+    /** Name shown in the report. */
+    public static synchronized void setAppName(String name) {
+        appName = name;
+    }
+
+    /** Replaces the default action after the first frame (logging the report). */
+    public static synchronized void setOnFirstFrame(Consumer<long[]> action) {
+        onFirstFrame = action;
+    }
+
+    /** Records that the phase was reached now (the first call per phase counts). */
+    public static synchronized void mark(Phase phase) {
+        if (marks[phase.ordinal()] == 0) {
+            marks[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static synchronized boolean isMarked(Phase phase) {
+        return marks[phase.ordinal()] != 0;
+    }
+
+    /**
+     * Follows the stage until its first frame: marks the first scene, first pulse, first
+     * CSS + layout pass and the end of that pulse. Call on the FX thread.
+     */
+    public static void watch(Stage stage) {
+        synchronized (StartupProfiler.class) {
+            // only the first stage counts (launcher and base class may both ask)
+            if (watching) {
+                return;
+            }
+            watching = true;
+        }
+        if (stage.getScene() != null) {
+            watchScene(stage.getScene());
+            return;
+        }
+        stage.sceneProperty().addListener(new ChangeListener<Scene>() {
+            @Override
+            public void changed(ObservableValue<? extends Scene> obs, Scene oldScene, Scene scene) {
+                if (scene != null) {
+                    stage.sceneProperty().removeListener(this);
+                    watchScene(scene);
+                }
+            }
+        });
+    }
+
+    private static void watchScene(Scene scene) {
+        mark(Phase.SCENE_SET);
+        // the root needs layout until the first layout pass, wherever that happens
+        scene.getRoot().needsLayoutProperty().addListener(new ChangeListener<Boolean>() {
+            @Override
+            public void changed(ObservableValue<? extends Boolean> obs, Boolean oldValue, Boolean needsLayout) {
+                if (!needsLayout) {
+                    obs.removeListener(this);
+                    mark(Phase.FIRST_LAYOUT);
+                }
+            }
+        });
+        Runnable[] listeners = new Runnable[2];
+        listeners[0] = () -> {
+            mark(Phase.FIRST_PULSE);
+            scene.removePreLayoutPulseListener(listeners[0]);
+        };
+        listeners[1] = () -> {
+            mark(Phase.FIRST_LAYOUT);
+            scene.removePostLayoutPulseListener(listeners[1]);
+            // runs when the rest of this pulse (sync to the render thread) is done
+            Platform.runLater(() -> {
+                mark(Phase.FIRST_FRAME);
+                firstFrameDone();
+            });
+        };
+        scene.addPreLayoutPulseListener(listeners[0]);
+        scene.addPostLayoutPulseListener(listeners[1]);
+    }
+
+    private static void firstFrameDone() {
+        long[] snapshot;
+        Consumer<long[]> action;
+        synchronized (StartupProfiler.class) {
+            snapshot = marks.clone();
+            action = onFirstFrame;
+        }
+        if (action != null) {
+            action.accept(snapshot);
+        } else {
+            LOG.info("Startup breakdown\n" + report(appName, snapshot));
+        }
+    }
+
+    /**
+     * Milliseconds from JVM start to each mark, or -1 for marks not reached
+     * (index = Phase ordinal).
+     */
+    public static double[] toMillis(long[] nanoMarks) {
+        double[] ms = new double[nanoMarks.length];
+        long origin = nanoMarks[Phase.JVM_START.ordinal()];
+        for (int i = 0; i < ms.length; i++) {
+            ms[i] = nanoMarks[i] == 0 ? -1 : (nanoMarks[i] - origin) / 1e6;
+        }
+        return ms;
+    }
+
+    /** The reached marks in time order (Phase ordinals), JVM_START first. */
+    public static int[] order(double[] millis) {
+        return IntStream.range(0, millis.length)
+                .filter(i -> millis[i] >= 0)
+                .boxed()
+                .sorted((a, b) -> Double.compare(millis[a], millis[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /** Table of the marks in the order reached: time since JVM start and since the previous mark. */
+    public static String report(String name, long[] nanoMarks) {
+        double[] at = toMillis(nanoMarks);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Startup of %s (ms)%n", name));
+        sb.append(String.format(Locale.ROOT, "  %-38s %9s %9s%n", "mark", "at", "+"));
+        double previous = 0;
+        for (int p : order(at)) {
+            if (p == Phase.JVM_START.ordinal()) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "  %-38s %9.1f %9.1f%n", PHASES[p].getEvent(), at[p], at[p] - previous));
+            previous = at[p];
+        }
+        for (int p = 1; p < PHASES.length; p++) {
+            if (at[p] < 0) {
+                sb.append(String.format(Locale.ROOT, "  %-38s %9s %9s%n", PHASES[p].getEvent(), "-", "-"));
+            }
+        }
+        sb.append(String.format(Locale.ROOT, "  %-38s %9.1f", "time to first frame", at[Phase.FIRST_FRAME.ordinal()]));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.javafx.demo.util;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.binding.ObjectBinding;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.util.Duration;
+
+/**
+ * ThrottledValue
+ *
+ * Wraps an ObservableValue so that its listeners run at most once per pulse (or at most once
+ * per given interval), with only the latest value.
+ *
+ * Dragging a Slider changes its value for every mouse event, often several times per frame.
+ * Every listener on valueProperty() then runs for values that are never even shown. Listening
+ * to a ThrottledValue instead:
+ * <pre>
+ *   ThrottledValue&lt;Number&gt; value = ThrottledValue.perPulse(slider.valueProperty());
+ *   value.addListener((obs, oldV, newV) -&gt; status.setText("Slider " + newV.intValue()));
+ *   progressBar.progressProperty().bind(Bindings.createDoubleBinding(() -&gt; value.get().doubleValue() / 100, value));
+ * </pre>
+ * The intermediate values are counted in {@link #getSkippedCount()}.
+ *
+ * The wrapper is a normal ObservableValue (an ObjectBinding), so it works with
+ * ChangeListeners, InvalidationListeners and bindings. Updates are delivered from an
+ * AnimationTimer that only runs while an update is pending. Use on the FX thread;
+ * call {@link #dispose()} when the source outlives the wrapper.
+ *
+ * @param <T> value type
+ */
+public final class ThrottledValue<T> extends ObjectBinding<T> {
+
+    private final ObservableValue<T> source;
+    private final long minIntervalNanos;
+    private final ChangeListener<T> sourceListener;
+
+    private T value;
+    private T latest;
+    private int pending;
+    // meaningless before the first delivery (a Long.MIN_VALUE start would overflow now - last)
+    private long lastDeliveryNanos;
+    private long deliveredCount;
+    private long skippedCount;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (pending == 0) {
+                stop();
+            } else if (deliveredCount == 0 || now - lastDeliveryNanos >= minIntervalNanos) {
+                lastDeliveryNanos = now;
+                deliver();
+            }
+        }
+    };
+
+    private ThrottledValue(ObservableValue<T> source, long minIntervalNanos) {
+        this.source = source;
+        this.minIntervalNanos = minIntervalNanos;
+        this.value = source.getValue();
+        this.sourceListener = (obs, oldV, newV) -> {
+            latest = newV;
+            pending++;
+            // no-op while the timer is already running
+            timer.start();
+        };
+        source.addListener(sourceListener);
+    }
+
+    /** Delivers the latest value of the source at most once per pulse. */
+    public static <T> ThrottledValue<T> perPulse(ObservableValue<T> source) {
+        return new ThrottledValue<>(source, 0);
+    }
+
+    /**
+     * Delivers the latest value of the source at most once per interval (still on a pulse, so
+     * intervals shorter than a frame behave like {@link #perPulse}).
+     */
+    public static <T> ThrottledValue<T> atRate(ObservableValue<T> source, Duration interval) {
+        return new ThrottledValue<>(source, (long) (interval.toMillis() * 1_000_000));
+    }
+
+    @Override
+    protected T computeValue() {
+        return value;
+    }
+
+    /**
+     * Delivers a pending update right away instead of on the next pulse (e.g. when the user
+     * releases the slider and the final value must be applied now).
+     */
+    public void flush() {
+        if (pending > 0) {
+            deliver();
+        }
+    }
+
+    /** Number of values passed on to listeners. */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /** Number of source changes that were replaced by a newer value before being delivered. */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /** Stops listening to the source. */
+    @Override
+    public void dispose() {
+        source.removeListener(sourceListener);
+        timer.stop();
+        pending = 0;
+        latest = null;
+    }
+
+    private void deliver() {
+        skippedCount += pending - 1;
+        deliveredCount++;
+        pending = 0;
+        value = latest;
+        latest = null;
+        // listeners see the new value through computeValue()
+        invalidate();
+    }
+}
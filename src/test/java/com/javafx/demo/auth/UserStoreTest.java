@@ -0,0 +1,119 @@
+package com.javafx.demo.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * UserStoreTest
+ *
+ * Round trips through the memory-mapped user store, reopening it from disk, and lookups in an
+ * index full enough that names share slots.
+ */
+class UserStoreTest {
+
+    // a cheap work factor: the store only copies the hash, it never checks it
+    private final PasswordHasher hasher = new PasswordHasher(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storedHashIsReturnedUnchanged() throws IOException {
+        String hash = hasher.hash("secret".toCharArray());
+        try (UserStore store = UserStore.openOrCreate(dir.resolve("users.db"), 10)) {
+            store.put("alice", hash);
+
+            assertEquals(hash, store.getPasswordHash("alice"));
+            assertTrue(hasher.verify("secret".toCharArray(), store.getPasswordHash("alice")));
+            assertEquals(1, store.size());
+            assertNull(store.getPasswordHash("bob"));
+            assertFalse(store.contains("alic"));
+        }
+    }
+
+    @Test
+    void reopenedStoreHasTheSameUsers() throws IOException {
+        Path file = dir.resolve("users.db");
+        String alice = hasher.hash("a".toCharArray());
+        String bob = hasher.hash("b".toCharArray());
+        try (UserStore store = UserStore.openOrCreate(file, 10)) {
+            store.put("alice", alice);
+            store.put("bob", bob);
+        }
+
+        try (UserStore store = UserStore.openExisting(file)) {
+            assertEquals(2, store.size());
+            assertEquals(10, store.capacity());
+            assertEquals(alice, store.getPasswordHash("alice"));
+            assertEquals(bob, store.getPasswordHash("bob"));
+        }
+    }
+
+    @Test
+    void openExistingNeverCreatesAStore() {
+        Path file = dir.resolve("missing.db");
+
+        assertThrows(NoSuchFileException.class, () -> UserStore.openExisting(file));
+        assertFalse(file.toFile().exists());
+    }
+
+    @Test
+    void changedPasswordReplacesTheOldHash() throws IOException {
+        String first = hasher.hash("first".toCharArray());
+        String second = hasher.hash("second".toCharArray());
+        try (UserStore store = UserStore.openOrCreate(dir.resolve("users.db"), 10)) {
+            store.put("alice", first);
+            store.put("alice", second);
+
+            assertEquals(second, store.getPasswordHash("alice"));
+            assertNotEquals(first, store.getPasswordHash("alice"));
+            assertEquals(1, store.size());
+            assertEquals(2, store.records());
+        }
+    }
+
+    @Test
+    void fullIndexFindsEveryUser() throws IOException {
+        // 500 names in 1,024 slots: many probe past a slot taken by another name
+        int users = 500;
+        String[] hashes = new String[users];
+        try (UserStore store = UserStore.openOrCreate(dir.resolve("users.db"), users)) {
+            for (int i = 0; i < users; i++) {
+                hashes[i] = hasher.hash(("pw" + i).toCharArray());
+                store.put("user" + i, hashes[i]);
+            }
+
+            assertEquals(users, store.size());
+            for (int i = 0; i < users; i++) {
+                assertEquals(hashes[i], store.getPasswordHash("user" + i), "user" + i);
+            }
+            assertFalse(store.contains("user" + users));
+            assertFalse(store.contains("User0"));
+            assertThrows(IllegalStateException.class, () -> store.put("one-too-many", hashes[0]));
+        }
+    }
+
+    @Test
+    void rejectsNamesThatDoNotFitARecord() throws IOException {
+        String hash = hasher.hash("pw".toCharArray());
+        String tooLong = "x".repeat(UserStore.MAX_NAME_LENGTH + 1);
+        try (UserStore store = UserStore.openOrCreate(dir.resolve("users.db"), 10)) {
+            assertThrows(IllegalArgumentException.class, () -> store.put("", hash));
+            assertThrows(IllegalArgumentException.class, () -> store.put(tooLong, hash));
+            assertThrows(IllegalArgumentException.class, () -> store.put("alice", "plain text"));
+            assertFalse(store.contains(tooLong));
+            assertEquals(0, store.size());
+        }
+    }
+}
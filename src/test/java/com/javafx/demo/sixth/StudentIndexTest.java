@@ -0,0 +1,149 @@
+/**
+ *
+ */
+package com.javafx.demo.sixth;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.javafx.demo.sixth.StudentIndex.Column;
+import com.javafx.demo.sixth.StudentIndex.SortKey;
+
+/**
+ * StudentIndexTest
+ *
+ * Sorting, filtering and row lookup of the dashboard's student index.
+ *
+ * @author Pradeep
+ *
+ */
+class StudentIndexTest {
+
+	private final StudentIndex index = StudentIndex.generate(10_000_001, 5_000, 7);
+
+	@Test
+	void noFilterAndNoSortIsTheRoster() {
+		int[] view = index.query(null, List.of());
+
+		assertEquals(index.size(), view.length);
+		for(int i = 0; i < view.length; i++) {
+			assertEquals(i, view[i]);
+		}
+		assertArrayEquals(view, index.query("   ", List.of()));
+	}
+
+	@Test
+	void sortsByEachColumnBothWays() {
+		for(Column column : Column.values()) {
+			int[] ascending = index.query(null, List.of(new SortKey(column, true)));
+			int[] descending = index.query(null, List.of(new SortKey(column, false)));
+			for(int i = 1; i < ascending.length; i++) {
+				assertTrue(compare(column, ascending[i - 1], ascending[i]) <= 0, column + " asc at " + i);
+				assertTrue(compare(column, descending[i - 1], descending[i]) >= 0, column + " desc at " + i);
+			}
+		}
+	}
+
+	@Test
+	void tiesKeepTheRosterOrder() {
+		int[] view = index.query(null, List.of(new SortKey(Column.CITY, true)));
+
+		for(int i = 1; i < view.length; i++) {
+			if(compare(Column.CITY, view[i - 1], view[i]) == 0) {
+				assertTrue(view[i - 1] < view[i], "rows " + view[i - 1] + " and " + view[i]);
+			}
+		}
+	}
+
+	@Test
+	void secondaryKeyOrdersTiesOfThePrimaryOne() {
+		int[] view = index.query(null, List.of(new SortKey(Column.CITY, true), new SortKey(Column.CGPA, false)));
+
+		for(int i = 1; i < view.length; i++) {
+			int city = compare(Column.CITY, view[i - 1], view[i]);
+			assertTrue(city <= 0, "city at " + i);
+			if(city == 0) {
+				assertTrue(compare(Column.CGPA, view[i - 1], view[i]) >= 0, "cgpa at " + i);
+			}
+		}
+	}
+
+	@Test
+	void filterMatchesNamesAndCitiesIgnoringCase() {
+		int[] view = index.query("BHAT", List.of());
+
+		assertTrue(view.length > 0);
+		for(int row : view) {
+			Student student = index.student(row);
+			String text = (student.getName() + " " + student.getCity()).toLowerCase(Locale.ROOT);
+			assertTrue(text.contains("bhat"), student.toString());
+		}
+		//every match is found, in roster order
+		int matches = 0;
+		for(int row = 0; row < index.size(); row++) {
+			if(index.student(row).getName().contains("Bhat")) {
+				assertEquals(row, view[matches++]);
+			}
+		}
+		assertEquals(matches, view.length);
+	}
+
+	@Test
+	void numericFilterMatchesTheStartOfTheId() {
+		int[] view = index.query("1000012", List.of());
+
+		//10000120 to 10000129, plus 1000012 itself if it existed (it does not)
+		assertEquals(10, view.length);
+		for(int row : view) {
+			assertTrue(String.valueOf(index.id(row)).startsWith("1000012"), "id " + index.id(row));
+		}
+	}
+
+	@Test
+	void positionOfFindsTheRowInTheView() {
+		int[] view = index.query(null, List.of(new SortKey(Column.NAME, true)));
+
+		for(int i = 0; i < view.length; i += 97) {
+			assertEquals(i, StudentIndex.positionOf(view, view[i]));
+		}
+		int[] filtered = index.query("1000012", List.of());
+		assertEquals(-1, StudentIndex.positionOf(filtered, 0));
+	}
+
+	@Test
+	void sameSeedGivesTheSameRoster() {
+		StudentIndex again = StudentIndex.generate(10_000_001, 5_000, 7);
+
+		for(int row = 0; row < index.size(); row += 101) {
+			Student student = index.student(row);
+			Student same = again.student(row);
+			assertEquals(student.getId(), same.getId());
+			assertEquals(student.getName(), same.getName());
+			assertEquals(student.getCity(), same.getCity());
+			assertEquals(student.getCgpa(), same.getCgpa());
+		}
+	}
+
+	private int compare(Column column, int a, int b) {
+		Student x = index.student(a);
+		Student y = index.student(b);
+		switch(column) {
+		case ID:
+			return Integer.compare(x.getId(), y.getId());
+		case NAME:
+			return x.getName().compareTo(y.getName());
+		case CITY:
+			return x.getCity().compareTo(y.getCity());
+		case CGPA:
+			return Double.compare(x.getCgpa(), y.getCgpa());
+		default:
+			throw new IllegalArgumentException("column " + column);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.javafx.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.javafx.demo.replay.AppUnderTest;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+
+/**
+ * PagedListTest
+ *
+ * Page loading and the update changes that tell the cells a page has arrived. Runs on the
+ * headless toolkit: loaded pages are handed over on the FX thread.
+ */
+class PagedListTest {
+
+    @BeforeAll
+    static void startToolkit() throws InterruptedException {
+        AppUnderTest.useHeadlessToolkit();
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyStarted) {
+            started.countDown();
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void elementIsNullUntilItsPageIsLoaded() throws InterruptedException {
+        List<String> changes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch loaded = new CountDownLatch(1);
+        PagedList<String> list = new PagedList<>(PagedListTest::rows, 1_000, 10, 50, 0);
+        AppUnderTest.runAndWait(() -> list.addListener((ListChangeListener<String>) c -> {
+            while (c.next()) {
+                changes.add((c.wasUpdated() ? "updated " : "other ") + c.getFrom() + "-" + c.getTo());
+            }
+            loaded.countDown();
+        }));
+
+        AppUnderTest.runAndWait(() -> {
+            assertNull(list.get(25));
+            assertFalse(list.isLoaded(25));
+        });
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        AppUnderTest.runAndWait(() -> {
+            assertEquals(List.of("updated 20-30"), changes);
+            assertTrue(list.isLoaded(20));
+            assertFalse(list.isLoaded(30));
+            assertEquals("row 25", list.get(25));
+            assertEquals(1, list.getPageLoads());
+            assertEquals(1_000, list.size());
+        });
+    }
+
+    @Test
+    void neighbouringPagesArePrefetched() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaded = new CountDownLatch(3);
+        PagedList<String> list = new PagedList<>((from, to) -> {
+            loads.incrementAndGet();
+            return rows(from, to);
+        }, 100, 10, 50, 1);
+        AppUnderTest.runAndWait(() -> list.addListener((ListChangeListener<String>) c -> loaded.countDown()));
+
+        AppUnderTest.runAndWait(() -> list.get(55));
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        AppUnderTest.runAndWait(() -> {
+            assertTrue(list.isLoaded(45) && list.isLoaded(55) && list.isLoaded(65));
+            assertFalse(list.isLoaded(35) || list.isLoaded(75));
+            // the page and its neighbours are loaded, so nothing is requested again
+            assertEquals("row 58", list.get(58));
+        });
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void searchesOnlyTheLoadedPages() throws InterruptedException {
+        CountDownLatch loaded = new CountDownLatch(1);
+        PagedList<String> list = new PagedList<>(PagedListTest::rows, 100, 10, 50, 0);
+        AppUnderTest.runAndWait(() -> list.addListener((ListChangeListener<String>) c -> loaded.countDown()));
+
+        AppUnderTest.runAndWait(() -> list.get(3));
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        AppUnderTest.runAndWait(() -> {
+            assertEquals(7, list.indexOf("row 7"));
+            assertTrue(list.contains("row 9"));
+            // exists, but its page was never loaded
+            assertEquals(-1, list.indexOf("row 50"));
+            assertEquals(1, list.getPageLoads());
+        });
+    }
+
+    @Test
+    void failedPageIsLoadedAgainOnTheNextGet() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch loaded = new CountDownLatch(1);
+        PagedList<String> list = new PagedList<>((from, to) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("first attempt fails");
+            }
+            return rows(from, to);
+        }, 10, 10, 50, 0);
+        AppUnderTest.runAndWait(() -> list.addListener((ListChangeListener<String>) c -> loaded.countDown()));
+
+        AppUnderTest.runAndWait(() -> list.get(0));
+        // a get() after the failure has been handed over asks again
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (loaded.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            AppUnderTest.runAndWait(() -> list.get(0));
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, loaded.getCount());
+        assertEquals(2, attempts.get());
+        AppUnderTest.runAndWait(() -> assertEquals("row 0", list.get(0)));
+    }
+
+    @Test
+    void rejectsIndexesOutsideTheList() throws InterruptedException {
+        PagedList<String> list = new PagedList<>(PagedListTest::rows, 10, 5);
+
+        AppUnderTest.runAndWait(() -> {
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(10));
+        });
+    }
+
+    private static List<String> rows(int from, int to) {
+        List<String> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            rows.add("row " + i);
+        }
+        return rows;
+    }
+}